@@ -77,6 +77,8 @@ public class SecurityConfig {
                 .antMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                 // Public auth endpoints used by the frontend (canonical)
                 .antMatchers("/api/auth/**").permitAll()
+                // SockJS can't send the token on the handshake; STOMP CONNECT is authenticated instead
+                .antMatchers("/ws/**").permitAll()
                 .antMatchers("/api/admin/**").hasRole("ADMIN")
                 // Enforce ROLE-based access at HTTP level for critical domains
                 .antMatchers("/api/doctors/**").hasRole("DOCTOR")
@@ -1,18 +1,80 @@
 package com.digihealth.backend.config;
 
+import com.digihealth.backend.security.StompAuthChannelInterceptor;
+import com.digihealth.backend.service.WebSocketMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over SockJS with bounded resources per direction.
+ *
+ * Inbound frames and outbound messages each run on a fixed-size pool with a bounded queue; when
+ * a queue is full the frame or message is rejected rather than buffered. Each session may have
+ * at most {@code digihealth.ws.send-buffer-bytes} waiting to be written, and a single write may
+ * block for at most {@code digihealth.ws.send-time-limit-ms}; a session over either limit is
+ * closed (status 4500, "session not reliable") so one slow client cannot hold memory or
+ * outbound threads. Clients reconnect and refetch. Heartbeats both ways let each side notice
+ * a dead peer.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${digihealth.ws.inbound.pool-size:8}")
+    private int inboundPoolSize = 8;
+
+    @Value("${digihealth.ws.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity = 1000;
+
+    @Value("${digihealth.ws.outbound.pool-size:8}")
+    private int outboundPoolSize = 8;
+
+    @Value("${digihealth.ws.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity = 10000;
+
+    @Value("${digihealth.ws.send-buffer-bytes:524288}")
+    private int sendBufferBytes = 512 * 1024;
+
+    @Value("${digihealth.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs = 10000;
+
+    @Value("${digihealth.ws.message-size-bytes:65536}")
+    private int messageSizeBytes = 64 * 1024;
+
+    @Value("${digihealth.ws.heartbeat-ms:10000}")
+    private long heartbeatMs = 10000;
+
+    // The broker's own scheduler, created by the same configuration that calls us back
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler scheduler) {
+        this.messageBrokerTaskScheduler = scheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        // /queue backs the per-user /user/queue/... destinations
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -21,4 +83,32 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferBytes)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeBytes)
+                .addDecoratorFactory(webSocketMetrics::decorate);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor);
+        registration.taskExecutor(webSocketMetrics.watchInbound(boundedExecutor(inboundPoolSize, inboundQueueCapacity)));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(webSocketMetrics.watchOutbound(boundedExecutor(outboundPoolSize, outboundQueueCapacity)));
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
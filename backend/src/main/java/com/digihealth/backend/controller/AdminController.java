@@ -1,10 +1,15 @@
 package com.digihealth.backend.controller;
 
 import com.digihealth.backend.entity.User;
-import com.digihealth.backend.entity.Appointment;
 import com.digihealth.backend.repository.UserRepository;
 import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.dto.AdminAppointmentDto;
+import com.digihealth.backend.dto.AdminUserDto;
 import com.digihealth.backend.dto.DoctorApprovalDto;
+import com.digihealth.backend.entity.Role;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,13 +17,22 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.UUID;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.time.LocalDate;
 import com.digihealth.backend.entity.AppointmentStatus;
 import com.digihealth.backend.entity.AdminSettings;
 import com.digihealth.backend.entity.AuditLog;
 import com.digihealth.backend.repository.AdminSettingsRepository;
 import com.digihealth.backend.repository.AuditLogRepository;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.PatientRepository;
+import com.digihealth.backend.security.PrincipalCache;
+import com.digihealth.backend.security.TokenDenylist;
+import com.digihealth.backend.service.AppointmentBookingService;
+import com.digihealth.backend.service.BookingPolicy;
+import com.digihealth.backend.service.DoctorEventFeed;
+import com.digihealth.backend.service.SlotAvailabilityIndex;
+import com.digihealth.backend.service.SystemMetrics;
+import com.digihealth.backend.service.WebSocketMetrics;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -31,36 +45,70 @@ public class AdminController {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentBookingService appointmentBookingService;
+
     @Autowired
     private AdminSettingsRepository adminSettingsRepository;
 
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Autowired
+    private BookingPolicy bookingPolicy;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private SystemMetrics systemMetrics;
+
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+
+    @Autowired
+    private DoctorEventFeed doctorEventFeed;
+
+    private static final java.util.Set<String> USER_SORT_FIELDS = java.util.Set.of("fullName", "email");
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_FEED_PAGE_SIZE = 200;
+
     /**
-     * Get all pending doctor approvals
-     * GET /api/admin/doctors/pending
+     * Pending doctor approvals, one page at a time
+     * GET /api/admin/doctors/pending/page?page=&size=&sort=&dir=
      */
-    @GetMapping("/doctors/pending")
-    public ResponseEntity<List<User>> getPendingDoctors() {
-        List<User> pendingDoctors = userRepository.findAll().stream()
-                .filter(user -> user.getRole().name().equals("DOCTOR"))
-                .filter(user -> !user.getIsApproved())
-                .toList();
-        return ResponseEntity.ok(pendingDoctors);
+    @GetMapping("/doctors/pending/page")
+    public ResponseEntity<?> getPendingDoctorsPage(@RequestParam(name = "page", defaultValue = "0") int page,
+                                                   @RequestParam(name = "size", defaultValue = "20") int size,
+                                                   @RequestParam(name = "sort", defaultValue = "fullName") String sort,
+                                                   @RequestParam(name = "dir", defaultValue = "asc") String dir) {
+        return userPage(Role.DOCTOR, false, page, size, sort, dir);
     }
 
     /**
-     * Get all approved doctors
-     * GET /api/admin/doctors/approved
+     * Approved doctors, one page at a time
+     * GET /api/admin/doctors/approved/page?page=&size=&sort=&dir=
      */
-    @GetMapping("/doctors/approved")
-    public ResponseEntity<List<User>> getApprovedDoctors() {
-        List<User> approvedDoctors = userRepository.findAll().stream()
-                .filter(user -> user.getRole().name().equals("DOCTOR"))
-                .filter(User::getIsApproved)
-                .toList();
-        return ResponseEntity.ok(approvedDoctors);
+    @GetMapping("/doctors/approved/page")
+    public ResponseEntity<?> getApprovedDoctorsPage(@RequestParam(name = "page", defaultValue = "0") int page,
+                                                    @RequestParam(name = "size", defaultValue = "20") int size,
+                                                    @RequestParam(name = "sort", defaultValue = "fullName") String sort,
+                                                    @RequestParam(name = "dir", defaultValue = "asc") String dir) {
+        return userPage(Role.DOCTOR, true, page, size, sort, dir);
     }
 
     /**
@@ -78,6 +126,10 @@ public class AdminController {
 
         doctor.setIsApproved(true);
         userRepository.save(doctor);
+        slotAvailabilityIndex.evictDoctor(doctor.getId());
+        principalCache.invalidate(doctor.getId());
+        // Stateless tokens carry the approval flag; the doctor signs in again to get one that says approved
+        tokenDenylist.revokeUser(doctor.getId());
 
         AuditLog log = new AuditLog();
         log.setOperation("APPROVE_DOCTOR");
@@ -113,6 +165,9 @@ public class AdminController {
         doctor.setIsApproved(false);
         doctor.setIsActive(false);
         userRepository.save(doctor);
+        slotAvailabilityIndex.evictDoctor(doctor.getId());
+        principalCache.invalidate(doctor.getId());
+        tokenDenylist.revokeUser(doctor.getId());
 
         AuditLog log = new AuditLog();
         log.setOperation("REJECT_DOCTOR");
@@ -132,15 +187,15 @@ public class AdminController {
     }
 
     /**
-     * Get all patients
-     * GET /api/admin/patients
+     * Patients, one page at a time
+     * GET /api/admin/patients/page?page=&size=&sort=&dir=
      */
-    @GetMapping("/patients")
-    public ResponseEntity<List<User>> getAllPatients() {
-        List<User> patients = userRepository.findAll().stream()
-                .filter(user -> user.getRole().name().equals("PATIENT"))
-                .toList();
-        return ResponseEntity.ok(patients);
+    @GetMapping("/patients/page")
+    public ResponseEntity<?> getPatientsPage(@RequestParam(name = "page", defaultValue = "0") int page,
+                                             @RequestParam(name = "size", defaultValue = "20") int size,
+                                             @RequestParam(name = "sort", defaultValue = "fullName") String sort,
+                                             @RequestParam(name = "dir", defaultValue = "asc") String dir) {
+        return userPage(Role.PATIENT, null, page, size, sort, dir);
     }
 
     /**
@@ -156,29 +211,93 @@ public class AdminController {
             return ResponseEntity.badRequest().body("User is not a patient");
         }
 
-        return ResponseEntity.ok(patient);
+        return ResponseEntity.ok(new AdminUserDto(patient.getId(), patient.getFullName(), patient.getEmail(),
+                patient.getPhoneNumber(), patient.getRole(), patient.getSpecialization(), patient.getLicenseNumber(),
+                patient.getIsActive(), patient.getIsApproved()));
     }
 
     /**
-     * Get all appointments (admin view)
-     * GET /api/admin/appointments
+     * Appointments feed (admin view), newest first, one page per call.
+     * Pass the returned nextCursor back as cursor to get the following page; it is null on the last page.
+     * GET /api/admin/appointments?status=&from=&to=&doctorId=&patientId=&cursor=&size=
      */
-  @GetMapping("/appointments")
-  public ResponseEntity<List<Appointment>> getAllAppointments() {
-    List<Appointment> appointments = appointmentRepository.findAll();
-    return ResponseEntity.ok(appointments);
-  }
+    @GetMapping("/appointments")
+    public ResponseEntity<?> getAppointmentsFeed(
+            @RequestParam(name = "status", required = false) AppointmentStatus status,
+            @RequestParam(name = "from", required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "doctorId", required = false) UUID doctorId,
+            @RequestParam(name = "patientId", required = false) UUID patientId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+        LocalDate cursorDate = null;
+        java.time.LocalTime cursorTime = null;
+        UUID cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(java.util.Base64.getUrlDecoder().decode(cursor),
+                        java.nio.charset.StandardCharsets.UTF_8).split("\\|");
+                cursorDate = LocalDate.parse(parts[0]);
+                cursorTime = java.time.LocalTime.parse(parts[1]);
+                cursorId = UUID.fromString(parts[2]);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            }
+        }
+
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_PAGE_SIZE);
+        // One extra row tells whether another page exists without a COUNT over the whole history
+        PageRequest window = PageRequest.of(0, limit + 1);
+        List<AdminAppointmentDto> rows = cursorId == null
+                ? appointmentRepository.findAdminFeed(status, from, to, doctorId, patientId, window)
+                : appointmentRepository.findAdminFeedAfter(status, from, to, doctorId, patientId,
+                        cursorDate, cursorTime, cursorId, window);
+        boolean hasMore = rows.size() > limit;
+        List<AdminAppointmentDto> content = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            AdminAppointmentDto last = content.get(content.size() - 1);
+            String key = last.getAppointmentDate() + "|" + last.getAppointmentTime() + "|" + last.getAppointmentId();
+            nextCursor = java.util.Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(key.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+
+        Map<String, Object> payload = new java.util.HashMap<>();
+        payload.put("content", content);
+        payload.put("size", limit);
+        payload.put("nextCursor", nextCursor);
+        return ResponseEntity.ok(payload);
+    }
 
     /**
-     * Get all doctors (both approved and pending)
-     * GET /api/admin/doctors
+     * Doctors (both approved and pending), one page at a time
+     * GET /api/admin/doctors/page?page=&size=&sort=&dir=
      */
-    @GetMapping("/doctors")
-    public ResponseEntity<List<User>> getAllDoctors() {
-        List<User> doctors = userRepository.findAll().stream()
-                .filter(user -> user.getRole().name().equals("DOCTOR"))
-                .toList();
-        return ResponseEntity.ok(doctors);
+    @GetMapping("/doctors/page")
+    public ResponseEntity<?> getDoctorsPage(@RequestParam(name = "page", defaultValue = "0") int page,
+                                            @RequestParam(name = "size", defaultValue = "20") int size,
+                                            @RequestParam(name = "sort", defaultValue = "fullName") String sort,
+                                            @RequestParam(name = "dir", defaultValue = "asc") String dir) {
+        return userPage(Role.DOCTOR, null, page, size, sort, dir);
+    }
+
+    private ResponseEntity<?> userPage(Role role, Boolean approved, int page, int size, String sort, String dir) {
+        if (!USER_SORT_FIELDS.contains(sort)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported sort field: " + sort));
+        }
+        Sort.Direction direction = "desc".equalsIgnoreCase(dir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id as a tiebreaker keeps page boundaries stable when names repeat
+        PageRequest pr = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(direction, sort).and(Sort.by("id")));
+        Page<AdminUserDto> pageRes = userRepository.findAdminUsers(role, approved, pr);
+        Map<String, Object> payload = new java.util.HashMap<>();
+        payload.put("content", pageRes.getContent());
+        payload.put("page", pageRes.getNumber());
+        payload.put("size", pageRes.getSize());
+        payload.put("totalElements", pageRes.getTotalElements());
+        payload.put("totalPages", pageRes.getTotalPages());
+        return ResponseEntity.ok(payload);
     }
 
     /**
@@ -194,9 +313,7 @@ public class AdminController {
 
         // Prevent deactivating admins, especially the last one
         if ("ADMIN".equals(roleName)) {
-            long activeAdmins = userRepository.findAll().stream()
-                    .filter(u -> "ADMIN".equals(u.getRole().name()) && Boolean.TRUE.equals(u.getIsActive()))
-                    .count();
+            long activeAdmins = userRepository.countByRoleAndIsActive(Role.ADMIN, true);
             if (activeAdmins <= 1) {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "Cannot deactivate the last active admin account"));
@@ -213,27 +330,22 @@ public class AdminController {
 
         // Cascade: Cancel future SCHEDULED appointments
         LocalDate today = LocalDate.now();
-        List<Appointment> futureAppts;
+        List<UUID> cancelledIds;
         if ("DOCTOR".equals(roleName)) {
-            futureAppts = appointmentRepository.findAll().stream()
-                    .filter(a -> a.getDoctor().getUser().getId().equals(id))
-                    .filter(a -> !a.getAppointmentDate().isBefore(today))
-                    .filter(a -> AppointmentStatus.SCHEDULED.equals(a.getStatus()))
-                    .collect(Collectors.toList());
+            cancelledIds = doctorRepository.findDoctorIdByUserId(id)
+                    .map(doctorId -> appointmentBookingService.cancelScheduledForDoctor(doctorId, today))
+                    .orElse(List.of());
         } else { // PATIENT
-            futureAppts = appointmentRepository.findAll().stream()
-                    .filter(a -> a.getPatient().getUser().getId().equals(id))
-                    .filter(a -> !a.getAppointmentDate().isBefore(today))
-                    .filter(a -> AppointmentStatus.SCHEDULED.equals(a.getStatus()))
-                    .collect(Collectors.toList());
-        }
-        if (!futureAppts.isEmpty()) {
-            futureAppts.forEach(a -> a.setStatus(AppointmentStatus.CANCELLED));
-            appointmentRepository.saveAll(futureAppts);
+            cancelledIds = patientRepository.findPatientIdByUserId(id)
+                    .map(patientId -> appointmentBookingService.cancelScheduledForPatient(patientId, today))
+                    .orElse(List.of());
         }
 
         user.setIsActive(false);
         userRepository.save(user);
+        slotAvailabilityIndex.evictDoctor(id);
+        principalCache.invalidate(id);
+        tokenDenylist.revokeUser(id);
 
         AuditLog log = new AuditLog();
         log.setOperation("DEACTIVATE_USER");
@@ -246,7 +358,8 @@ public class AdminController {
         return ResponseEntity.ok(Map.of(
                 "message", "User deactivated successfully",
                 "userId", id.toString(),
-                "status", "INACTIVE"
+                "status", "INACTIVE",
+                "cancelledAppointmentIds", cancelledIds
         ));
     }
 
@@ -269,6 +382,8 @@ public class AdminController {
 
         user.setIsActive(true);
         userRepository.save(user);
+        slotAvailabilityIndex.evictDoctor(id);
+        principalCache.invalidate(id);
 
         AuditLog log = new AuditLog();
         log.setOperation("REACTIVATE_USER");
@@ -299,31 +414,26 @@ public class AdminController {
       long freeMem = rt.freeMemory();
       long usedMem = totalMem - freeMem;
 
-      long totalDoctors = userRepository.findAll().stream().filter(u -> "DOCTOR".equals(u.getRole().name())).count();
-      long totalPatients = userRepository.findAll().stream().filter(u -> "PATIENT".equals(u.getRole().name())).count();
-      long scheduledAppointments = appointmentRepository.findAll().stream().filter(a -> a.getStatus() == AppointmentStatus.SCHEDULED || a.getStatus() == AppointmentStatus.CONFIRMED).count();
-      long completedAppointments = appointmentRepository.findAll().stream().filter(a -> a.getStatus() == AppointmentStatus.COMPLETED).count();
-
-      boolean dbOk = true;
-      try {
-        // simple check
-        userRepository.count();
-      } catch (Exception ex) {
-        dbOk = false;
-      }
-
-      AdminSettings settings = adminSettingsRepository.findById(1L).orElse(null);
+      SystemMetrics.Snapshot metrics = systemMetrics.current();
+      java.time.Instant refreshedAt = metrics.getRefreshedAt();
 
       status.put("serverTime", java.time.ZonedDateTime.now().toString());
       status.put("uptimeSeconds", uptimeMs / 1000);
       status.put("memoryUsedBytes", usedMem);
       status.put("memoryTotalBytes", totalMem);
-      status.put("databaseHealthy", dbOk);
-      status.put("maintenanceMode", settings != null && Boolean.TRUE.equals(settings.getMaintenanceMode()));
-      status.put("totalDoctors", totalDoctors);
-      status.put("totalPatients", totalPatients);
-      status.put("scheduledAppointments", scheduledAppointments);
-      status.put("completedAppointments", completedAppointments);
+      status.put("databaseHealthy", metrics.isDatabaseHealthy());
+      status.put("maintenanceMode", bookingPolicy.current().isMaintenanceMode());
+      status.put("totalDoctors", metrics.users(Role.DOCTOR));
+      status.put("totalPatients", metrics.users(Role.PATIENT));
+      status.put("scheduledAppointments", metrics.appointments(AppointmentStatus.SCHEDULED) + metrics.appointments(AppointmentStatus.CONFIRMED));
+      status.put("completedAppointments", metrics.appointments(AppointmentStatus.COMPLETED));
+      status.put("totalAppointments", metrics.totalAppointments());
+      status.put("appointmentsByStatus", metrics.getAppointmentsByStatus());
+      status.put("metricsRefreshedAt", refreshedAt != null ? refreshedAt.toString() : null);
+      status.put("metricsAgeSeconds", refreshedAt != null ? java.time.Duration.between(refreshedAt, java.time.Instant.now()).getSeconds() : null);
+      status.put("principalCache", principalCache.stats());
+      status.put("websocket", webSocketMetrics.stats());
+      status.put("dashboardFeed", doctorEventFeed.stats());
 
       return ResponseEntity.ok(status);
     } catch (Exception e) {
@@ -352,7 +462,7 @@ public class AdminController {
         if (settings.getId() == null || !settings.getId().equals(1L)) {
             return ResponseEntity.badRequest().body(null);
         }
-        AdminSettings saved = adminSettingsRepository.save(settings);
+        AdminSettings saved = bookingPolicy.save(settings);
         return ResponseEntity.ok(saved);
     }
 }
@@ -3,6 +3,7 @@ package com.digihealth.backend.controller;
 import com.digihealth.backend.dto.AdminSettingsDto;
 import com.digihealth.backend.entity.AdminSettings;
 import com.digihealth.backend.repository.AdminSettingsRepository;
+import com.digihealth.backend.service.BookingPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,9 @@ public class AdminSettingsController {
     @Autowired
     private AdminSettingsRepository adminSettingsRepository;
 
+    @Autowired
+    private BookingPolicy bookingPolicy;
+
     @GetMapping
     public ResponseEntity<AdminSettings> getSettings() {
         AdminSettings settings = adminSettingsRepository.findAll().stream().findFirst().orElseGet(() -> {
@@ -85,7 +89,7 @@ public class AdminSettingsController {
         settings.setSessionTimeoutMinutes(dto.getSessionTimeoutMinutes());
         settings.setMaxLoginAttempts(dto.getMaxLoginAttempts());
 
-        AdminSettings saved = adminSettingsRepository.save(settings);
+        AdminSettings saved = bookingPolicy.save(settings);
         return ResponseEntity.ok(saved);
     }
 }
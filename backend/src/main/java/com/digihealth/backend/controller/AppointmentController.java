@@ -1,9 +1,12 @@
 package com.digihealth.backend.controller;
 
 import com.digihealth.backend.dto.AppointmentBookingDto;
+import com.digihealth.backend.dto.AppointmentDto;
+import com.digihealth.backend.dto.DoctorSummaryDto;
 import com.digihealth.backend.dto.StatusUpdateDto;
 import com.digihealth.backend.entity.Appointment;
 import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Role;
 import com.digihealth.backend.entity.User;
 import com.digihealth.backend.entity.Doctor;
 import com.digihealth.backend.entity.Patient;
@@ -14,11 +17,15 @@ import com.digihealth.backend.repository.UserRepository;
 import com.digihealth.backend.repository.DoctorRepository;
 import com.digihealth.backend.repository.PatientRepository;
 import com.digihealth.backend.repository.DoctorWorkDayRepository;
-import com.digihealth.backend.repository.AdminSettingsRepository;
-import com.digihealth.backend.entity.AdminSettings;
 import com.digihealth.backend.security.JwtTokenProvider;
+import com.digihealth.backend.security.UserPrincipal;
+import com.digihealth.backend.service.AppointmentBookingService;
 import com.digihealth.backend.service.AppointmentNotificationService;
+import com.digihealth.backend.service.BookingPolicy;
+import com.digihealth.backend.service.SlotAvailabilityIndex;
+import com.digihealth.backend.service.SlotTakenException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,6 +41,10 @@ import java.util.UUID;
 @RequestMapping("/api/appointments")
 public class AppointmentController {
 
+    private static final int MAX_RANGE_DAYS = 92;
+
+    private static final Sort DOCTOR_SORT = Sort.by("fullName").and(Sort.by("id"));
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -53,7 +64,13 @@ public class AppointmentController {
   private DoctorWorkDayRepository doctorWorkDayRepository;
 
   @Autowired
-  private AdminSettingsRepository adminSettingsRepository;
+  private BookingPolicy bookingPolicy;
+
+  @Autowired
+  private AppointmentBookingService appointmentBookingService;
+
+  @Autowired
+  private SlotAvailabilityIndex slotAvailabilityIndex;
 
 
 
@@ -78,9 +95,7 @@ public class AppointmentController {
                 return ResponseEntity.badRequest().body("User not authenticated");
             }
 
-            String email = auth.getName();
-            User patientUser = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Patient user not found"));
+            Patient patient = currentPatient(auth);
 
             // Get doctor user
             User doctorUser = userRepository.findById(bookingDto.getDoctorId())
@@ -98,24 +113,19 @@ public class AppointmentController {
             Doctor doctor = doctorRepository.findByUserId(bookingDto.getDoctorId())
                     .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
 
-            // Get Patient entity linked to current user
-            Patient patient = patientRepository.findByUserId(patientUser.getId())
-                    .orElseThrow(() -> new RuntimeException("Patient profile not found"));
-
       java.time.LocalDate today = java.time.LocalDate.now();
       java.time.LocalDateTime now = java.time.LocalDateTime.now();
 
-      AdminSettings settings = adminSettingsRepository.findById(1L).orElse(null);
-      boolean maintenanceMode = settings != null && Boolean.TRUE.equals(settings.getMaintenanceMode());
-      if (maintenanceMode) {
+      BookingPolicy.Snapshot policy = bookingPolicy.current();
+      if (policy.isMaintenanceMode()) {
         return ResponseEntity.badRequest().body("Booking is currently disabled (maintenance mode)");
       }
 
-      boolean allowSameDay = settings == null || Boolean.TRUE.equals(settings.getAllowSameDayBooking());
-      Integer minAdvanceHours = settings != null && settings.getMinAdvanceHours() != null ? settings.getMinAdvanceHours() : 24;
-      Integer maxAdvanceDays = settings != null && settings.getMaxAdvanceDays() != null ? settings.getMaxAdvanceDays() : 90;
-      Integer slotMinutes = settings != null && settings.getAppointmentSlotMinutes() != null ? settings.getAppointmentSlotMinutes() : 30;
-      boolean autoConfirm = settings != null && Boolean.TRUE.equals(settings.getAutoConfirmAppointments());
+      boolean allowSameDay = policy.isAllowSameDayBooking();
+      int minAdvanceHours = policy.getMinAdvanceHours();
+      int maxAdvanceDays = policy.getMaxAdvanceDays();
+      int slotMinutes = policy.getSlotMinutes();
+      boolean autoConfirm = policy.isAutoConfirm();
 
       java.time.LocalDate apptDate = bookingDto.getAppointmentDate();
       java.time.LocalTime apptTime = bookingDto.getAppointmentTime();
@@ -158,12 +168,6 @@ public class AppointmentController {
         return ResponseEntity.badRequest().body("Selected time is not aligned to " + slotMinutes + "-minute slots");
       }
 
-      List<Appointment> existingOnDay = appointmentRepository.findByDoctorAndAppointmentDate(doctor, apptDate);
-      boolean timeTaken = existingOnDay.stream().anyMatch(a -> a.getAppointmentTime().equals(apptTime));
-      if (timeTaken) {
-        return ResponseEntity.badRequest().body("Time slot already booked");
-      }
-
       Appointment appointment = new Appointment();
       appointment.setPatient(patient);
       appointment.setDoctor(doctor);
@@ -173,9 +177,14 @@ public class AppointmentController {
       appointment.setSymptoms(bookingDto.getSymptoms());
       appointment.setStatus(autoConfirm ? AppointmentStatus.CONFIRMED : AppointmentStatus.SCHEDULED);
 
-      Appointment saved = appointmentRepository.save(appointment);
+      Appointment saved;
+      try {
+        saved = appointmentBookingService.book(appointment);
+      } catch (SlotTakenException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+      }
 
-      return ResponseEntity.ok(saved);
+      return ResponseEntity.ok(AppointmentDto.from(saved));
     } catch (Exception e) {
       return ResponseEntity.badRequest().body("Error booking appointment: " + e.getMessage());
     }
@@ -189,16 +198,9 @@ public class AppointmentController {
     @PreAuthorize("hasRole('DOCTOR')")
     public ResponseEntity<?> getMyAppointments() {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String email = auth.getName();
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Doctor doctor = currentDoctor(SecurityContextHolder.getContext().getAuthentication());
 
-            // Get doctor entity for this user
-            Doctor doctor = doctorRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
-
-            List<Appointment> appointments = appointmentRepository.findByDoctor(doctor);
+            List<AppointmentDto> appointments = appointmentRepository.findDtosByDoctorId(doctor.getDoctorId());
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error retrieving appointments: " + e.getMessage());
@@ -209,15 +211,9 @@ public class AppointmentController {
     @PreAuthorize("hasRole('PATIENT')")
     public ResponseEntity<?> getMyPatientAppointments() {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String email = auth.getName();
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Patient patient = currentPatient(SecurityContextHolder.getContext().getAuthentication());
 
-            Patient patient = patientRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new RuntimeException("Patient profile not found"));
-
-            List<Appointment> appointments = appointmentRepository.findByPatient(patient);
+            List<AppointmentDto> appointments = appointmentRepository.findDtosByPatientId(patient.getPatientId());
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error retrieving appointments: " + e.getMessage());
@@ -228,51 +224,52 @@ public class AppointmentController {
     @PreAuthorize("hasAnyRole('PATIENT','DOCTOR')")
   public ResponseEntity<?> getAvailableSlots(@PathVariable UUID doctorId, @RequestParam("date") java.time.LocalDate date) {
     try {
-            User doctorUser = userRepository.findById(doctorId)
-                    .orElseThrow(() -> new RuntimeException("Doctor not found"));
-            if (!doctorUser.getRole().name().equals("DOCTOR")) {
+            SlotAvailabilityIndex.DoctorCalendar calendar = slotAvailabilityIndex.calendar(doctorId);
+            if (!calendar.isDoctor()) {
                 return ResponseEntity.badRequest().body("User is not a doctor");
             }
-            if (!Boolean.TRUE.equals(doctorUser.getIsApproved())) {
+            if (!calendar.isApproved()) {
                 return ResponseEntity.badRequest().body("Doctor is not approved yet");
             }
 
-            Doctor doctor = doctorRepository.findByUserId(doctorId)
-                    .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
-
-            String abbr = date.getDayOfWeek().name().substring(0, 3);
-            DayOfWeek workDayEnum = DayOfWeek.valueOf(abbr);
-            DoctorWorkDay workDay = doctorWorkDayRepository.findByDoctorAndWorkDay(doctor, workDayEnum)
-                    .stream().findFirst().orElse(null);
-
-            if (workDay == null) {
-                return ResponseEntity.ok(java.util.Collections.emptyList());
-            }
-
-            String startStr = workDay.getAvailableStartTime() != null ? workDay.getAvailableStartTime() : "09:00";
-            String endStr = workDay.getAvailableEndTime() != null ? workDay.getAvailableEndTime() : "17:00";
-
-            java.time.LocalTime start = java.time.LocalTime.parse(startStr);
-            java.time.LocalTime end = java.time.LocalTime.parse(endStr);
-
-            List<Appointment> booked = appointmentRepository.findByDoctorAndAppointmentDate(doctor, date);
-            java.util.Set<java.time.LocalTime> bookedTimes = booked.stream()
-                    .map(Appointment::getAppointmentTime)
-                    .collect(java.util.stream.Collectors.toSet());
-
-      AdminSettings settings = adminSettingsRepository.findById(1L).orElse(null);
-      int slotMinutes = settings != null && settings.getAppointmentSlotMinutes() != null ? settings.getAppointmentSlotMinutes() : 30;
+            List<String> slots = slotAvailabilityIndex.availableSlots(calendar, date);
+            return ResponseEntity.ok(slots);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error retrieving slots: " + e.getMessage());
+        }
+    }
 
-      java.util.List<String> slots = new java.util.ArrayList<>();
-      java.time.LocalTime t = start;
-      while (!t.isAfter(end.minusMinutes(slotMinutes))) {
-        if (!bookedTimes.contains(t)) {
-          slots.add(String.format("%02d:%02d", t.getHour(), t.getMinute()));
+    /**
+     * Get available slots for every working day in a date range (max 92 days)
+     * GET /api/appointments/doctors/{doctorId}/available-slots/range?from=2025-01-01&to=2025-01-31
+     * Response:
+     * {
+     *   "from": "2025-01-01", "to": "2025-01-31", "slotMinutes": 30,
+     *   "days": [ { "date": "2025-01-01", "start": "09:00", "free": "1101..." }, ... ]
+     * }
+     * Slot i of a day starts at start + i * slotMinutes; '1' marks a free slot.
+     */
+    @GetMapping("/doctors/{doctorId}/available-slots/range")
+    @PreAuthorize("hasAnyRole('PATIENT','DOCTOR')")
+    public ResponseEntity<?> getAvailableSlotsRange(@PathVariable UUID doctorId,
+                                                    @RequestParam("from") java.time.LocalDate from,
+                                                    @RequestParam("to") java.time.LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body("'to' must not be before 'from'");
         }
-        t = t.plusMinutes(slotMinutes);
-      }
+        if (java.time.temporal.ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().body("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        try {
+            SlotAvailabilityIndex.DoctorCalendar calendar = slotAvailabilityIndex.calendar(doctorId);
+            if (!calendar.isDoctor()) {
+                return ResponseEntity.badRequest().body("User is not a doctor");
+            }
+            if (!calendar.isApproved()) {
+                return ResponseEntity.badRequest().body("Doctor is not approved yet");
+            }
 
-            return ResponseEntity.ok(slots);
+            return ResponseEntity.ok(slotAvailabilityIndex.availableRange(calendar, from, to));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error retrieving slots: " + e.getMessage());
         }
@@ -317,8 +314,7 @@ public class AppointmentController {
                     )
             ));
 
-            AdminSettings settings = adminSettingsRepository.findById(1L).orElse(null);
-            int slotMinutes = settings != null && settings.getAppointmentSlotMinutes() != null ? settings.getAppointmentSlotMinutes() : 30;
+            int slotMinutes = bookingPolicy.current().getSlotMinutes();
 
             Map<String, Object> payload = new java.util.HashMap<>();
             payload.put("workDays", workDays);
@@ -346,12 +342,16 @@ public class AppointmentController {
             Appointment appointment = appointmentRepository.findById(appointmentId)
                     .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
-            appointment.setStatus(AppointmentStatus.valueOf(statusUpdate.getStatus()));
-            Appointment updated = appointmentRepository.save(appointment);
+            Appointment updated;
+            try {
+                updated = appointmentBookingService.updateStatus(appointment, AppointmentStatus.valueOf(statusUpdate.getStatus()));
+            } catch (SlotTakenException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         
         appointmentNotificationService.notifyAppointmentStatusChange(updated);
 
-        return ResponseEntity.ok(updated);
+        return ResponseEntity.ok(AppointmentDto.from(updated));
     } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error updating appointment: " + e.getMessage());
         }
@@ -364,10 +364,7 @@ public class AppointmentController {
     @GetMapping("/doctors")
     public ResponseEntity<?> getAllDoctors() {
         try {
-            List<User> doctors = userRepository.findAll().stream()
-                    .filter(u -> u.getRole().name().equals("DOCTOR"))
-                    .filter(User::getIsApproved)
-                    .toList();
+            List<DoctorSummaryDto> doctors = userRepository.findApprovedDoctorSummaries(DOCTOR_SORT);
             return ResponseEntity.ok(doctors);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error retrieving doctors: " + e.getMessage());
@@ -384,13 +381,41 @@ public class AppointmentController {
             User doctor = userRepository.findById(doctorId)
                     .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
-            if (!doctor.getRole().name().equals("DOCTOR")) {
+            if (doctor.getRole() != Role.DOCTOR) {
                 return ResponseEntity.badRequest().body("User is not a doctor");
             }
 
-            return ResponseEntity.ok(doctor);
+            return ResponseEntity.ok(new DoctorSummaryDto(doctor.getId(), doctor.getFullName(), doctor.getEmail(),
+                    doctor.getPhoneNumber(), doctor.getSpecialization()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error retrieving doctor: " + e.getMessage());
         }
     }
+
+    /**
+     * Patient profile of the current user, by the id the JWT filter resolved when available.
+     */
+    private Patient currentPatient(Authentication auth) {
+        UserPrincipal principal = UserPrincipal.current();
+        if (principal != null && principal.getPatientId() != null) {
+            return patientRepository.findById(principal.getPatientId())
+                    .orElseThrow(() -> new RuntimeException("Patient profile not found"));
+        }
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return patientRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new RuntimeException("Patient profile not found"));
+    }
+
+    private Doctor currentDoctor(Authentication auth) {
+        UserPrincipal principal = UserPrincipal.current();
+        if (principal != null && principal.getDoctorId() != null) {
+            return doctorRepository.findById(principal.getDoctorId())
+                    .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
+        }
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return doctorRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
+    }
 }
@@ -1,8 +1,14 @@
 package com.digihealth.backend.controller;
 
 import com.digihealth.backend.dto.*;
+import com.digihealth.backend.security.UserPrincipal;
+import com.digihealth.backend.service.AppointmentBookingService;
+import com.digihealth.backend.service.CareRelationshipIndex;
 import com.digihealth.backend.service.DashboardService;
+import com.digihealth.backend.service.DoctorEventFeed;
 import com.digihealth.backend.service.DoctorService;
+import com.digihealth.backend.service.SlotAvailabilityIndex;
+import com.digihealth.backend.service.SlotTakenException;
 import com.digihealth.backend.entity.Appointment;
 import com.digihealth.backend.entity.AppointmentStatus;
 import com.digihealth.backend.entity.Doctor;
@@ -15,8 +21,10 @@ import com.digihealth.backend.repository.DoctorRepository;
 import com.digihealth.backend.repository.PatientRepository;
 import com.digihealth.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -51,7 +59,16 @@ public class DoctorDashboardController {
     private UserRepository userRepository;
 
     @Autowired
-    private com.digihealth.backend.repository.AdminSettingsRepository adminSettingsRepository;
+    private AppointmentBookingService appointmentBookingService;
+
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Autowired
+    private CareRelationshipIndex careRelationshipIndex;
+
+    @Autowired
+    private DoctorEventFeed doctorEventFeed;
 
     @GetMapping("/dashboard/summary")
     public ResponseEntity<DashboardSummaryDto> getDashboardSummary() {
@@ -59,6 +76,19 @@ public class DoctorDashboardController {
         return ResponseEntity.ok(summary);
     }
 
+    /**
+     * Live summary and appointment changes for the current doctor, as Server-Sent Events.
+     * Reconnect with Last-Event-ID to get only what was missed.
+     */
+    @GetMapping(path = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        UserPrincipal principal = UserPrincipal.current();
+        UUID doctorId = principal != null && principal.getDoctorId() != null
+                ? principal.getDoctorId()
+                : getCurrentDoctor().getDoctorId();
+        return doctorEventFeed.subscribe(doctorId, lastEventId);
+    }
+
     @GetMapping("/appointments/today")
     public ResponseEntity<List<TodayAppointmentDto>> getTodayAppointments() {
         List<TodayAppointmentDto> appointments = dashboardService.getTodayAppointmentsForCurrentDoctor();
@@ -73,14 +103,10 @@ public class DoctorDashboardController {
 
     @GetMapping("/doctors/me/patients/search")
     public ResponseEntity<List<DoctorPatientDto>> searchMyPatients(@RequestParam("q") String query) {
-        List<DoctorPatientDto> patients = dashboardService.getPatientsForCurrentDoctor();
-        String q = query == null ? "" : query.trim().toLowerCase();
-        List<DoctorPatientDto> filtered = patients.stream()
-                .filter(p -> p.getName() != null && p.getName().toLowerCase().contains(q)
-                        || p.getId() != null && p.getId().toLowerCase().contains(q)
-                        || p.getPhone() != null && p.getPhone().toLowerCase().contains(q))
-                .collect(java.util.stream.Collectors.toList());
-        return ResponseEntity.ok(filtered);
+        List<DoctorPatientDto> patients = dashboardService
+                .searchPatientsForCurrentDoctor(query, org.springframework.data.domain.Pageable.unpaged())
+                .getContent();
+        return ResponseEntity.ok(patients);
     }
 
     @GetMapping("/doctors/me/patients/page")
@@ -88,26 +114,16 @@ public class DoctorDashboardController {
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "q", required = false) String query) {
-        List<DoctorPatientDto> patients = dashboardService.getPatientsForCurrentDoctor();
-        String q = query == null ? "" : query.trim().toLowerCase();
-        List<DoctorPatientDto> filtered = patients.stream()
-                .filter(p -> q.isEmpty() ||
-                        (p.getName() != null && p.getName().toLowerCase().contains(q)) ||
-                        (p.getId() != null && p.getId().toLowerCase().contains(q)) ||
-                        (p.getPhone() != null && p.getPhone().toLowerCase().contains(q)))
-                .collect(java.util.stream.Collectors.toList());
-
-        int total = filtered.size();
-        int from = Math.max(page, 0) * Math.max(size, 1);
-        int to = Math.min(from + Math.max(size, 1), total);
-        List<DoctorPatientDto> content = from >= total ? java.util.List.of() : filtered.subList(from, to);
+        org.springframework.data.domain.PageRequest pr = org.springframework.data.domain.PageRequest.of(
+                Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        org.springframework.data.domain.Page<DoctorPatientDto> pageRes = dashboardService.searchPatientsForCurrentDoctor(query, pr);
 
         java.util.Map<String, Object> payload = new java.util.HashMap<>();
-        payload.put("content", content);
-        payload.put("page", Math.max(page, 0));
-        payload.put("size", Math.max(size, 1));
-        payload.put("totalElements", total);
-        payload.put("totalPages", (int) Math.ceil((double) total / Math.max(size, 1)));
+        payload.put("content", pageRes.getContent());
+        payload.put("page", pageRes.getNumber());
+        payload.put("size", pageRes.getSize());
+        payload.put("totalElements", pageRes.getTotalElements());
+        payload.put("totalPages", pageRes.getTotalPages());
         return ResponseEntity.ok(payload);
     }
 
@@ -141,7 +157,12 @@ public class DoctorDashboardController {
         AppointmentStatus status = req.getStatus() != null ? AppointmentStatus.valueOf(req.getStatus()) : AppointmentStatus.SCHEDULED;
         a.setStatus(status);
 
-        Appointment saved = appointmentRepository.save(a);
+        Appointment saved;
+        try {
+            saved = appointmentBookingService.book(a);
+        } catch (SlotTakenException e) {
+            throw new org.springframework.web.server.ResponseStatusException(org.springframework.http.HttpStatus.CONFLICT, e.getMessage());
+        }
         return ResponseEntity.ok(toDoctorAppointmentDto(saved));
     }
 
@@ -154,36 +175,46 @@ public class DoctorDashboardController {
             return ResponseEntity.status(403).build();
         }
 
-        if (req.getAppointmentDate() != null) {
-            a.setAppointmentDate(req.getAppointmentDate());
-        }
-        if (req.getAppointmentTime() != null) {
-            a.setAppointmentTime(req.getAppointmentTime());
+        Appointment updated;
+        try {
+            updated = appointmentBookingService.update(a, x -> {
+                if (req.getAppointmentDate() != null) {
+                    x.setAppointmentDate(req.getAppointmentDate());
+                }
+                if (req.getAppointmentTime() != null) {
+                    x.setAppointmentTime(req.getAppointmentTime());
+                }
+                if (req.getDurationMinutes() != null) {
+                    x.setDurationMinutes(req.getDurationMinutes());
+                }
+                if (req.getStatus() != null) {
+                    x.setStatus(AppointmentStatus.valueOf(req.getStatus()));
+                }
+                if (req.getNotes() != null) {
+                    x.setNotes(req.getNotes());
+                }
+                if (req.getSymptoms() != null) {
+                    x.setSymptoms(req.getSymptoms());
+                }
+                if (req.getFollowUpRequired() != null) {
+                    x.setFollowUpRequired(req.getFollowUpRequired());
+                }
+                if (req.getFollowUpDate() != null) {
+                    x.setFollowUpDate(req.getFollowUpDate());
+                }
+            });
+        } catch (SlotTakenException e) {
+            throw new org.springframework.web.server.ResponseStatusException(org.springframework.http.HttpStatus.CONFLICT, e.getMessage());
         }
-        if (req.getDurationMinutes() != null) {
-            a.setDurationMinutes(req.getDurationMinutes());
-        }
-        if (req.getStatus() != null) {
-            a.setStatus(AppointmentStatus.valueOf(req.getStatus()));
-        }
-        if (req.getNotes() != null) {
-            a.setNotes(req.getNotes());
-        }
-        if (req.getSymptoms() != null) {
-            a.setSymptoms(req.getSymptoms());
-        }
-        if (req.getFollowUpRequired() != null) {
-            a.setFollowUpRequired(req.getFollowUpRequired());
-        }
-        if (req.getFollowUpDate() != null) {
-            a.setFollowUpDate(req.getFollowUpDate());
-        }
-
-        Appointment updated = appointmentRepository.save(a);
         return ResponseEntity.ok(toDoctorAppointmentDto(updated));
     }
 
     private Doctor getCurrentDoctor() {
+        UserPrincipal principal = UserPrincipal.current();
+        if (principal != null && principal.getDoctorId() != null) {
+            return doctorRepository.findById(principal.getDoctorId())
+                    .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        }
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
         User user = userRepository.findByEmail(email)
@@ -270,8 +301,7 @@ public class DoctorDashboardController {
     }
 
     private boolean hasDoctorPatientRelationship(Doctor doctor, Patient patient) {
-        return appointmentRepository.findByDoctor(doctor).stream()
-                .anyMatch(a -> a.getPatient().getPatientId().equals(patient.getPatientId()));
+        return careRelationshipIndex.isRelated(doctor.getDoctorId(), patient.getPatientId());
     }
 
     @PutMapping("/doctors/me/working-hours")
@@ -291,47 +321,8 @@ public class DoctorDashboardController {
         Doctor doctor = getCurrentDoctor();
         LocalDate date = LocalDate.parse(dateStr);
 
-        WorkingHoursDto wh = doctorService.getWorkingHours();
-        String dayName;
-        switch (date.getDayOfWeek()) {
-            case MONDAY: dayName = "Monday"; break;
-            case TUESDAY: dayName = "Tuesday"; break;
-            case WEDNESDAY: dayName = "Wednesday"; break;
-            case THURSDAY: dayName = "Thursday"; break;
-            case FRIDAY: dayName = "Friday"; break;
-            case SATURDAY: dayName = "Saturday"; break;
-            case SUNDAY: dayName = "Sunday"; break;
-            default: dayName = "Monday";
-        }
-
-        if (wh.getWorkDays() == null || !wh.getWorkDays().contains(dayName)) {
-            return ResponseEntity.ok(java.util.Collections.emptyList());
-        }
-
-        WorkingHoursDto.TimeRange tr = wh.getWorkHours() != null ? wh.getWorkHours().get(dayName) : null;
-        String startStr = tr != null && tr.getStartTime() != null ? tr.getStartTime() : "09:00";
-        String endStr = tr != null && tr.getEndTime() != null ? tr.getEndTime() : "17:00";
-        LocalTime start = LocalTime.parse(startStr);
-        LocalTime end = LocalTime.parse(endStr);
-
-        int slotMinutes = adminSettingsRepository.findById(1L)
-                .map(s -> s.getAppointmentSlotMinutes() != null ? s.getAppointmentSlotMinutes() : 30)
-                .orElse(30);
-
-        List<String> occupied = appointmentRepository.findByDoctor(doctor).stream()
-                .filter(a -> date.equals(a.getAppointmentDate()))
-                .map(a -> a.getAppointmentTime().toString().substring(0, 5))
-                .collect(Collectors.toList());
-
-        List<String> slots = new java.util.ArrayList<>();
-        LocalTime t = start;
-        while (!t.plusMinutes(slotMinutes).isAfter(end)) {
-            String s = t.toString().substring(0, 5);
-            if (!occupied.contains(s)) {
-                slots.add(s);
-            }
-            t = t.plusMinutes(slotMinutes);
-        }
+        SlotAvailabilityIndex.DoctorCalendar calendar = slotAvailabilityIndex.calendar(doctor.getUser().getId());
+        List<String> slots = slotAvailabilityIndex.availableSlots(calendar, date);
         return ResponseEntity.ok(slots);
     }
 }
@@ -4,6 +4,7 @@ import com.digihealth.backend.dto.CreateUpdateMedicalNoteRequest;
 import com.digihealth.backend.dto.MedicalNoteDto;
 import com.digihealth.backend.entity.*;
 import com.digihealth.backend.repository.*;
+import com.digihealth.backend.service.CareRelationshipIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -36,7 +37,15 @@ public class MedicalNotesController {
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private CareRelationshipIndex careRelationshipIndex;
+
     private Doctor getCurrentDoctor() {
+        com.digihealth.backend.security.UserPrincipal principal = com.digihealth.backend.security.UserPrincipal.current();
+        if (principal != null && principal.getDoctorId() != null) {
+            return doctorRepository.findById(principal.getDoctorId())
+                    .orElseThrow(() -> new RuntimeException("Doctor profile not found for current user"));
+        }
         org.springframework.security.core.Authentication authentication =
                 org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -47,8 +56,7 @@ public class MedicalNotesController {
     }
 
     private boolean doctorHasRelationshipWithPatient(Doctor doctor, Patient patient) {
-        return appointmentRepository.findByDoctor(doctor).stream()
-                .anyMatch(a -> a.getPatient().getPatientId().equals(patient.getPatientId()));
+        return careRelationshipIndex.isRelated(doctor.getDoctorId(), patient.getPatientId());
     }
 
     private MedicalNoteDto toDto(MedicalNote note) {
@@ -0,0 +1,29 @@
+package com.digihealth.backend.dto;
+
+import com.digihealth.backend.entity.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Row of the admin appointments feed, projected directly from the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminAppointmentDto {
+    private UUID appointmentId;
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+    private AppointmentStatus status;
+    private String notes;
+    private String symptoms;
+    private UUID doctorId;
+    private String doctorName;
+    private UUID patientId;
+    private String patientName;
+}
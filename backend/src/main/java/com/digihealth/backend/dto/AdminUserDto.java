@@ -0,0 +1,26 @@
+package com.digihealth.backend.dto;
+
+import com.digihealth.backend.entity.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * User row for the admin listings; never carries credentials.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminUserDto {
+    private UUID id;
+    private String fullName;
+    private String email;
+    private String phoneNumber;
+    private Role role;
+    private String specialization;
+    private String licenseNumber;
+    private Boolean isActive;
+    private Boolean isApproved;
+}
@@ -0,0 +1,58 @@
+package com.digihealth.backend.dto;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Appointment as returned by the booking endpoints. Flat, with only the participant
+ * fields the clients render, so serializing it never walks the entity graph.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentDto {
+    private UUID appointmentId;
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+    private Integer durationMinutes;
+    private AppointmentStatus status;
+    private String notes;
+    private String symptoms;
+    private UUID doctorId;
+    // User id of the doctor, as taken by the available-slots and work-days endpoints
+    private UUID doctorUserId;
+    private String doctorName;
+    private String specialization;
+    private UUID patientId;
+    private String patientName;
+
+    public static AppointmentDto from(Appointment a) {
+        Doctor d = a.getDoctor();
+        Patient p = a.getPatient();
+        String specialization = d.getSpecialization() != null ? d.getSpecialization()
+                : d.getUser() != null ? d.getUser().getSpecialization() : null;
+        return new AppointmentDto(
+                a.getAppointmentId(),
+                a.getAppointmentDate(),
+                a.getAppointmentTime(),
+                a.getDurationMinutes(),
+                a.getStatus(),
+                a.getNotes(),
+                a.getSymptoms(),
+                d.getDoctorId(),
+                d.getUser() != null ? d.getUser().getId() : null,
+                d.getUser() != null ? d.getUser().getFullName() : null,
+                specialization,
+                p.getPatientId(),
+                p.getUser() != null ? p.getUser().getFullName() : null);
+    }
+}
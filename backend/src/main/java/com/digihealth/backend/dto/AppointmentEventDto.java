@@ -0,0 +1,26 @@
+package com.digihealth.backend.dto;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Live appointment change pushed over STOMP. Clients refetch what they need; a lower
+ * {@code version} than one already seen for the same appointment is stale and can be ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEventDto {
+    private UUID appointmentId;
+    private AppointmentStatus status;
+    private Long version;
+
+    public static AppointmentEventDto from(Appointment appointment) {
+        return new AppointmentEventDto(appointment.getAppointmentId(), appointment.getStatus(), appointment.getVersion());
+    }
+}
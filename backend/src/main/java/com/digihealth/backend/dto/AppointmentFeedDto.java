@@ -0,0 +1,56 @@
+package com.digihealth.backend.dto;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * One appointment row change on the doctor dashboard feed, shaped like {@link TodayAppointmentDto}
+ * plus the day and version. Null fields are unchanged; clients merge it into the row with the same id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentFeedDto {
+    private String id;
+    private LocalDate date;
+    private String time;
+    private String patientName;
+    private String status;
+    private Long version;
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    public static AppointmentFeedDto from(Appointment appointment) {
+        User pUser = appointment.getPatient() != null ? appointment.getPatient().getUser() : null;
+        String patientName = pUser != null ? pUser.getFullName()
+                : ("Patient " + appointment.getPatient().getPatientId().toString().substring(0,8));
+        return new AppointmentFeedDto(appointment.getAppointmentId().toString(), appointment.getAppointmentDate(),
+                appointment.getAppointmentTime().format(TIME), patientName, appointment.getStatus().name(),
+                appointment.getVersion());
+    }
+
+    /**
+     * A change read back from the database, as written by any node.
+     */
+    public static AppointmentFeedDto of(UUID appointmentId, LocalDate date, LocalTime time, String patientName,
+                                        AppointmentStatus status, Long version) {
+        return new AppointmentFeedDto(appointmentId.toString(), date, time.format(TIME), patientName, status.name(), version);
+    }
+
+    /**
+     * A bulk cancellation, which only knows the slot.
+     */
+    public static AppointmentFeedDto cancelled(UUID appointmentId, LocalDate date, LocalTime time) {
+        return new AppointmentFeedDto(appointmentId.toString(), date, time.format(TIME), null,
+                AppointmentStatus.CANCELLED.name(), null);
+    }
+}
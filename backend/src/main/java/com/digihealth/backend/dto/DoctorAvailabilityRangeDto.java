@@ -0,0 +1,28 @@
+package com.digihealth.backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Availability of one doctor over a date range. Only working days are listed.
+ */
+@Data
+public class DoctorAvailabilityRangeDto {
+    private LocalDate from;
+    private LocalDate to;
+    private Integer slotMinutes;
+    private List<Day> days;
+
+    /**
+     * One working day. Slot i starts at {@code start + i * slotMinutes};
+     * {@code free} has one character per slot, '1' if free and '0' if booked.
+     */
+    @Data
+    public static class Day {
+        private LocalDate date;
+        private String start;
+        private String free;
+    }
+}
@@ -0,0 +1,21 @@
+package com.digihealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Public view of a doctor for search and booking; {@code id} is the doctor's user id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorSummaryDto {
+    private UUID id;
+    private String fullName;
+    private String email;
+    private String phoneNumber;
+    private String specialization;
+}
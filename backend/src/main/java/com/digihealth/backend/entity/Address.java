@@ -17,7 +17,7 @@ public class Address {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
     @Column(columnDefinition = "BINARY(16)")
     private UUID addressId;
 
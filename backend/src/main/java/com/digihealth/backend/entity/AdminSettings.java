@@ -82,4 +82,10 @@ public class AdminSettings implements Serializable {
 
     @Column(name = "reminder_hours_before")
     private Integer reminderHoursBefore = 24;
+
+    /**
+     * Bumped on every settings write so other nodes can detect the change by polling.
+     */
+    @Column(name = "settings_version")
+    private Long settingsVersion = 0L;
 }
\ No newline at end of file
@@ -12,7 +12,15 @@ import java.time.LocalTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_appointments_doctor_slot",
+                columnNames = {"doctor_id", "appointment_date", "appointment_time", "slot_active"})
+}, indexes = {
+        @Index(name = "idx_appointments_date_time", columnList = "appointment_date, appointment_time, appointmentId"),
+        @Index(name = "idx_appointments_patient_date", columnList = "patient_id, appointment_date, appointment_time"),
+        @Index(name = "idx_appointments_status_date", columnList = "status, appointment_date, appointment_time"),
+        @Index(name = "idx_appointments_doctor_patient", columnList = "doctor_id, patient_id, appointment_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +28,7 @@ public class Appointment {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
     @Column(columnDefinition = "BINARY(16)")
     private UUID appointmentId;
 
@@ -32,10 +40,10 @@ public class Appointment {
     @JoinColumn(name = "doctor_id", nullable = false)
     private Doctor doctor;
 
-    @Column(nullable = false)
+    @Column(name = "appointment_date", nullable = false)
     private LocalDate appointmentDate;
 
-    @Column(nullable = false)
+    @Column(name = "appointment_time", nullable = false)
     private LocalTime appointmentTime;
 
     @Column(nullable = false)
@@ -56,21 +64,37 @@ public class Appointment {
 
     private LocalDate followUpDate;
 
+    /**
+     * TRUE while the appointment holds its doctor/date/time slot, NULL once cancelled.
+     * Part of the unique slot constraint; NULLs never collide, so a cancelled slot can be booked again.
+     */
+    @Column(name = "slot_active")
+    private Boolean slotActive;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * Bumped on every change; lets clients order live updates and drop stale ones.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        slotActive = status == AppointmentStatus.CANCELLED ? null : Boolean.TRUE;
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        slotActive = status == AppointmentStatus.CANCELLED ? null : Boolean.TRUE;
     }
 
     // Explicit getters for Lombok compatibility
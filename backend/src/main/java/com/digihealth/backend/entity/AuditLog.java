@@ -13,7 +13,7 @@ import java.util.UUID;
 public class AuditLog {
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
     @Column(columnDefinition = "BINARY(16)")
     private UUID id;
 
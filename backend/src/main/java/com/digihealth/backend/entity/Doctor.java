@@ -19,7 +19,7 @@ public class Doctor {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
     @Column(columnDefinition = "BINARY(16)")
     private UUID doctorId;
 
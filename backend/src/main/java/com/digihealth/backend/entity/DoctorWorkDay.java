@@ -9,7 +9,9 @@ import javax.persistence.*;
 import java.util.UUID;
 
 @Entity
-@Table(name = "doctor_work_days")
+@Table(name = "doctor_work_days", indexes = {
+        @Index(name = "idx_doctor_work_days_doctor_day", columnList = "doctor_id, work_day")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +19,7 @@ public class DoctorWorkDay {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
     @Column(columnDefinition = "BINARY(16)")
     private UUID id;
 
@@ -0,0 +1,60 @@
+package com.digihealth.backend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A notification to deliver, written in the same transaction as the change it announces.
+ * Drained by {@link com.digihealth.backend.service.NotificationOutbox}.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "state, next_attempt_at"),
+        @Index(name = "idx_notification_outbox_claim", columnList = "claim_token")
+})
+@Data
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
+    @Column(columnDefinition = "BINARY(16)")
+    private UUID id;
+
+    @Column(name = "appointment_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID appointmentId;
+
+    // Status the notification announces; the appointment may have moved on by delivery time
+    @Enumerated(EnumType.STRING)
+    @Column(name = "appointment_status", nullable = false, length = 20)
+    private AppointmentStatus appointmentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxState state = OutboxState.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Set while a dispatcher holds the message; the lease is next_attempt_at
+    @Column(name = "claim_token", columnDefinition = "BINARY(16)")
+    private UUID claimToken;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
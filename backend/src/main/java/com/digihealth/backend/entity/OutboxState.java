@@ -0,0 +1,7 @@
+package com.digihealth.backend.entity;
+
+public enum OutboxState {
+    PENDING,
+    SENT,
+    DEAD
+}
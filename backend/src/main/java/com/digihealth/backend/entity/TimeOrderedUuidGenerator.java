@@ -0,0 +1,40 @@
+package com.digihealth.backend.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs: a 48-bit millisecond timestamp, a 12-bit sequence, then 62 random bits.
+ *
+ * Keys generated on this node are strictly increasing, so inserts append to the end of the
+ * InnoDB clustered index instead of splitting random pages. Within one millisecond the sequence
+ * counts up; if it runs out, the timestamp borrows the next millisecond rather than repeating.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    public static final String NAME = "com.digihealth.backend.entity.TimeOrderedUuidGenerator";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // (timestamp << 12) | sequence of the last generated id
+    private static final AtomicLong last = new AtomicLong();
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp = last.updateAndGet(prev -> Math.max(prev + 1, now));
+
+        long msb = ((stamp >>> 12) << 16) | 0x7000L | (stamp & 0xFFFL);
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
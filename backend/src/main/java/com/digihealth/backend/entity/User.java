@@ -4,13 +4,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role_approved", columnList = "role, is_approved, fullName"),
+        @Index(name = "idx_users_full_name", columnList = "fullName"),
+        @Index(name = "idx_users_phone_number", columnList = "phoneNumber")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,12 +21,8 @@ public class User {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
-    )
-    @Type(type = "uuid-char")
-    @Column(name = "id", updatable = false, nullable = false, columnDefinition = "VARCHAR(36)")
+    @GenericGenerator(name = "UUID", strategy = TimeOrderedUuidGenerator.NAME)
+    @Column(name = "id", updatable = false, nullable = false, columnDefinition = "BINARY(16)")
     private UUID id;
 
     // Basic auth and identity
@@ -50,8 +49,8 @@ public class User {
     // Soft delete / active flag for profile management
     private Boolean isActive = true;
 
-    // Doctor approval status - defaults to false for new doctors
-    @Column(name = "is_approved", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    // Doctor approval status - defaults to false for new doctors (column default is set in V1 migration)
+    @Column(name = "is_approved", nullable = false)
     private Boolean isApproved = false;
 
     // Manually added getters and setters for Lombok compatibility issues
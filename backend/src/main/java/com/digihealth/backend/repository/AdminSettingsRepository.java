@@ -2,11 +2,23 @@ package com.digihealth.backend.repository;
 
 import com.digihealth.backend.entity.AdminSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface AdminSettingsRepository extends JpaRepository<AdminSettings, Long> {
     Optional<AdminSettings> findById(Long id);
-}
\ No newline at end of file
+
+    @Query("SELECT s.settingsVersion FROM AdminSettings s WHERE s.id = :id")
+    Optional<Long> findSettingsVersion(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AdminSettings s SET s.settingsVersion = COALESCE(s.settingsVersion, 0) + 1 WHERE s.id = :id")
+    int incrementSettingsVersion(@Param("id") Long id);
+}
@@ -1,12 +1,24 @@
 package com.digihealth.backend.repository;
 
+import com.digihealth.backend.dto.AdminAppointmentDto;
+import com.digihealth.backend.dto.AppointmentDto;
 import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
 import com.digihealth.backend.entity.Doctor;
 import com.digihealth.backend.entity.Patient;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,4 +27,215 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
     List<Appointment> findByDoctorAndAppointmentDate(Doctor doctor, LocalDate date);
     List<Appointment> findByDoctor(Doctor doctor);
     List<Appointment> findByPatient(Patient patient);
+    boolean existsByDoctorAndAppointmentDateAndAppointmentTimeAndStatusNot(Doctor doctor, LocalDate date, LocalTime time, AppointmentStatus status);
+    boolean existsByDoctorDoctorIdAndPatientPatientId(UUID doctorId, UUID patientId);
+
+    /**
+     * Appointments with doctor, patient and their users loaded in the same query.
+     */
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor d LEFT JOIN FETCH d.user LEFT JOIN FETCH d.address " +
+            "JOIN FETCH a.patient p LEFT JOIN FETCH p.user LEFT JOIN FETCH p.address WHERE a.appointmentId IN :ids")
+    List<Appointment> findWithParticipantsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    String APPOINTMENT_DTO_SELECT = "SELECT new com.digihealth.backend.dto.AppointmentDto(a.appointmentId, a.appointmentDate, " +
+            "a.appointmentTime, a.durationMinutes, a.status, a.notes, a.symptoms, d.doctorId, du.id, du.fullName, " +
+            "COALESCE(d.specialization, du.specialization), p.patientId, pu.fullName) " +
+            "FROM Appointment a JOIN a.doctor d LEFT JOIN d.user du JOIN a.patient p LEFT JOIN p.user pu ";
+
+    /**
+     * A doctor's appointments as booking-endpoint rows, in one query.
+     */
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE d.doctorId = :doctorId ORDER BY a.appointmentDate, a.appointmentTime")
+    List<AppointmentDto> findDtosByDoctorId(@Param("doctorId") UUID doctorId);
+
+    /**
+     * A patient's appointments as booking-endpoint rows, in one query.
+     */
+    @Query(APPOINTMENT_DTO_SELECT + "WHERE p.patientId = :patientId ORDER BY a.appointmentDate, a.appointmentTime")
+    List<AppointmentDto> findDtosByPatientId(@Param("patientId") UUID patientId);
+
+    @Query("SELECT a.appointmentId AS appointmentId, a.appointmentDate AS appointmentDate, a.appointmentTime AS appointmentTime, " +
+            "a.status AS status, p.patientId AS patientId, pu.fullName AS patientName, du.fullName AS doctorName " +
+            "FROM Appointment a JOIN a.patient p LEFT JOIN p.user pu JOIN a.doctor d LEFT JOIN d.user du " +
+            "WHERE d.doctorId = :doctorId ORDER BY a.appointmentDate, a.appointmentTime")
+    List<AppointmentRow> findRowsByDoctor(@Param("doctorId") UUID doctorId);
+
+    @Query("SELECT a.appointmentId AS appointmentId, a.appointmentDate AS appointmentDate, a.appointmentTime AS appointmentTime, " +
+            "a.status AS status, p.patientId AS patientId, pu.fullName AS patientName, du.fullName AS doctorName " +
+            "FROM Appointment a JOIN a.patient p LEFT JOIN p.user pu JOIN a.doctor d LEFT JOIN d.user du " +
+            "WHERE d.doctorId = :doctorId AND a.appointmentDate = :date ORDER BY a.appointmentTime")
+    List<AppointmentRow> findRowsByDoctorAndDate(@Param("doctorId") UUID doctorId, @Param("date") LocalDate date);
+
+    @Query("SELECT a.appointmentDate AS appointmentDate, a.appointmentTime AS appointmentTime FROM Appointment a " +
+            "WHERE a.doctor.doctorId = :doctorId AND a.appointmentDate BETWEEN :from AND :to AND a.status <> :excluded")
+    List<BookedSlot> findBookedSlotsByDoctorBetween(@Param("doctorId") UUID doctorId, @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to, @Param("excluded") AppointmentStatus excluded);
+
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Appointment a GROUP BY a.status")
+    List<StatusCount> countAppointmentsByStatus();
+
+    @Query("SELECT COUNT(DISTINCT a.patient.patientId) FROM Appointment a WHERE a.doctor.doctorId = :doctorId")
+    long countDistinctPatientsByDoctor(@Param("doctorId") UUID doctorId);
+
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Appointment a " +
+            "WHERE a.doctor.doctorId = :doctorId AND a.appointmentDate = :date GROUP BY a.status")
+    List<StatusCount> countByDoctorAndDateGroupByStatus(@Param("doctorId") UUID doctorId, @Param("date") LocalDate date);
+
+    String ADMIN_FEED_SELECT = "SELECT new com.digihealth.backend.dto.AdminAppointmentDto(a.appointmentId, a.appointmentDate, " +
+            "a.appointmentTime, a.status, a.notes, a.symptoms, d.doctorId, du.fullName, p.patientId, pu.fullName) " +
+            "FROM Appointment a JOIN a.doctor d JOIN d.user du JOIN a.patient p JOIN p.user pu " +
+            "WHERE (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.appointmentDate >= :from) " +
+            "AND (:to IS NULL OR a.appointmentDate <= :to) " +
+            "AND (:doctorId IS NULL OR d.doctorId = :doctorId) " +
+            "AND (:patientId IS NULL OR p.patientId = :patientId) ";
+
+    String ADMIN_FEED_ORDER = "ORDER BY a.appointmentDate DESC, a.appointmentTime DESC, a.appointmentId DESC";
+
+    /**
+     * First page of the admin feed, newest first. Null filters match everything.
+     */
+    @Query(ADMIN_FEED_SELECT + ADMIN_FEED_ORDER)
+    List<AdminAppointmentDto> findAdminFeed(@Param("status") AppointmentStatus status,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("doctorId") UUID doctorId,
+                                            @Param("patientId") UUID patientId,
+                                            Pageable pageable);
+
+    /**
+     * Next page of the admin feed: the rows strictly after the cursor row in feed order.
+     * The leading date bound gives the index range scan a start point.
+     */
+    @Query(ADMIN_FEED_SELECT +
+            "AND a.appointmentDate <= :cursorDate " +
+            "AND (a.appointmentDate < :cursorDate OR a.appointmentTime < :cursorTime " +
+            "OR (a.appointmentTime = :cursorTime AND a.appointmentId < :cursorId)) " +
+            ADMIN_FEED_ORDER)
+    List<AdminAppointmentDto> findAdminFeedAfter(@Param("status") AppointmentStatus status,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to,
+                                                 @Param("doctorId") UUID doctorId,
+                                                 @Param("patientId") UUID patientId,
+                                                 @Param("cursorDate") LocalDate cursorDate,
+                                                 @Param("cursorTime") LocalTime cursorTime,
+                                                 @Param("cursorId") UUID cursorId,
+                                                 Pageable pageable);
+
+    /**
+     * A doctor's patients with their latest appointment date, ordered by name. Optional filters:
+     * name or phone prefix, or an exact patient id. The prefix escapes %, _ and itself with a backslash;
+     * the ESCAPE clause makes that explicit rather than relying on the server's default.
+     */
+    @Query(value = "SELECT p.patientId AS patientId, u.fullName AS fullName, u.phoneNumber AS phoneNumber, " +
+            "u.email AS email, MAX(a.appointmentDate) AS lastVisit " +
+            "FROM Appointment a JOIN a.patient p LEFT JOIN p.user u " +
+            "WHERE a.doctor.doctorId = :doctorId " +
+            "AND (:prefix IS NULL OR u.fullName LIKE :prefix ESCAPE '\\\\' OR u.phoneNumber LIKE :prefix ESCAPE '\\\\' " +
+            "OR p.patientId = :patientId) " +
+            "GROUP BY p.patientId, u.fullName, u.phoneNumber, u.email " +
+            "ORDER BY u.fullName, p.patientId",
+            countQuery = "SELECT COUNT(DISTINCT p.patientId) FROM Appointment a JOIN a.patient p LEFT JOIN p.user u " +
+                    "WHERE a.doctor.doctorId = :doctorId " +
+                    "AND (:prefix IS NULL OR u.fullName LIKE :prefix ESCAPE '\\\\' OR u.phoneNumber LIKE :prefix ESCAPE '\\\\' " +
+                    "OR p.patientId = :patientId)")
+    Page<RosterRow> findPatientRoster(@Param("doctorId") UUID doctorId, @Param("prefix") String prefix,
+                                      @Param("patientId") UUID patientId, Pageable pageable);
+
+    /**
+     * Future appointments of one doctor in the given status, row-locked until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a.appointmentId AS appointmentId, d.doctorId AS doctorId, d.user.id AS doctorUserId, a.appointmentDate AS appointmentDate, " +
+            "a.appointmentTime AS appointmentTime FROM Appointment a JOIN a.doctor d " +
+            "WHERE d.doctorId = :doctorId AND a.appointmentDate >= :from AND a.status = :status")
+    List<SlotRef> lockSlotsByDoctorFrom(@Param("doctorId") UUID doctorId, @Param("from") LocalDate from,
+                                        @Param("status") AppointmentStatus status);
+
+    /**
+     * Future appointments of one patient in the given status, row-locked until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a.appointmentId AS appointmentId, d.doctorId AS doctorId, d.user.id AS doctorUserId, a.appointmentDate AS appointmentDate, " +
+            "a.appointmentTime AS appointmentTime FROM Appointment a JOIN a.doctor d " +
+            "WHERE a.patient.patientId = :patientId AND a.appointmentDate >= :from AND a.status = :status")
+    List<SlotRef> lockSlotsByPatientFrom(@Param("patientId") UUID patientId, @Param("from") LocalDate from,
+                                         @Param("status") AppointmentStatus status);
+
+    /**
+     * Cancel the given appointments in one statement and free their slots.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = com.digihealth.backend.entity.AppointmentStatus.CANCELLED, " +
+            "a.slotActive = NULL, a.updatedAt = :now, a.version = a.version + 1 WHERE a.appointmentId IN :ids")
+    int cancelAll(@Param("ids") java.util.Collection<UUID> ids, @Param("now") java.time.LocalDateTime now);
+
+    /**
+     * Appointments of the given doctors written after {@code since}, oldest change first, as dashboard
+     * feed rows. Lets each node pick up changes made on the others.
+     */
+    @Query("SELECT a.appointmentId AS appointmentId, d.doctorId AS doctorId, a.appointmentDate AS appointmentDate, " +
+            "a.appointmentTime AS appointmentTime, a.status AS status, pu.fullName AS patientName, a.version AS version " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p LEFT JOIN p.user pu " +
+            "WHERE d.doctorId IN :doctorIds AND a.updatedAt > :since ORDER BY a.updatedAt")
+    List<FeedChange> findFeedChangesSince(@Param("doctorIds") Collection<UUID> doctorIds,
+                                          @Param("since") java.time.LocalDateTime since);
+
+    /**
+     * Slot held by an appointment, with the doctor's user id as used by {@code SlotAvailabilityIndex}.
+     */
+    interface SlotRef {
+        UUID getAppointmentId();
+        UUID getDoctorId();
+        UUID getDoctorUserId();
+        LocalDate getAppointmentDate();
+        LocalTime getAppointmentTime();
+    }
+
+    /**
+     * Appointment list row with participant names, read without loading any entity.
+     */
+    interface AppointmentRow {
+        UUID getAppointmentId();
+        LocalDate getAppointmentDate();
+        LocalTime getAppointmentTime();
+        AppointmentStatus getStatus();
+        UUID getPatientId();
+        String getPatientName();
+        String getDoctorName();
+    }
+
+    /**
+     * Appointment as the doctor dashboard feed sends it.
+     */
+    interface FeedChange {
+        UUID getAppointmentId();
+        UUID getDoctorId();
+        LocalDate getAppointmentDate();
+        LocalTime getAppointmentTime();
+        AppointmentStatus getStatus();
+        String getPatientName();
+        Long getVersion();
+    }
+
+    interface RosterRow {
+        UUID getPatientId();
+        String getFullName();
+        String getPhoneNumber();
+        String getEmail();
+        LocalDate getLastVisit();
+    }
+
+    /**
+     * Date and time of an occupied slot, without loading the appointment.
+     */
+    interface BookedSlot {
+        LocalDate getAppointmentDate();
+        LocalTime getAppointmentTime();
+    }
+
+    interface StatusCount {
+        AppointmentStatus getStatus();
+        long getTotal();
+    }
 }
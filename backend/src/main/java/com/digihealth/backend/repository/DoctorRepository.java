@@ -16,4 +16,7 @@ public interface DoctorRepository extends JpaRepository<Doctor, UUID> {
 
     @Query("SELECT d FROM Doctor d WHERE d.user.id = :userId")
     Optional<Doctor> findByUserId(@Param("userId") UUID userId);
-}
\ No newline at end of file
+
+    @Query("SELECT d.doctorId FROM Doctor d WHERE d.user.id = :userId")
+    Optional<UUID> findDoctorIdByUserId(@Param("userId") UUID userId);
+}
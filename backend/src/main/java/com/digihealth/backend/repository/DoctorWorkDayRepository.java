@@ -13,5 +13,4 @@ import java.util.UUID;
 public interface DoctorWorkDayRepository extends JpaRepository<DoctorWorkDay, UUID> {
     List<DoctorWorkDay> findByDoctor(Doctor doctor);
     List<DoctorWorkDay> findByDoctorAndWorkDay(Doctor doctor, DayOfWeek workDay);
-    void deleteByDoctor(Doctor doctor);
 }
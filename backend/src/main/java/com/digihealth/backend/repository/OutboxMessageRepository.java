@@ -0,0 +1,64 @@
+package com.digihealth.backend.repository;
+
+import com.digihealth.backend.entity.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, UUID> {
+
+    /**
+     * Take up to {@code limit} due messages, oldest first, by stamping them with {@code token} and
+     * pushing next_attempt_at out to {@code leaseUntil}. Single-statement, so concurrent dispatchers
+     * on other nodes never claim the same row; a lease that runs out makes the row due again.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE notification_outbox SET claim_token = :token, next_attempt_at = :leaseUntil " +
+            "WHERE state = 'PENDING' AND next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit",
+            nativeQuery = true)
+    int claimDue(@Param("token") byte[] token, @Param("now") LocalDateTime now,
+                 @Param("leaseUntil") LocalDateTime leaseUntil, @Param("limit") int limit);
+
+    List<OutboxMessage> findByClaimToken(UUID claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.state = com.digihealth.backend.entity.OutboxState.SENT, m.claimToken = NULL, " +
+            "m.attempts = m.attempts + 1, m.processedAt = :now WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.claimToken = NULL, m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt, " +
+            "m.lastError = :error WHERE m.id = :id")
+    int markRetry(@Param("id") UUID id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    /**
+     * Release the claim without counting an attempt, for messages that were never tried.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.claimToken = NULL, m.nextAttemptAt = :nextAttemptAt WHERE m.id IN :ids")
+    int defer(@Param("ids") Collection<UUID> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.state = com.digihealth.backend.entity.OutboxState.DEAD, m.claimToken = NULL, " +
+            "m.attempts = m.attempts + 1, m.lastError = :error, m.processedAt = :now WHERE m.id = :id")
+    int markDead(@Param("id") UUID id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.state = com.digihealth.backend.entity.OutboxState.SENT AND m.processedAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -16,4 +16,7 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
 
     @Query("SELECT p FROM Patient p WHERE p.user.id = :userId")
     Optional<Patient> findByUserId(@Param("userId") UUID userId);
-}
\ No newline at end of file
+
+    @Query("SELECT p.patientId FROM Patient p WHERE p.user.id = :userId")
+    Optional<UUID> findPatientIdByUserId(@Param("userId") UUID userId);
+}
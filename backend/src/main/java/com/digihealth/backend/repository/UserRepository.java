@@ -1,9 +1,18 @@
 package com.digihealth.backend.repository;
 
+import com.digihealth.backend.dto.AdminUserDto;
+import com.digihealth.backend.dto.DoctorSummaryDto;
+import com.digihealth.backend.entity.Role;
 import com.digihealth.backend.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +20,30 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.role AS role, COUNT(u) AS total FROM User u GROUP BY u.role")
+    List<RoleCount> countUsersByRole();
+
+    long countByRoleAndIsActive(Role role, Boolean isActive);
+
+    /**
+     * Admin listing rows for a role, optionally filtered by approval. Served by idx_users_role_approved.
+     */
+    @Query(value = "SELECT new com.digihealth.backend.dto.AdminUserDto(u.id, u.fullName, u.email, u.phoneNumber, u.role, " +
+            "u.specialization, u.licenseNumber, u.isActive, u.isApproved) " +
+            "FROM User u WHERE u.role = :role AND (:approved IS NULL OR u.isApproved = :approved)",
+            countQuery = "SELECT COUNT(u) FROM User u WHERE u.role = :role AND (:approved IS NULL OR u.isApproved = :approved)")
+    Page<AdminUserDto> findAdminUsers(@Param("role") Role role, @Param("approved") Boolean approved, Pageable pageable);
+
+    /**
+     * Doctors offered for booking, projected without credentials or profile details.
+     */
+    @Query("SELECT new com.digihealth.backend.dto.DoctorSummaryDto(u.id, u.fullName, u.email, u.phoneNumber, u.specialization) " +
+            "FROM User u WHERE u.role = com.digihealth.backend.entity.Role.DOCTOR AND u.isApproved = true")
+    List<DoctorSummaryDto> findApprovedDoctorSummaries(Sort sort);
+
+    interface RoleCount {
+        Role getRole();
+        long getTotal();
+    }
+}
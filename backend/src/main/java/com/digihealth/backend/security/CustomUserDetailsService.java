@@ -1,8 +1,12 @@
 package com.digihealth.backend.security;
 
+import com.digihealth.backend.entity.Role;
 import com.digihealth.backend.entity.User;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.PatientRepository;
 import com.digihealth.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,6 +22,21 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    PrincipalCache principalCache;
+
+    @Autowired
+    TokenDenylist tokenDenylist;
+
+    @Value("${jwt.stateless-principal.enabled:false}")
+    boolean statelessPrincipal;
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -36,24 +55,43 @@ public class CustomUserDetailsService implements UserDetailsService {
         );
     }
 
+    /**
+     * Resolve the caller of a verified token. In stateless principal mode a token carrying
+     * the principal claims is trusted as is, unless the user's tokens were revoked; see
+     * {@link JwtClaims} for which claims can be stale and for how long.
+     */
+    public UserDetails loadUserFromClaims(JwtClaims claims) {
+        if (statelessPrincipal) {
+            if (tokenDenylist.isRevoked(claims)) {
+                throw new org.springframework.security.authentication.DisabledException("Token has been revoked.");
+            }
+            UserPrincipal principal = claims.toPrincipal();
+            if (principal != null) {
+                return principal;
+            }
+        }
+        return loadUserById(claims.getUserId());
+    }
+
     /**
      * Resolve a user by UUID (used with JWT subject = userId).
+     * Served from the {@link PrincipalCache}; not transactional so a cache hit needs no connection.
      */
-    @Transactional
     public UserDetails loadUserById(UUID id) {
-        User user = userRepository.findById(id).orElseThrow(
-                () -> new UsernameNotFoundException("User not found with id : " + id)
-        );
+        UserPrincipal principal = principalCache.get(id);
+        if (principal == null) {
+            User user = userRepository.findById(id).orElseThrow(
+                    () -> new UsernameNotFoundException("User not found with id : " + id)
+            );
+            UUID doctorId = user.getRole() == Role.DOCTOR ? doctorRepository.findDoctorIdByUserId(id).orElse(null) : null;
+            UUID patientId = user.getRole() == Role.PATIENT ? patientRepository.findPatientIdByUserId(id).orElse(null) : null;
+            principal = UserPrincipal.create(user, doctorId, patientId);
+            principalCache.put(principal);
+        }
 
-        if (!Boolean.TRUE.equals(user.getIsActive())) {
+        if (!principal.isEnabled()) {
             throw new org.springframework.security.authentication.DisabledException("User account is deactivated.");
         }
-
-        String roleName = user.getRole() != null ? user.getRole().name() : "PATIENT";
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                AuthorityUtils.createAuthorityList("ROLE_" + roleName)
-        );
+        return principal;
     }
 }
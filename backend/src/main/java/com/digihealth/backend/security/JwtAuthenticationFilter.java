@@ -38,13 +38,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.debug("JwtAuthenticationFilter - Authorization header: {}", request.getHeader("Authorization"));
             logger.debug("JwtAuthenticationFilter - Extracted JWT: {}", jwt != null ? "Present (length=" + jwt.length() + ")" : "NULL");
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String userId = tokenProvider.getUserIdFromJWT(jwt);
+            JwtClaims claims = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
+            if (claims != null) {
+                logger.debug("JwtAuthenticationFilter - Token valid, userId: {}", claims.getUserId());
 
-                logger.debug("JwtAuthenticationFilter - Token valid, userId: {}", userId);
-
-                // Subject is the user ID (UUID). Resolve using loadUserById to align with token contents.
-                UserDetails userDetails = userDetailsService.loadUserById(java.util.UUID.fromString(userId));
+                // Subject is the user ID (UUID); principal claims are used instead when enabled.
+                UserDetails userDetails = userDetailsService.loadUserFromClaims(claims);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -0,0 +1,80 @@
+package com.digihealth.backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims of a token whose signature and expiry have been verified.
+ *
+ * The principal claims (role, email, approved, doctorId, patientId) are a snapshot taken at
+ * login. Role, email and the profile ids never change for an account. Approval and the active
+ * flag do, and every path that changes them (approve, reject, deactivate, self-deactivation)
+ * revokes the user's tokens through {@link TokenDenylist}. A revoked token is refused on the
+ * node that made the change at once and on the others within {@code jwt.denylist.sync-ms};
+ * that sync interval is the longest a stale approved flag, or a deactivated account, is honoured.
+ * Reactivation needs no revocation, since the account's earlier tokens were already revoked.
+ */
+public class JwtClaims {
+
+    static final String ROLE = "role";
+    static final String EMAIL = "email";
+    static final String APPROVED = "approved";
+    static final String DOCTOR_ID = "doctorId";
+    static final String PATIENT_ID = "patientId";
+
+    private final UUID userId;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final Claims claims;
+
+    JwtClaims(Claims claims) {
+        this.userId = UUID.fromString(claims.getSubject());
+        this.issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        this.expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        this.claims = claims;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Any other claim, or null if absent.
+     */
+    public <T> T get(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+
+    /**
+     * Principal built from the embedded claims alone, or null if the token was issued
+     * without them. Call only for a token that passed {@link TokenDenylist#isRevoked}: the
+     * account was active at login and deactivation revokes, so such a token's user is active.
+     */
+    UserPrincipal toPrincipal() {
+        String role = claims.get(ROLE, String.class);
+        if (role == null) {
+            return null;
+        }
+        return new UserPrincipal(userId, claims.get(EMAIL, String.class), role, true,
+                Boolean.TRUE.equals(claims.get(APPROVED, Boolean.class)),
+                toUuid(claims.get(DOCTOR_ID, String.class)), toUuid(claims.get(PATIENT_ID, String.class)));
+    }
+
+    private static UUID toUuid(String value) {
+        return value != null ? UUID.fromString(value) : null;
+    }
+
+    boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -2,6 +2,7 @@ package com.digihealth.backend.security;
 
 import com.digihealth.backend.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -14,14 +15,25 @@ import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JwtTokenProvider using the modern jjwt signing/validation APIs.
  * This removes deprecation warnings and provides a single source for:
  * - generating tokens from User
- * - extracting user id
- * - validating token integrity/expiry
+ * - verifying tokens and reading their claims
+ *
+ * Tokens are parsed with one shared parser (jjwt parsers are immutable and thread-safe).
+ * Verified claims are cached by SHA-256 digest of the token until the token expires, so a
+ * client reusing its token pays for the signature check once.
+ *
+ * With {@code jwt.stateless-principal.enabled} tokens also carry role, email, approval and
+ * the doctor/patient id, so requests can be authenticated without a user lookup.
  */
 @Component
 public class JwtTokenProvider {
@@ -34,8 +46,18 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
 
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;
+
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries = 10_000;
+
     private Key signingKey;
 
+    private volatile JwtParser parser;
+
+    private final Map<String, JwtClaims> verified = new ConcurrentHashMap<>();
+
     private Key getSigningKey() {
         if (signingKey != null) {
             return signingKey;
@@ -73,35 +95,74 @@ public class JwtTokenProvider {
     }
 
     public String generateTokenFromUser(User user) {
+        return generateTokenFromUser(user, null, null);
+    }
+
+    /**
+     * Token for the user; in stateless principal mode it also embeds the given profile ids.
+     */
+    public String generateTokenFromUser(User user, UUID doctorId, UUID patientId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        io.jsonwebtoken.JwtBuilder builder = Jwts.builder()
                 .setSubject(user.getId().toString())
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(expiryDate);
+        if (statelessPrincipal) {
+            builder.claim(JwtClaims.ROLE, user.getRole() != null ? user.getRole().name() : "PATIENT")
+                    .claim(JwtClaims.EMAIL, user.getEmail())
+                    .claim(JwtClaims.APPROVED, Boolean.TRUE.equals(user.getIsApproved()));
+            if (doctorId != null) {
+                builder.claim(JwtClaims.DOCTOR_ID, doctorId.toString());
+            }
+            if (patientId != null) {
+                builder.claim(JwtClaims.PATIENT_ID, patientId.toString());
+            }
+        }
+        return builder.signWith(getSigningKey(), SignatureAlgorithm.HS512).compact();
+    }
+
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
+    }
+
+    /**
+     * Verify the token's signature and expiry and return its claims, or null if the
+     * token is not valid.
+     */
+    public JwtClaims verify(String token) {
+        String digest = digest(token);
+        JwtClaims cached = verified.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return cached;
+            }
+            verified.remove(digest, cached);
+        }
+
+        JwtClaims claims = parse(token);
+        if (claims != null) {
+            if (verified.size() >= verifiedCacheMaxEntries) {
+                evictVerified();
+            }
+            verified.put(digest, claims);
+        }
+        return claims;
     }
 
     public String getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.getUserId().toString() : null;
     }
 
     public boolean validateToken(String authToken) {
+        return verify(authToken) != null;
+    }
+
+    private JwtClaims parse(String token) {
         try {
-            logger.debug("Validating JWT token: {}", authToken.substring(0, Math.min(30, authToken.length())) + "...");
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            logger.debug("JWT token validation SUCCESS");
-            return true;
+            return new JwtClaims(getParser().parseClaimsJws(token).getBody());
         } catch (io.jsonwebtoken.MalformedJwtException ex) {
             logger.error("Invalid JWT token - Malformed: {}", ex.getMessage());
         } catch (io.jsonwebtoken.ExpiredJwtException ex) {
@@ -111,10 +172,48 @@ public class JwtTokenProvider {
         } catch (io.jsonwebtoken.SignatureException ex) {
             logger.error("Invalid JWT token - Signature validation failed: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
+            // Also covers a subject that is not a UUID
             logger.error("Invalid JWT token - Illegal argument: {}", ex.getMessage());
         } catch (Exception ex) {
             logger.error("Invalid JWT token - Unknown error: {}", ex.getMessage(), ex);
         }
-        return false;
+        return null;
+    }
+
+    private JwtParser getParser() {
+        JwtParser p = parser;
+        if (p == null) {
+            synchronized (this) {
+                p = parser;
+                if (p == null) {
+                    p = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+                    parser = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private void evictVerified() {
+        Instant now = Instant.now();
+        verified.values().removeIf(c -> c.isExpired(now));
+        // Still full: drop an arbitrary half rather than grow past the bound
+        if (verified.size() >= verifiedCacheMaxEntries) {
+            int toDrop = verified.size() / 2;
+            java.util.Iterator<String> it = verified.keySet().iterator();
+            while (toDrop-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,109 @@
+package com.digihealth.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolved principals by user id, so authenticated requests don't hit the users table.
+ *
+ * Entries live for {@code digihealth.principal-cache.ttl-seconds}; account changes made
+ * through the admin endpoints invalidate the user's entry right away. The TTL bounds how
+ * long any other change (or a change on another node) can go unnoticed.
+ */
+@Component
+public class PrincipalCache {
+
+    @Value("${digihealth.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    @Value("${digihealth.principal-cache.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Cached principal, or null on a miss or if the entry expired.
+     */
+    public UserPrincipal get(UUID userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            if (!entry.isExpired(ttlNanos())) {
+                hits.increment();
+                return entry.principal;
+            }
+            entries.remove(userId, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(UserPrincipal principal) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(principal.getId(), new Entry(principal));
+    }
+
+    public void invalidate(UUID userId) {
+        entries.remove(userId);
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        return stats;
+    }
+
+    private void evict() {
+        long ttl = ttlNanos();
+        entries.values().removeIf(e -> {
+            boolean expired = e.isExpired(ttl);
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        // Still full of live entries: drop an arbitrary tenth rather than grow past the bound
+        Iterator<UUID> it = entries.keySet().iterator();
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private long ttlNanos() {
+        return ttlSeconds * 1_000_000_000L;
+    }
+
+    private static final class Entry {
+        private final UserPrincipal principal;
+        private final long loadedAt = System.nanoTime();
+
+        Entry(UserPrincipal principal) {
+            this.principal = principal;
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.digihealth.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Authenticates STOMP sessions from the JWT in the CONNECT frame's {@code Authorization} header.
+ *
+ * SockJS cannot put headers on the HTTP handshake, so the handshake itself is open and the
+ * session is tied to a user here instead. The user's name (their email) is what
+ * {@code convertAndSendToUser} routes {@code /user/queue/...} messages by.
+ * Subscriptions under {@value #ADMIN_TOPIC_PREFIX} are limited to admins.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    static final String ADMIN_TOPIC_PREFIX = "/topic/admin/";
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination != null && destination.startsWith(ADMIN_TOPIC_PREFIX) && !isAdmin(accessor.getUser())) {
+                throw new MessagingException("Not allowed to subscribe to " + destination);
+            }
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String header) {
+        String jwt = StringUtils.hasText(header) && header.startsWith("Bearer ") ? header.substring(7) : null;
+        JwtClaims claims = jwt != null ? tokenProvider.verify(jwt) : null;
+        if (claims == null) {
+            throw new MessagingException("Missing or invalid token");
+        }
+        UserDetails userDetails = userDetailsService.loadUserFromClaims(claims);
+        logger.debug("STOMP session authenticated for user: {}", userDetails.getUsername());
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private static boolean isAdmin(Object user) {
+        return user instanceof Authentication && ((Authentication) user).getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.digihealth.backend.security;
+
+import com.digihealth.backend.entity.TokenRevocation;
+import com.digihealth.backend.repository.TokenRevocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked tokens, as one "issued before" watermark per user.
+ *
+ * Revoking a user rejects every token issued to them up to that moment, so the store holds
+ * one row per revoked user rather than one per token. Rows live in token_revocations and
+ * are mirrored in memory behind a Bloom filter: checking a user that was never revoked,
+ * which is almost every request, costs a few hashes and no map or database access.
+ *
+ * The in-memory copy is rebuilt from the table at startup and synced with it every
+ * {@code jwt.denylist.sync-ms}, which bounds how long a revocation made on another node
+ * can go unnoticed here.
+ *
+ * Every change to the map and filter, including swapping in a rebuilt filter, happens under
+ * this object's lock, so a revocation recorded while a rebuild runs is never dropped. Reads
+ * take no lock.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+
+    // Rows from other nodes may carry slightly older timestamps than our last sync
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationInMs;
+
+    @Value("${jwt.denylist.expected-users:10000}")
+    private int expectedUsers = 10_000;
+
+    private final Map<UUID, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile UserIdBloomFilter filter;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public void revokeUser(UUID userId) {
+        // JWT issued-at has second precision; a token from this very second is revoked too
+        Instant watermark = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant merged = remember(userId, watermark);
+        tokenRevocationRepository.save(new TokenRevocation(userId, merged));
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        UUID userId = claims.getUserId();
+        if (!filter().mightContain(userId)) {
+            return false;
+        }
+        Instant watermark = revokedBefore.get(userId);
+        if (watermark == null) {
+            return false;
+        }
+        return claims.getIssuedAt() == null || !claims.getIssuedAt().isAfter(watermark);
+    }
+
+    /**
+     * Load all live revocations from the table and rebuild the filter.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            Instant startedAt = Instant.now();
+            List<TokenRevocation> rows = tokenRevocationRepository.findByRevokedBeforeAfter(cutoff());
+            // Merged into the live map rather than replacing it, so revocations recorded while the
+            // query ran are kept; expired entries are left to purgeExpired
+            synchronized (this) {
+                rows.forEach(r -> revokedBefore.merge(r.getUserId(), r.getRevokedBefore(), TokenDenylist::later));
+                filter = buildFilter();
+            }
+            lastSync = startedAt;
+            log.info("Token denylist loaded with {} revoked users", revokedBefore.size());
+        } catch (Exception e) {
+            log.warn("Could not load token revocations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.denylist.sync-ms:10000}", initialDelayString = "${jwt.denylist.sync-ms:10000}")
+    public void sync() {
+        try {
+            Instant startedAt = Instant.now();
+            for (TokenRevocation r : tokenRevocationRepository.findByRevokedBeforeAfter(lastSync.minusSeconds(SYNC_OVERLAP_SECONDS))) {
+                remember(r.getUserId(), r.getRevokedBefore());
+            }
+            lastSync = startedAt;
+        } catch (Exception e) {
+            log.warn("Could not sync token revocations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop revocations whose tokens have all expired, then rebuild the filter without them.
+     */
+    @Scheduled(fixedDelayString = "${jwt.denylist.purge-ms:600000}", initialDelayString = "${jwt.denylist.purge-ms:600000}")
+    public void purgeExpired() {
+        Instant cutoff = cutoff();
+        synchronized (this) {
+            revokedBefore.values().removeIf(watermark -> watermark.isBefore(cutoff));
+            filter = buildFilter();
+        }
+        try {
+            tokenRevocationRepository.deleteExpired(cutoff);
+        } catch (Exception e) {
+            log.warn("Could not purge token revocations: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Instant remember(UUID userId, Instant watermark) {
+        Instant merged = revokedBefore.merge(userId, watermark, TokenDenylist::later);
+        filter().add(userId);
+        return merged;
+    }
+
+    private UserIdBloomFilter filter() {
+        UserIdBloomFilter f = filter;
+        if (f == null) {
+            synchronized (this) {
+                if (filter == null) {
+                    filter = buildFilter();
+                }
+                f = filter;
+            }
+        }
+        return f;
+    }
+
+    private UserIdBloomFilter buildFilter() {
+        UserIdBloomFilter f = new UserIdBloomFilter(Math.max(expectedUsers, revokedBefore.size() * 2), 0.01);
+        revokedBefore.keySet().forEach(f::add);
+        return f;
+    }
+
+    private Instant cutoff() {
+        return Instant.now().minusMillis(jwtExpirationInMs);
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,118 @@
+package com.digihealth.backend.security;
+
+import com.digihealth.backend.entity.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Authenticated user as resolved from a JWT. Carries the ids controllers need so they
+ * don't have to look the user up again. The username is the email, as before.
+ */
+public class UserPrincipal implements UserDetails {
+
+    private final UUID id;
+    private final String email;
+    private final String role;
+    private final boolean active;
+    private final boolean approved;
+    private final UUID doctorId;
+    private final UUID patientId;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(UUID id, String email, String role, boolean active, boolean approved, UUID doctorId, UUID patientId) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.active = active;
+        this.approved = approved;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.authorities = AuthorityUtils.createAuthorityList("ROLE_" + role);
+    }
+
+    public static UserPrincipal create(User user, UUID doctorId, UUID patientId) {
+        String roleName = user.getRole() != null ? user.getRole().name() : "PATIENT";
+        return new UserPrincipal(user.getId(), user.getEmail(), roleName,
+                Boolean.TRUE.equals(user.getIsActive()), Boolean.TRUE.equals(user.getIsApproved()), doctorId, patientId);
+    }
+
+    /**
+     * Principal of the current request, or null if it was not authenticated with a JWT.
+     */
+    public static UserPrincipal current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return (UserPrincipal) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public UUID getDoctorId() {
+        return doctorId;
+    }
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Not kept; JWT-authenticated requests have no password.
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+}
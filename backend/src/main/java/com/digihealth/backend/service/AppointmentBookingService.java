@@ -0,0 +1,242 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.AppointmentFeedDto;
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Single write path for appointment slot reservations and changes.
+ *
+ * Bookings for the same doctor and day are serialized on a striped lock, so the
+ * "is this slot free" check and the insert cannot interleave inside one node.
+ * Across nodes the unique (doctor_id, appointment_date, appointment_time, slot_active)
+ * constraint is the final arbiter; a violation is reported as {@link SlotTakenException}.
+ * Once committed, every successful write is mirrored into the {@link SlotAvailabilityIndex}
+ * and published to the doctor's {@link DoctorEventFeed}; a rolled-back write touches neither.
+ */
+@Service
+public class AppointmentBookingService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentBookingService.class);
+
+    static final String SLOT_CONSTRAINT = "uk_appointments_doctor_slot";
+
+    // Power of two so the stripe index is a mask of the key hash
+    private static final int LOCK_STRIPES = 256;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Autowired
+    private DashboardSummaryCache dashboardSummaryCache;
+
+    @Autowired
+    private CareRelationshipIndex careRelationshipIndex;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private DoctorEventFeed doctorEventFeed;
+
+    public AppointmentBookingService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Reserve the appointment's slot and persist it.
+     *
+     * @throws SlotTakenException if another active appointment already holds the slot
+     */
+    public Appointment book(Appointment appointment) {
+        Appointment saved = reserve(appointment);
+        afterCommit(() -> {
+            if (saved.getStatus() != AppointmentStatus.CANCELLED) {
+                slotAvailabilityIndex.occupy(saved);
+            }
+            // Only a committed booking grants the doctor access to the patient's records
+            careRelationshipIndex.record(saved);
+        });
+        dashboardSummaryCache.invalidate(saved.getDoctor().getDoctorId());
+        publishAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Change the status and queue the patient notification in the same transaction.
+     */
+    @Transactional
+    public Appointment updateStatus(Appointment appointment, AppointmentStatus status) {
+        Appointment saved = update(appointment, a -> a.setStatus(status));
+        notificationOutbox.enqueueStatusChange(saved);
+        return saved;
+    }
+
+    /**
+     * Apply changes to an existing appointment and persist them. If the changes move the
+     * appointment onto another slot, or re-activate a cancelled one, the slot is reserved
+     * under the same rules as {@link #book}.
+     *
+     * @throws SlotTakenException if the target slot is held by another active appointment
+     */
+    public Appointment update(Appointment appointment, Consumer<Appointment> changes) {
+        LocalDate oldDate = appointment.getAppointmentDate();
+        LocalTime oldTime = appointment.getAppointmentTime();
+        boolean wasActive = appointment.getStatus() != AppointmentStatus.CANCELLED;
+
+        changes.accept(appointment);
+
+        boolean active = appointment.getStatus() != AppointmentStatus.CANCELLED;
+        boolean moved = !Objects.equals(oldDate, appointment.getAppointmentDate())
+                || !Objects.equals(oldTime, appointment.getAppointmentTime());
+
+        Appointment saved = active && (moved || !wasActive)
+                ? reserve(appointment)
+                : appointmentRepository.save(appointment);
+
+        // The index is shared across requests, so it only learns of the change once it is committed
+        boolean release = wasActive && (moved || !active);
+        boolean occupy = active && (moved || !wasActive);
+        if (release || occupy) {
+            afterCommit(() -> {
+                if (release) {
+                    slotAvailabilityIndex.release(saved.getDoctor(), oldDate, oldTime);
+                }
+                if (occupy) {
+                    slotAvailabilityIndex.occupy(saved);
+                }
+            });
+        }
+        dashboardSummaryCache.invalidate(saved.getDoctor().getDoctorId());
+        publishAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Cancel all of a doctor's SCHEDULED appointments from {@code from} on, in one statement.
+     *
+     * @return ids of the cancelled appointments
+     */
+    @Transactional
+    public List<UUID> cancelScheduledForDoctor(UUID doctorId, LocalDate from) {
+        return cancelAll(appointmentRepository.lockSlotsByDoctorFrom(doctorId, from, AppointmentStatus.SCHEDULED));
+    }
+
+    /**
+     * Cancel all of a patient's SCHEDULED appointments from {@code from} on, in one statement.
+     *
+     * @return ids of the cancelled appointments
+     */
+    @Transactional
+    public List<UUID> cancelScheduledForPatient(UUID patientId, LocalDate from) {
+        return cancelAll(appointmentRepository.lockSlotsByPatientFrom(patientId, from, AppointmentStatus.SCHEDULED));
+    }
+
+    private List<UUID> cancelAll(List<AppointmentRepository.SlotRef> slots) {
+        if (slots.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = slots.stream().map(AppointmentRepository.SlotRef::getAppointmentId).collect(Collectors.toList());
+        appointmentRepository.cancelAll(ids, LocalDateTime.now());
+
+        afterCommit(() -> slots.forEach(s -> {
+            slotAvailabilityIndex.release(s.getDoctorUserId(), s.getAppointmentDate(), s.getAppointmentTime());
+            dashboardSummaryCache.invalidate(s.getDoctorId());
+            doctorEventFeed.publish(s.getDoctorId(),
+                    AppointmentFeedDto.cancelled(s.getAppointmentId(), s.getAppointmentDate(), s.getAppointmentTime()));
+        }));
+        return ids;
+    }
+
+    private void publishAfterCommit(Appointment saved) {
+        UUID doctorId = saved.getDoctor().getDoctorId();
+        AppointmentFeedDto change = AppointmentFeedDto.from(saved);
+        afterCommit(() -> {
+            // @Version is bumped at flush, so only known once committed
+            change.setVersion(saved.getVersion());
+            // A summary cached before the commit would be pushed as current
+            dashboardSummaryCache.invalidate(doctorId);
+            doctorEventFeed.publish(doctorId, change);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Appointment reserve(Appointment appointment) {
+        UUID doctorId = appointment.getDoctor().getDoctorId();
+        LocalDate date = appointment.getAppointmentDate();
+
+        ReentrantLock lock = stripeFor(doctorId, date);
+        lock.lock();
+        try {
+            boolean taken = appointmentRepository.existsByDoctorAndAppointmentDateAndAppointmentTimeAndStatusNot(
+                    appointment.getDoctor(), date, appointment.getAppointmentTime(), AppointmentStatus.CANCELLED);
+            if (taken) {
+                throw new SlotTakenException();
+            }
+            Appointment saved = appointmentRepository.save(appointment);
+            // Inside a surrounding transaction the insert would otherwise run at commit, past this catch
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                appointmentRepository.flush();
+            }
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isSlotConstraintViolation(e)) {
+                log.debug("Slot {} {} for doctor {} taken by a concurrent booking", date, appointment.getAppointmentTime(), doctorId);
+                throw new SlotTakenException();
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(UUID doctorId, LocalDate date) {
+        int h = Objects.hash(doctorId, date);
+        h ^= (h >>> 16);
+        return stripes[h & (LOCK_STRIPES - 1)];
+    }
+
+    private boolean isSlotConstraintViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        String message = cause != null ? cause.getMessage() : e.getMessage();
+        return message != null && message.toLowerCase().contains(SLOT_CONSTRAINT);
+    }
+}
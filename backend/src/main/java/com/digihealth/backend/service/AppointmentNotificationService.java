@@ -1,5 +1,6 @@
 package com.digihealth.backend.service;
 
+import com.digihealth.backend.dto.AppointmentEventDto;
 import com.digihealth.backend.entity.Appointment;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -9,17 +10,24 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AppointmentNotificationService {
 
+    static final String USER_QUEUE = "/queue/appointments";
+
+    static final String ADMIN_TOPIC = "/topic/admin/appointments";
+
     private final SimpMessagingTemplate messagingTemplate;
-    private final EmailService emailService;
 
+    /**
+     * Live push of a committed status change. The patient email is not sent from here: it is
+     * queued in the {@link NotificationOutbox} by the transaction that made the change.
+     *
+     * Only the appointment's doctor and patient (on their own {@code /user/queue/appointments})
+     * and subscribed admins receive it, so the cost follows the sessions that care rather than
+     * every connected client.
+     */
     public void notifyAppointmentStatusChange(Appointment appointment) {
-        // Broadcast to all clients subscribed to appointments topic
-        messagingTemplate.convertAndSend("/topic/appointments", appointment);
-        
-        // Send email notification to patient
-        emailService.sendStatusUpdateEmail(appointment);
-        
-        // Also send to specific user queues if needed
-        // messagingTemplate.convertAndSendToUser(appointment.getPatient().getUser().getEmail(), "/queue/appointments", appointment);
+        AppointmentEventDto event = AppointmentEventDto.from(appointment);
+        messagingTemplate.convertAndSendToUser(appointment.getDoctor().getUser().getEmail(), USER_QUEUE, event);
+        messagingTemplate.convertAndSendToUser(appointment.getPatient().getUser().getEmail(), USER_QUEUE, event);
+        messagingTemplate.convertAndSend(ADMIN_TOPIC, event);
     }
-}
\ No newline at end of file
+}
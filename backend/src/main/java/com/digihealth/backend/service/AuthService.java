@@ -13,6 +13,8 @@ import com.digihealth.backend.repository.PatientRepository;
 import com.digihealth.backend.repository.UserRepository;
 import com.digihealth.backend.repository.DoctorWorkDayRepository;
 import com.digihealth.backend.security.JwtTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -25,6 +27,8 @@ import org.springframework.http.HttpStatus;
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
@@ -100,8 +104,6 @@ public class AuthService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already exists");
         }
 
-        System.out.println("[AuthService.registerDoctor] Creating new user...");
-        
         User user = new User();
         user.setFullName(registerDto.getFullName());
         user.setEmail(registerDto.getEmail());
@@ -111,12 +113,8 @@ public class AuthService {
         user.setIsActive(Boolean.TRUE);
         user.setIsApproved(Boolean.FALSE);
 
-        System.out.println("[AuthService.registerDoctor] User before save - ID: " + user.getId());
-        
         user = userRepository.save(user);
-        
-        System.out.println("[AuthService.registerDoctor] User after save - ID: " + user.getId());
-        System.out.println("[AuthService.registerDoctor] User after save - Email: " + user.getEmail());
+        log.debug("Registered doctor user {}", user.getId());
 
         Doctor doctor = new Doctor();
         doctor.setUser(user);
@@ -124,8 +122,7 @@ public class AuthService {
         doctor.setLicenseNumber(registerDto.getLicenseNumber());
 
         doctor = doctorRepository.save(doctor);
-        
-        System.out.println("[AuthService.registerDoctor] Doctor saved successfully for user ID: " + user.getId());
+        log.debug("Saved doctor {} for user {}", doctor.getDoctorId(), user.getId());
 
         if (registerDto.getWorkDays() != null && !registerDto.getWorkDays().isEmpty()) {
             java.util.List<DoctorWorkDay> workDays = new java.util.ArrayList<>();
@@ -197,20 +194,23 @@ public class AuthService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Account is deactivated. Contact administrator to reactivate.");
         }
 
-        // Critical debugging
-        System.out.println("[AuthService.login] User loaded from DB:");
-        System.out.println("[AuthService.login]   ID: " + user.getId());
-        System.out.println("[AuthService.login]   Email: " + user.getEmail());
-        System.out.println("[AuthService.login]   Role: " + user.getRole());
-        
+        log.debug("Login for user {} with role {}", user.getId(), user.getRole());
+
         // Ensure we never produce a token for an invalid user object
         if (user.getId() == null) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "User identifier is missing");
         }
 
-        String token = tokenProvider.generateTokenFromUser(user);
-        System.out.println("[AuthService.login] Generated JWT token (first 50 chars): " + token.substring(0, Math.min(50, token.length())));
-        System.out.println("[AuthService.login] Token should contain UUID: " + user.getId());
+        java.util.UUID doctorId = null;
+        java.util.UUID patientId = null;
+        if (tokenProvider.isStatelessPrincipal()) {
+            if (user.getRole() == Role.DOCTOR) {
+                doctorId = doctorRepository.findDoctorIdByUserId(user.getId()).orElse(null);
+            } else if (user.getRole() == Role.PATIENT) {
+                patientId = patientRepository.findPatientIdByUserId(user.getId()).orElse(null);
+            }
+        }
+        String token = tokenProvider.generateTokenFromUser(user, doctorId, patientId);
 
         return new LoginResponse(token, user);
     }
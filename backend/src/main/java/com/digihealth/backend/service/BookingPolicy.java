@@ -0,0 +1,148 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.AdminSettings;
+import com.digihealth.backend.repository.AdminSettingsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Booking rules from the admin settings, held as one immutable snapshot.
+ *
+ * The snapshot is loaded on first use and replaced when settings are saved through
+ * {@link #save}. Other nodes pick up the change by polling the settings version.
+ */
+@Component
+public class BookingPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingPolicy.class);
+
+    static final long SETTINGS_ID = 1L;
+
+    @Autowired
+    private AdminSettingsRepository adminSettingsRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Reload the snapshot from the database.
+     */
+    public Snapshot refresh() {
+        Snapshot snapshot = adminSettingsRepository.findById(SETTINGS_ID)
+                .map(Snapshot::of)
+                .orElse(Snapshot.DEFAULTS);
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Save the settings, bump their version and publish the new snapshot.
+     */
+    public AdminSettings save(AdminSettings settings) {
+        if (settings.getId() != null) {
+            // Request bodies don't carry the version; keep the stored one so the bump moves forward
+            settings.setSettingsVersion(adminSettingsRepository.findSettingsVersion(settings.getId()).orElse(0L));
+        }
+        AdminSettings saved = adminSettingsRepository.save(settings);
+        adminSettingsRepository.incrementSettingsVersion(saved.getId());
+        saved.setSettingsVersion(adminSettingsRepository.findSettingsVersion(saved.getId()).orElse(0L));
+        if (Long.valueOf(SETTINGS_ID).equals(saved.getId())) {
+            current.set(Snapshot.of(saved));
+        }
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${digihealth.booking-policy.poll-ms:15000}",
+            initialDelayString = "${digihealth.booking-policy.poll-ms:15000}")
+    public void pollForChanges() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            long version = adminSettingsRepository.findSettingsVersion(SETTINGS_ID).orElse(0L);
+            if (version != snapshot.getVersion()) {
+                log.debug("Admin settings version changed {} -> {}, reloading booking policy", snapshot.getVersion(), version);
+                refresh();
+            }
+        } catch (Exception e) {
+            log.warn("Could not poll admin settings version: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Immutable, validated view of the booking-related settings.
+     */
+    public static final class Snapshot {
+
+        /** Used until the settings row exists. Version -1 so the first poll picks the row up. */
+        static final Snapshot DEFAULTS = new Snapshot(false, true, 24, 90, 30, false, -1L);
+
+        private final boolean maintenanceMode;
+        private final boolean allowSameDayBooking;
+        private final int minAdvanceHours;
+        private final int maxAdvanceDays;
+        private final int slotMinutes;
+        private final boolean autoConfirm;
+        private final long version;
+
+        Snapshot(boolean maintenanceMode, boolean allowSameDayBooking, int minAdvanceHours, int maxAdvanceDays,
+                 int slotMinutes, boolean autoConfirm, long version) {
+            this.maintenanceMode = maintenanceMode;
+            this.allowSameDayBooking = allowSameDayBooking;
+            this.minAdvanceHours = minAdvanceHours;
+            this.maxAdvanceDays = maxAdvanceDays;
+            this.slotMinutes = slotMinutes;
+            this.autoConfirm = autoConfirm;
+            this.version = version;
+        }
+
+        public static Snapshot of(AdminSettings s) {
+            return new Snapshot(
+                    Boolean.TRUE.equals(s.getMaintenanceMode()),
+                    Boolean.TRUE.equals(s.getAllowSameDayBooking()),
+                    s.getMinAdvanceHours() != null && s.getMinAdvanceHours() >= 0 ? s.getMinAdvanceHours() : 24,
+                    s.getMaxAdvanceDays() != null && s.getMaxAdvanceDays() >= 0 ? s.getMaxAdvanceDays() : 90,
+                    s.getAppointmentSlotMinutes() != null && s.getAppointmentSlotMinutes() > 0 ? s.getAppointmentSlotMinutes() : 30,
+                    Boolean.TRUE.equals(s.getAutoConfirmAppointments()),
+                    s.getSettingsVersion() != null ? s.getSettingsVersion() : 0L);
+        }
+
+        public boolean isMaintenanceMode() {
+            return maintenanceMode;
+        }
+
+        public boolean isAllowSameDayBooking() {
+            return allowSameDayBooking;
+        }
+
+        public int getMinAdvanceHours() {
+            return minAdvanceHours;
+        }
+
+        public int getMaxAdvanceDays() {
+            return maxAdvanceDays;
+        }
+
+        public int getSlotMinutes() {
+            return slotMinutes;
+        }
+
+        public boolean isAutoConfirm() {
+            return autoConfirm;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Known (doctor, patient) care relationships, used to authorize access to patient records.
+ *
+ * A doctor may see a patient once they have any appointment together, so relationships
+ * only ever appear. Pairs are recorded when a booking is made on this node and learned from
+ * an indexed EXISTS query the first time they are checked; after that a check is a set lookup.
+ * Negative answers are not cached, so bookings made on other nodes are seen immediately.
+ * Past {@code digihealth.care-index.max-entries} the least recently checked pair is dropped;
+ * it is re-learned from the database if it is asked about again.
+ */
+@Component
+public class CareRelationshipIndex {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${digihealth.care-index.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    // Access-ordered, so the eldest entry is the least recently used one; guarded by itself
+    private final Map<Pair, Boolean> known = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Pair, Boolean> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public boolean isRelated(UUID doctorId, UUID patientId) {
+        if (doctorId == null || patientId == null) {
+            return false;
+        }
+        Pair pair = new Pair(doctorId, patientId);
+        synchronized (known) {
+            if (known.get(pair) != null) {
+                return true;
+            }
+        }
+        boolean related = appointmentRepository.existsByDoctorDoctorIdAndPatientPatientId(doctorId, patientId);
+        if (related) {
+            remember(pair);
+        }
+        return related;
+    }
+
+    public void record(Appointment appointment) {
+        if (appointment.getDoctor() != null && appointment.getPatient() != null
+                && appointment.getDoctor().getDoctorId() != null && appointment.getPatient().getPatientId() != null) {
+            remember(new Pair(appointment.getDoctor().getDoctorId(), appointment.getPatient().getPatientId()));
+        }
+    }
+
+    private void remember(Pair pair) {
+        synchronized (known) {
+            known.put(pair, Boolean.TRUE);
+        }
+    }
+
+    private static final class Pair {
+        final UUID doctorId;
+        final UUID patientId;
+
+        Pair(UUID doctorId, UUID patientId) {
+            this.doctorId = doctorId;
+            this.patientId = patientId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Pair)) return false;
+            Pair other = (Pair) o;
+            return doctorId.equals(other.doctorId) && patientId.equals(other.patientId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, patientId);
+        }
+    }
+}
@@ -6,15 +6,20 @@ import com.digihealth.backend.repository.AppointmentRepository;
 import com.digihealth.backend.repository.DoctorRepository;
 
 import com.digihealth.backend.repository.UserRepository;
+import com.digihealth.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,7 +34,14 @@ public class DashboardService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DashboardSummaryCache dashboardSummaryCache;
+
     private Doctor getCurrentDoctorOrNull() {
+        UserPrincipal principal = UserPrincipal.current();
+        if (principal != null && principal.getDoctorId() != null) {
+            return doctorRepository.findById(principal.getDoctorId()).orElse(null);
+        }
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
         User user = userRepository.findByEmail(email)
@@ -39,11 +51,29 @@ public class DashboardService {
         return doctorRepository.findByUser(user).orElse(null);
     }
 
-    public DashboardSummaryDto getDashboardSummaryForCurrentDoctor() {
+    /**
+     * Doctor id of the current user from the principal, falling back to the email lookup.
+     */
+    private UUID getCurrentDoctorIdOrNull() {
+        UserPrincipal principal = UserPrincipal.current();
+        if (principal != null && principal.getDoctorId() != null) {
+            return principal.getDoctorId();
+        }
         Doctor doctor = getCurrentDoctorOrNull();
+        return doctor != null ? doctor.getDoctorId() : null;
+    }
+
+    public DashboardSummaryDto getDashboardSummaryForCurrentDoctor() {
+        return getDashboardSummary(getCurrentDoctorIdOrNull());
+    }
+
+    /**
+     * Today's summary for the given doctor; empty counts when there is no doctor.
+     */
+    public DashboardSummaryDto getDashboardSummary(UUID doctorId) {
         LocalDate today = LocalDate.now();
 
-        if (doctor == null) {
+        if (doctorId == null) {
             DashboardSummaryDto empty = new DashboardSummaryDto();
             empty.setTotalPatients(0L);
             empty.setTodayConfirmed(0L);
@@ -52,109 +82,114 @@ public class DashboardService {
             return empty;
         }
 
-        List<Appointment> todayAppointments = appointmentRepository.findByDoctorAndAppointmentDate(doctor, today);
-
-        long totalPatients = appointmentRepository.findByDoctor(doctor).stream()
-                .map(appointment -> appointment.getPatient().getPatientId())
-                .distinct()
-                .count();
-
-        long todayConfirmed = todayAppointments.stream()
-                .filter(app -> app.getStatus() == AppointmentStatus.CONFIRMED)
-                .count();
-
-        long todayPending = todayAppointments.stream()
-                .filter(app -> app.getStatus() == AppointmentStatus.SCHEDULED)
-                .count();
+        DashboardSummaryDto cached = dashboardSummaryCache.get(doctorId, today);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = dashboardSummaryCache.generation(doctorId);
 
-        long todayCompleted = todayAppointments.stream()
-                .filter(app -> app.getStatus() == AppointmentStatus.COMPLETED)
-                .count();
+        Map<AppointmentStatus, Long> todayByStatus = new EnumMap<>(AppointmentStatus.class);
+        for (AppointmentRepository.StatusCount row : appointmentRepository.countByDoctorAndDateGroupByStatus(doctorId, today)) {
+            todayByStatus.put(row.getStatus(), row.getTotal());
+        }
 
         DashboardSummaryDto dto = new DashboardSummaryDto();
-        dto.setTotalPatients(totalPatients);
-        dto.setTodayConfirmed(todayConfirmed);
-        dto.setTodayPending(todayPending);
-        dto.setTodayCompleted(todayCompleted);
+        dto.setTotalPatients(appointmentRepository.countDistinctPatientsByDoctor(doctorId));
+        dto.setTodayConfirmed(todayByStatus.getOrDefault(AppointmentStatus.CONFIRMED, 0L));
+        dto.setTodayPending(todayByStatus.getOrDefault(AppointmentStatus.SCHEDULED, 0L));
+        dto.setTodayCompleted(todayByStatus.getOrDefault(AppointmentStatus.COMPLETED, 0L));
+        dashboardSummaryCache.put(doctorId, today, dto, generation);
         return dto;
     }
 
     public List<TodayAppointmentDto> getTodayAppointmentsForCurrentDoctor() {
-        Doctor doctor = getCurrentDoctorOrNull();
+        UUID doctorId = getCurrentDoctorIdOrNull();
         LocalDate today = LocalDate.now();
 
-        if (doctor == null) {
+        if (doctorId == null) {
             return List.of();
         }
 
-        return appointmentRepository.findByDoctorAndAppointmentDate(doctor, today).stream()
+        return appointmentRepository.findRowsByDoctorAndDate(doctorId, today).stream()
                 .map(this::toTodayAppointmentDto)
                 .collect(Collectors.toList());
     }
 
-    private TodayAppointmentDto toTodayAppointmentDto(Appointment appointment) {
+    private TodayAppointmentDto toTodayAppointmentDto(AppointmentRepository.AppointmentRow row) {
         TodayAppointmentDto dto = new TodayAppointmentDto();
-        dto.setId(appointment.getAppointmentId().toString());
-        dto.setTime(appointment.getAppointmentTime().format(DateTimeFormatter.ofPattern("HH:mm")));
-        User pUser = appointment.getPatient() != null ? appointment.getPatient().getUser() : null;
-        String pName = pUser != null ? pUser.getFullName() : ("Patient " + appointment.getPatient().getPatientId().toString().substring(0,8));
-        dto.setPatientName(pName);
+        dto.setId(row.getAppointmentId().toString());
+        dto.setTime(row.getAppointmentTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+        dto.setPatientName(patientName(row));
         dto.setType("Consultation");
-        dto.setStatus(appointment.getStatus().name());
+        dto.setStatus(row.getStatus().name());
         return dto;
     }
 
+    private String patientName(AppointmentRepository.AppointmentRow row) {
+        return row.getPatientName() != null ? row.getPatientName() : ("Patient " + row.getPatientId().toString().substring(0,8));
+    }
+
     public List<DoctorPatientDto> getPatientsForCurrentDoctor() {
-        Doctor doctor = getCurrentDoctorOrNull();
+        return searchPatientsForCurrentDoctor(null, Pageable.unpaged()).getContent();
+    }
 
-        if (doctor == null) {
-            return List.of();
+    /**
+     * One page of the current doctor's patients, ordered by name. A non-blank query matches
+     * a name or phone prefix, or a full patient id.
+     */
+    public Page<DoctorPatientDto> searchPatientsForCurrentDoctor(String query, Pageable pageable) {
+        UUID doctorId = getCurrentDoctorIdOrNull();
+        if (doctorId == null) {
+            return Page.empty(pageable);
         }
 
-        return appointmentRepository.findByDoctor(doctor).stream()
-                .collect(Collectors.groupingBy(app -> app.getPatient()))
-                .entrySet().stream()
-                .map(entry -> {
-                    Patient patient = entry.getKey();
-                    Optional<LocalDate> lastVisit = entry.getValue().stream()
-                            .map(app -> app.getAppointmentDate())
-                            .max(LocalDate::compareTo);
-
-                    DoctorPatientDto dto = new DoctorPatientDto();
-                    dto.setId(patient.getPatientId().toString());
-                    User pUser = patient.getUser();
-                    dto.setName(pUser != null ? pUser.getFullName() : ("Patient " + patient.getPatientId().toString().substring(0,8)));
-                    dto.setPhone(pUser != null ? pUser.getPhoneNumber() : null);
-                    dto.setEmail(pUser != null ? pUser.getEmail() : null);
-                    dto.setLastVisit(lastVisit.map(date -> date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))).orElse(null));
-                    return dto;
-                })
-                .distinct()
-                .collect(Collectors.toList());
+        String q = query == null ? "" : query.trim();
+        String prefix = null;
+        UUID patientId = null;
+        if (!q.isEmpty()) {
+            prefix = q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            try {
+                patientId = UUID.fromString(q);
+            } catch (IllegalArgumentException ignored) {
+                // not an id; name and phone prefix only
+            }
+        }
+
+        return appointmentRepository.findPatientRoster(doctorId, prefix, patientId, pageable)
+                .map(this::toDoctorPatientDto);
+    }
+
+    private DoctorPatientDto toDoctorPatientDto(AppointmentRepository.RosterRow row) {
+        DoctorPatientDto dto = new DoctorPatientDto();
+        dto.setId(row.getPatientId().toString());
+        dto.setName(row.getFullName() != null ? row.getFullName() : ("Patient " + row.getPatientId().toString().substring(0,8)));
+        dto.setPhone(row.getPhoneNumber());
+        dto.setEmail(row.getEmail());
+        dto.setLastVisit(row.getLastVisit() != null ? row.getLastVisit().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) : null);
+        return dto;
     }
 
     public List<DoctorAppointmentDto> getAppointmentsForCurrentDoctor() {
-        Doctor doctor = getCurrentDoctorOrNull();
+        UUID doctorId = getCurrentDoctorIdOrNull();
 
-        if (doctor == null) {
+        if (doctorId == null) {
             return List.of();
         }
 
-        return appointmentRepository.findByDoctor(doctor).stream()
+        return appointmentRepository.findRowsByDoctor(doctorId).stream()
                 .map(this::toDoctorAppointmentDto)
                 .collect(Collectors.toList());
     }
 
-    private DoctorAppointmentDto toDoctorAppointmentDto(Appointment appointment) {
+    private DoctorAppointmentDto toDoctorAppointmentDto(AppointmentRepository.AppointmentRow row) {
         DoctorAppointmentDto dto = new DoctorAppointmentDto();
-        dto.setId(appointment.getAppointmentId().toString());
-        dto.setStartDateTime(appointment.getAppointmentDate().atTime(appointment.getAppointmentTime()).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-        User pUser = appointment.getPatient() != null ? appointment.getPatient().getUser() : null;
-        dto.setPatientName(pUser != null ? pUser.getFullName() : ("Patient " + appointment.getPatient().getPatientId().toString().substring(0,8)));
-        dto.setPatientId(appointment.getPatient().getPatientId().toString());
-        dto.setDoctorName(appointment.getDoctor().getUser().getFullName());
+        dto.setId(row.getAppointmentId().toString());
+        dto.setStartDateTime(row.getAppointmentDate().atTime(row.getAppointmentTime()).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        dto.setPatientName(patientName(row));
+        dto.setPatientId(row.getPatientId().toString());
+        dto.setDoctorName(row.getDoctorName());
         dto.setType("Consultation");
-        dto.setStatus(appointment.getStatus().name());
+        dto.setStatus(row.getStatus().name());
         return dto;
     }
 }
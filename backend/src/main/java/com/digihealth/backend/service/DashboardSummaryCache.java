@@ -0,0 +1,85 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.DashboardSummaryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Doctor dashboard summaries by doctor id, kept for {@code digihealth.dashboard-cache.ttl-seconds}.
+ *
+ * Appointment writes through {@link AppointmentBookingService} invalidate the doctor's entry;
+ * the TTL bounds staleness for anything else, including writes on other nodes.
+ * Each invalidation bumps the doctor's generation, so a summary computed before it is not stored.
+ */
+@Component
+public class DashboardSummaryCache {
+
+    @Value("${digihealth.dashboard-cache.ttl-seconds:30}")
+    private long ttlSeconds = 30;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Cached summary for the given day, or null if absent, expired or computed for another day.
+     */
+    public DashboardSummaryDto get(UUID doctorId, LocalDate day) {
+        Entry entry = entries.get(doctorId);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.day.equals(day) || System.nanoTime() - entry.createdNanos > ttlSeconds * 1_000_000_000L) {
+            entries.remove(doctorId, entry);
+            return null;
+        }
+        return entry.summary;
+    }
+
+    /**
+     * Current generation for the doctor; read it before computing a summary and pass it to {@link #put}.
+     */
+    public long generation(UUID doctorId) {
+        return generationOf(doctorId).get();
+    }
+
+    /**
+     * Stores the summary unless the doctor was invalidated since {@code generation} was read.
+     */
+    public void put(UUID doctorId, LocalDate day, DashboardSummaryDto summary, long generation) {
+        AtomicLong current = generationOf(doctorId);
+        // compute() locks the key, so an invalidate can't land between the check and the store
+        entries.compute(doctorId, (id, old) -> current.get() == generation ? new Entry(summary, day) : old);
+    }
+
+    public void invalidate(UUID doctorId) {
+        if (doctorId != null) {
+            AtomicLong current = generationOf(doctorId);
+            entries.compute(doctorId, (id, old) -> {
+                current.incrementAndGet();
+                return null;
+            });
+        }
+    }
+
+    private AtomicLong generationOf(UUID doctorId) {
+        return generations.computeIfAbsent(doctorId, id -> new AtomicLong());
+    }
+
+    private static final class Entry {
+        final DashboardSummaryDto summary;
+        final LocalDate day;
+        final long createdNanos = System.nanoTime();
+
+        Entry(DashboardSummaryDto summary, LocalDate day) {
+            this.summary = summary;
+            this.day = day;
+        }
+    }
+}
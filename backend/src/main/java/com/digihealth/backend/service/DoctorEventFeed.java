@@ -0,0 +1,387 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.AppointmentFeedDto;
+import com.digihealth.backend.dto.DashboardSummaryDto;
+import com.digihealth.backend.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-Sent Events feed for the doctor dashboard.
+ *
+ * Appointment changes go into a per-doctor ring holding the last {@code digihealth.sse.buffer-size}
+ * events, with ids of the form {@code <node>-<seq>}. A client reconnecting with {@code Last-Event-ID}
+ * gets only the events it missed. If that id comes from another process, or has already left the
+ * ring, the client gets a {@code reset} event and refetches instead. Each connect also receives the
+ * current summary. After changes the summary is recomputed once per flush, so a burst of writes
+ * costs one query.
+ *
+ * Changes committed on this node are published directly. Changes made on other nodes are read back
+ * from the appointments table every {@code digihealth.sse.sync-ms}, for the doctors with a stream
+ * open here, so streams need no sticky sessions. Each read reaches {@code digihealth.sse.sync-lookback-ms}
+ * behind the previous one, which covers commits that land after their updated_at and clock skew
+ * between nodes. A row whose id and version are already in the ring is not sent again.
+ *
+ * Clients are written from a small pool, never from the thread that made the change.
+ */
+@Component
+public class DoctorEventFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorEventFeed.class);
+
+    static final String APPOINTMENT = "appointment";
+
+    static final String SUMMARY = "summary";
+
+    static final String RESET = "reset";
+
+    @Value("${digihealth.sse.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${digihealth.sse.timeout-ms:1800000}")
+    private long timeoutMs = 30 * 60 * 1000L;
+
+    @Value("${digihealth.sse.pool-size:2}")
+    private int poolSize = 2;
+
+    @Value("${digihealth.sse.sync-lookback-ms:10000}")
+    private long syncLookbackMs = 10_000;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // Ids from an earlier run, or from another node, cannot be resumed here
+    private final String nodeId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder synced = new LongAdder();
+
+    private volatile LocalDateTime lastSync;
+
+    // Package-private so tests can run flushes inline
+    Executor sender;
+
+    @PostConstruct
+    void start() {
+        if (sender == null) {
+            AtomicInteger threads = new AtomicInteger();
+            sender = Executors.newFixedThreadPool(poolSize, r -> {
+                Thread t = new Thread(r, "sse-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Open a stream for the doctor. With a {@code lastEventId} from this node that is still
+     * buffered, the missed events are replayed first.
+     */
+    public SseEmitter subscribe(UUID doctorId, String lastEventId) {
+        Channel channel = channel(doctorId);
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = resumeFrom(channel, emitter, lastEventId);
+        channel.subscribers.add(subscriber);
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+        // The client reconnects with its Last-Event-ID
+        emitter.onTimeout(emitter::complete);
+        schedule(channel);
+        return emitter;
+    }
+
+    /**
+     * Record a committed change to one of the doctor's appointments and push it to open streams.
+     */
+    public void publish(UUID doctorId, AppointmentFeedDto change) {
+        Channel channel = channel(doctorId);
+        channel.append(change);
+        changed(channel);
+    }
+
+    /**
+     * Pick up changes other nodes made to the appointments of doctors streaming from this one.
+     */
+    @Scheduled(fixedDelayString = "${digihealth.sse.sync-ms:2000}", initialDelayString = "${digihealth.sse.sync-ms:2000}")
+    public void syncFromDatabase() {
+        LocalDateTime started = LocalDateTime.now();
+        List<UUID> doctorIds = new ArrayList<>();
+        channels.forEach((id, c) -> {
+            if (!c.subscribers.isEmpty()) {
+                doctorIds.add(id);
+            }
+        });
+        if (doctorIds.isEmpty()) {
+            lastSync = started;
+            return;
+        }
+        LocalDateTime since = (lastSync != null ? lastSync : started).minus(Duration.ofMillis(syncLookbackMs));
+        try {
+            for (AppointmentRepository.FeedChange row : appointmentRepository.findFeedChangesSince(doctorIds, since)) {
+                Channel channel = channel(row.getDoctorId());
+                if (channel.appendIfNew(AppointmentFeedDto.of(row.getAppointmentId(), row.getAppointmentDate(),
+                        row.getAppointmentTime(), row.getPatientName(), row.getStatus(), row.getVersion()))) {
+                    synced.increment();
+                    changed(channel);
+                }
+            }
+            lastSync = started;
+        } catch (RuntimeException e) {
+            // The next run reads from the same point
+            log.warn("Dashboard feed sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Comment line to every open stream, so idle proxies keep the connection and dead ones are noticed.
+     */
+    @Scheduled(fixedDelayString = "${digihealth.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            if (!channel.subscribers.isEmpty()) {
+                sender.execute(() -> ping(channel));
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("doctors", channels.size());
+        stats.put("subscribers", channels.values().stream().mapToInt(c -> c.subscribers.size()).sum());
+        stats.put("resumed", resumed.sum());
+        stats.put("resets", resets.sum());
+        stats.put("synced", synced.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    void close() {
+        channels.values().forEach(c -> c.subscribers.forEach(s -> s.emitter.complete()));
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+    }
+
+    private Channel channel(UUID doctorId) {
+        return channels.computeIfAbsent(doctorId, id -> new Channel(id, bufferSize));
+    }
+
+    private void changed(Channel channel) {
+        channel.summaryStale.set(true);
+        if (!channel.subscribers.isEmpty()) {
+            schedule(channel);
+        }
+    }
+
+    private Subscriber resumeFrom(Channel channel, SseEmitter emitter, String lastEventId) {
+        long last = channel.lastSeq();
+        if (lastEventId == null || lastEventId.isBlank()) {
+            // New client: it loads the current state itself, then follows from here
+            return new Subscriber(emitter, last, false);
+        }
+        long seq = parseSeq(lastEventId);
+        if (seq < 0 || seq > last || seq < channel.oldestSeq() - 1) {
+            resets.increment();
+            return new Subscriber(emitter, last, true);
+        }
+        resumed.increment();
+        return new Subscriber(emitter, seq, false);
+    }
+
+    private long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(nodeId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    String eventId(long seq) {
+        return nodeId + "-" + seq;
+    }
+
+    private void schedule(Channel channel) {
+        if (channel.flushQueued.compareAndSet(false, true)) {
+            sender.execute(() -> flush(channel));
+        }
+    }
+
+    private void flush(Channel channel) {
+        channel.flushQueued.set(false);
+        synchronized (channel.sendLock) {
+            boolean summaryChanged = channel.summaryStale.getAndSet(false);
+            DashboardSummaryDto summary = null;
+            for (Subscriber s : channel.subscribers) {
+                try {
+                    List<Event> missed = channel.since(s.sentSeq);
+                    if (!missed.isEmpty() && missed.get(0).seq > s.sentSeq + 1) {
+                        // Fell behind the ring while connected
+                        resets.increment();
+                        s.reset = true;
+                        s.sentSeq = missed.get(missed.size() - 1).seq;
+                        missed = List.of();
+                    }
+                    if (s.reset) {
+                        s.emitter.send(SseEmitter.event().id(eventId(s.sentSeq)).name(RESET).data(Collections.emptyMap()));
+                        s.reset = false;
+                    }
+                    for (Event e : missed) {
+                        s.emitter.send(SseEmitter.event().id(eventId(e.seq)).name(APPOINTMENT).data(e.change));
+                        s.sentSeq = e.seq;
+                    }
+                    if (s.needsSummary || summaryChanged) {
+                        if (summary == null) {
+                            summary = dashboardService.getDashboardSummary(channel.doctorId);
+                        }
+                        s.emitter.send(SseEmitter.event().name(SUMMARY).data(summary));
+                        s.needsSummary = false;
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    drop(channel, s, e);
+                } catch (RuntimeException e) {
+                    log.warn("Dashboard feed flush for doctor {} failed: {}", channel.doctorId, e.getMessage());
+                    // Send the summary again on the next flush
+                    channel.summaryStale.set(true);
+                }
+            }
+        }
+    }
+
+    private void ping(Channel channel) {
+        synchronized (channel.sendLock) {
+            for (Subscriber s : channel.subscribers) {
+                try {
+                    s.emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    drop(channel, s, e);
+                }
+            }
+        }
+        // Catch up anything a dropped flush left behind
+        schedule(channel);
+    }
+
+    private void drop(Channel channel, Subscriber s, Exception e) {
+        log.debug("Dashboard feed client of doctor {} gone: {}", channel.doctorId, e.getMessage());
+        channel.subscribers.remove(s);
+        s.emitter.completeWithError(e);
+    }
+
+    private static final class Event {
+        final long seq;
+        final AppointmentFeedDto change;
+
+        Event(long seq, AppointmentFeedDto change) {
+            this.seq = seq;
+            this.change = change;
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        long sentSeq;
+        boolean reset;
+        boolean needsSummary = true;
+
+        Subscriber(SseEmitter emitter, long sentSeq, boolean reset) {
+            this.emitter = emitter;
+            this.sentSeq = sentSeq;
+            this.reset = reset;
+        }
+    }
+
+    /**
+     * One doctor's ring and open streams. Sequence numbers start at 1; seq n lives in slot (n - 1) % size.
+     */
+    private static final class Channel {
+        final UUID doctorId;
+        final AppointmentFeedDto[] ring;
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        final AtomicBoolean summaryStale = new AtomicBoolean();
+        final AtomicBoolean flushQueued = new AtomicBoolean();
+        // Held while writing to clients; the ring's own monitor is never held across a send
+        final Object sendLock = new Object();
+        private long lastSeq;
+
+        Channel(UUID doctorId, int size) {
+            this.doctorId = doctorId;
+            this.ring = new AppointmentFeedDto[Math.max(size, 1)];
+        }
+
+        synchronized void append(AppointmentFeedDto change) {
+            lastSeq++;
+            ring[(int) ((lastSeq - 1) % ring.length)] = change;
+        }
+
+        /**
+         * Append unless the ring already holds this version of the appointment, or a later one.
+         */
+        synchronized boolean appendIfNew(AppointmentFeedDto change) {
+            for (long s = oldestSeq(); s <= lastSeq; s++) {
+                AppointmentFeedDto seen = ring[(int) ((s - 1) % ring.length)];
+                if (!seen.getId().equals(change.getId())) {
+                    continue;
+                }
+                boolean covered = seen.getVersion() != null && change.getVersion() != null
+                        ? seen.getVersion() >= change.getVersion()
+                        // Bulk cancellations are published without a version
+                        : seen.getStatus().equals(change.getStatus());
+                if (covered) {
+                    return false;
+                }
+            }
+            append(change);
+            return true;
+        }
+
+        synchronized long lastSeq() {
+            return lastSeq;
+        }
+
+        synchronized long oldestSeq() {
+            return Math.max(1, lastSeq - ring.length + 1);
+        }
+
+        synchronized List<Event> since(long seq) {
+            List<Event> events = new ArrayList<>();
+            for (long s = Math.max(seq + 1, oldestSeq()); s <= lastSeq; s++) {
+                events.add(new Event(s, ring[(int) ((s - 1) % ring.length)]));
+            }
+            return events;
+        }
+    }
+}
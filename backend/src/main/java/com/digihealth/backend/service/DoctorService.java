@@ -15,6 +15,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 
@@ -33,6 +35,9 @@ public class DoctorService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
     @Transactional
     public void updateWorkingHours(WorkingHoursDto workingHoursDto) {
         log.debug("updateWorkingHours called: {}", workingHoursDto);
@@ -53,28 +58,74 @@ public class DoctorService {
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(org.springframework.http.HttpStatus.NOT_FOUND, "Doctor not found for current user"));
         log.debug("Updating working hours for doctorId: {}", doctor.getDoctorId());
 
-        doctorWorkDayRepository.deleteByDoctor(doctor);
-        log.debug("Existing work days deleted for doctorId: {}", doctor.getDoctorId());
-
-        java.util.List<DoctorWorkDay> toSave = new java.util.ArrayList<>();
+        Map<DayOfWeek, WorkingHoursDto.TimeRange> requested = new EnumMap<>(DayOfWeek.class);
         for (String dayString : workingHoursDto.getWorkDays()) {
-            DayOfWeek day = convertToDayOfWeek(dayString);
-            WorkingHoursDto.TimeRange timeRange = workingHoursDto.getWorkHours().get(dayString);
-
-            DoctorWorkDay workDay = new DoctorWorkDay();
-            workDay.setDoctor(doctor);
-            workDay.setWorkDay(day);
-            if (timeRange != null) {
-                workDay.setAvailableStartTime(timeRange.getStartTime());
-                workDay.setAvailableEndTime(timeRange.getEndTime());
+            requested.put(convertToDayOfWeek(dayString), workingHoursDto.getWorkHours().get(dayString));
+        }
+
+        // Diff against the stored rows: update changed days in place, insert new ones, delete the rest
+        List<DoctorWorkDay> existing = doctorWorkDayRepository.findByDoctor(doctor);
+        Map<DayOfWeek, DoctorWorkDay> kept = new EnumMap<>(DayOfWeek.class);
+        List<DoctorWorkDay> toDelete = new ArrayList<>();
+        Set<DayOfWeek> changed = EnumSet.noneOf(DayOfWeek.class);
+        for (DoctorWorkDay workDay : existing) {
+            if (requested.containsKey(workDay.getWorkDay()) && !kept.containsKey(workDay.getWorkDay())) {
+                kept.put(workDay.getWorkDay(), workDay);
             } else {
-                workDay.setAvailableStartTime("09:00");
-                workDay.setAvailableEndTime("17:00");
+                toDelete.add(workDay);
+                if (workDay.getWorkDay() != null) {
+                    changed.add(workDay.getWorkDay());
+                }
+            }
+        }
+
+        List<DoctorWorkDay> toInsert = new ArrayList<>();
+        for (Map.Entry<DayOfWeek, WorkingHoursDto.TimeRange> e : requested.entrySet()) {
+            WorkingHoursDto.TimeRange timeRange = e.getValue();
+            String start = timeRange != null ? timeRange.getStartTime() : "09:00";
+            String end = timeRange != null ? timeRange.getEndTime() : "17:00";
+
+            DoctorWorkDay workDay = kept.get(e.getKey());
+            if (workDay == null) {
+                workDay = new DoctorWorkDay();
+                workDay.setDoctor(doctor);
+                workDay.setWorkDay(e.getKey());
+                toInsert.add(workDay);
+                kept.put(e.getKey(), workDay);
+            } else if (Objects.equals(start, workDay.getAvailableStartTime()) && Objects.equals(end, workDay.getAvailableEndTime())) {
+                continue;
             }
-            toSave.add(workDay);
+            // Managed rows are flushed as batched UPDATEs at commit; only real changes are dirty
+            workDay.setAvailableStartTime(start);
+            workDay.setAvailableEndTime(end);
+            changed.add(e.getKey());
+        }
+
+        if (!toDelete.isEmpty()) {
+            doctorWorkDayRepository.deleteAllInBatch(toDelete);
+        }
+        if (!toInsert.isEmpty()) {
+            doctorWorkDayRepository.saveAll(toInsert);
+        }
+        log.debug("Working hours for doctorId {}: {} inserted, {} deleted, changed days {}",
+                doctor.getDoctorId(), toInsert.size(), toDelete.size(), changed);
+
+        if (changed.isEmpty()) {
+            return;
+        }
+        UUID doctorUserId = currentUser.getId();
+        List<DoctorWorkDay> weekly = new ArrayList<>(kept.values());
+        Runnable refresh = () -> slotAvailabilityIndex.workingHoursChanged(doctorUserId, weekly, changed);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh.run();
+                }
+            });
+        } else {
+            refresh.run();
         }
-        doctorWorkDayRepository.saveAll(toSave);
-        log.debug("Saved {} work day entries for doctorId: {}", toSave.size(), doctor.getDoctorId());
     }
 
     public WorkingHoursDto getWorkingHours() {
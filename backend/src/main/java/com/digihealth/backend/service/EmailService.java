@@ -1,49 +1,207 @@
 package com.digihealth.backend.service;
 
 import com.digihealth.backend.entity.Appointment;
-import com.digihealth.backend.entity.Patient;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.User;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
 @Service
 @Slf4j
 public class EmailService {
 
+  private static final String STATUS_UPDATE_SUBJECT = "Appointment Status Update - DigiHealth";
+
+  private static final MailTemplate STATUS_UPDATE = MailTemplate.load("mail/status-update.txt");
+
+  // Lets messages be built (and the outbox drained) when no mail server is configured
+  private static final Session UNCONFIGURED_SESSION = Session.getInstance(new Properties());
+
   @Autowired(required = false)
   private JavaMailSender mailSender;
 
-  public void sendStatusUpdateEmail(Appointment appointment) {
+  @Autowired
+  private SmtpConnectionPool connectionPool;
+
+  @Autowired
+  private MailDomainRateLimiter rateLimiter;
+
+  /**
+   * Outcome of {@link #send}: every message is either sent, deferred by the per-domain rate
+   * limit (not attempted, try again later) or failed with the exception the server gave.
+   */
+  public static class BatchResult {
+    private final Set<MimeMessage> deferred = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<MimeMessage, Exception> failures = new IdentityHashMap<>();
+
+    public boolean isDeferred(MimeMessage message) {
+      return deferred.contains(message);
+    }
+
+    /**
+     * @return why {@code message} was not sent, or null if it was sent or deferred
+     */
+    public Exception failureOf(MimeMessage message) {
+      return failures.get(message);
+    }
+
+    void defer(MimeMessage message) {
+      deferred.add(message);
+    }
+
+    void fail(MimeMessage message, Exception e) {
+      failures.put(message, e);
+    }
+
+    public int deferredCount() {
+      return deferred.size();
+    }
+
+    public int failedCount() {
+      return failures.size();
+    }
+  }
+
+  /**
+   * Build the patient's notice that their appointment now has {@code status}. Missing names or
+   * slot details are replaced by neutral wording rather than failing the message.
+   *
+   * @throws MessagingException if the patient has no usable email address
+   */
+  public MimeMessage statusUpdateMessage(Appointment appointment, AppointmentStatus status) throws MessagingException {
+    User patientUser = appointment.getPatient() != null ? appointment.getPatient().getUser() : null;
+    User doctorUser = appointment.getDoctor() != null ? appointment.getDoctor().getUser() : null;
+    if (patientUser == null || patientUser.getEmail() == null) {
+      throw new MessagingException("Patient has no email address");
+    }
+    MimeMessage message = mailSender != null ? mailSender.createMimeMessage() : new MimeMessage(UNCONFIGURED_SESSION);
+    message.setRecipient(Message.RecipientType.TO, new InternetAddress(patientUser.getEmail()));
+    message.setSubject(STATUS_UPDATE_SUBJECT, StandardCharsets.UTF_8.name());
+    Map<String, Object> values = new HashMap<>();
+    values.put("patientName", valueOr(patientUser.getFullName(), "Patient"));
+    values.put("appointmentId", appointment.getAppointmentId());
+    values.put("status", status);
+    values.put("date", valueOr(appointment.getAppointmentDate(), "to be confirmed"));
+    values.put("time", valueOr(appointment.getAppointmentTime(), "to be confirmed"));
+    values.put("doctorName", valueOr(doctorUser != null ? doctorUser.getFullName() : null, "your doctor"));
+    message.setText(STATUS_UPDATE.render(values), StandardCharsets.UTF_8.name());
+    return message;
+  }
+
+  private static Object valueOr(Object value, String fallback) {
+    return value != null ? value : fallback;
+  }
+
+  /**
+   * Send a batch of messages over one pooled SMTP connection. Blocking. Messages whose recipient
+   * domain is over its rate are returned as deferred without being attempted; a message the
+   * server refuses doesn't stop the rest of the batch.
+   */
+  public BatchResult send(MimeMessage... messages) {
+    BatchResult result = new BatchResult();
+    if (mailSender == null) {
+      log.warn("JavaMailSender not configured; skipping {} emails", messages.length);
+      return result;
+    }
+
+    List<MimeMessage> allowed = new ArrayList<>(messages.length);
+    for (MimeMessage message : messages) {
+      if (rateLimiter.tryAcquire(domainOf(message))) {
+        allowed.add(message);
+      } else {
+        result.defer(message);
+      }
+    }
+    if (connectionPool.isAvailable()) {
+      sendPooled(allowed, result);
+    } else {
+      sendUnpooled(allowed, result);
+    }
+    log.info("Sent {} of {} emails ({} deferred, {} failed)",
+      allowed.size() - result.failedCount(), messages.length, result.deferredCount(), result.failedCount());
+    return result;
+  }
+
+  private void sendPooled(List<MimeMessage> messages, BatchResult result) {
+    Transport transport = null;
     try {
-      if (mailSender == null) {
-        log.warn("JavaMailSender not configured; skipping email for appointment {}", appointment.getAppointmentId());
-        return;
+      for (int i = 0; i < messages.size(); i++) {
+        MimeMessage message = messages.get(i);
+        if (transport == null) {
+          try {
+            transport = connectionPool.borrow();
+          } catch (MessagingException e) {
+            messages.subList(i, messages.size()).forEach(m -> result.fail(m, e));
+            return;
+          }
+        }
+        try {
+          if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+          }
+          message.saveChanges();
+          transport.sendMessage(message, message.getAllRecipients());
+        } catch (SendFailedException e) {
+          // Refused recipient; the connection itself is fine
+          result.fail(message, e);
+        } catch (MessagingException e) {
+          result.fail(message, e);
+          if (!transport.isConnected()) {
+            connectionPool.invalidate(transport);
+            transport = null;
+          }
+        }
+      }
+    } finally {
+      if (transport != null) {
+        connectionPool.release(transport);
       }
+    }
+  }
+
+  private void sendUnpooled(List<MimeMessage> messages, BatchResult result) {
+    try {
+      mailSender.send(messages.toArray(new MimeMessage[0]));
+    } catch (MailSendException e) {
+      e.getFailedMessages().forEach((m, ex) -> result.fail((MimeMessage) m, ex));
+    } catch (MailException e) {
+      messages.forEach(m -> result.fail(m, e));
+    }
+  }
 
-      Patient patient = appointment.getPatient();
-      String patientEmail = patient.getUser().getEmail();
-
-      SimpleMailMessage message = new SimpleMailMessage();
-      message.setTo(patientEmail);
-      message.setSubject("Appointment Status Update - DigiHealth");
-      message.setText(String.format(
-        "Dear %s,\n\nYour appointment (ID: %s) status has been updated to %s.\n\n" +
-        "Date: %s\nTime: %s\nDoctor: %s\n\n" +
-        "Thank you,\nDigiHealth Team",
-        patient.getUser().getFullName(),
-        appointment.getAppointmentId(),
-        appointment.getStatus(),
-        appointment.getAppointmentDate(),
-        appointment.getAppointmentTime(),
-        appointment.getDoctor().getUser().getFullName()
-      ));
-
-      mailSender.send(message);
-      log.info("Status update email sent to {}", patientEmail);
-    } catch (Exception e) {
-      log.error("Failed to send email for appointment {}: {}", appointment.getAppointmentId(), e.getMessage());
+  private static String domainOf(MimeMessage message) {
+    try {
+      Address[] recipients = message.getAllRecipients();
+      if (recipients != null && recipients.length > 0 && recipients[0] instanceof InternetAddress) {
+        String address = ((InternetAddress) recipients[0]).getAddress();
+        return address.substring(address.lastIndexOf('@') + 1);
+      }
+    } catch (MessagingException e) {
+      log.debug("Could not read recipients: {}", e.getMessage());
     }
+    return "";
   }
 }
@@ -0,0 +1,66 @@
+package com.digihealth.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per recipient domain, so a burst to one provider stays under the rate it accepts
+ * before it starts greylisting or throttling us. Each domain may take
+ * {@code digihealth.mail.per-domain-per-minute} messages per minute, all of them at once if idle.
+ */
+@Component
+public class MailDomainRateLimiter {
+
+    // Buckets of domains that have refilled completely are dropped once there are this many
+    private static final int MAX_TRACKED_DOMAINS = 10_000;
+
+    @Value("${digihealth.mail.per-domain-per-minute:120}")
+    private int perMinute = 120;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    LongSupplier clock = System::nanoTime;
+
+    private final class Bucket {
+        private double tokens = perMinute;
+        private long refilledAt = clock.getAsLong();
+
+        synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= perMinute;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(perMinute, tokens + (now - refilledAt) * perMinute / (double) TimeUnit.MINUTES.toNanos(1));
+            refilledAt = now;
+        }
+    }
+
+    /**
+     * Take one send from {@code domain}'s allowance.
+     *
+     * @return false if the domain has used its allowance and the message should wait
+     */
+    public boolean tryAcquire(String domain) {
+        long now = clock.getAsLong();
+        if (buckets.size() > MAX_TRACKED_DOMAINS) {
+            buckets.values().removeIf(b -> b.isFull(now));
+        }
+        return buckets.computeIfAbsent(domain.toLowerCase(Locale.ROOT), d -> new Bucket()).tryTake(now);
+    }
+}
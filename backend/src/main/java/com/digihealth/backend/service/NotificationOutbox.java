@@ -0,0 +1,212 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.OutboxMessage;
+import com.digihealth.backend.entity.TimeOrderedUuidGenerator;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.OutboxMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.mail.internet.MimeMessage;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for appointment status emails.
+ *
+ * {@link #enqueueStatusChange} must run inside the transaction that changes the appointment,
+ * so the notification exists exactly when the change does and survives restarts. A scheduled
+ * dispatcher claims due messages in batches and hands each batch to {@link EmailService#send}
+ * off the request thread. Messages held back by the per-domain mail rate are deferred without
+ * using up an attempt. Failures are retried with exponential backoff and jitter; after
+ * {@code digihealth.outbox.max-attempts} a message is dead-lettered (state DEAD, last error kept).
+ *
+ * Delivery is at least once: a node that dies mid-batch leaves its claim to expire, and the
+ * messages are sent again by whoever claims them next.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${digihealth.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${digihealth.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${digihealth.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds = 30;
+
+    @Value("${digihealth.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds = 3600;
+
+    @Value("${digihealth.outbox.lease-seconds:300}")
+    private long leaseSeconds = 300;
+
+    @Value("${digihealth.outbox.defer-seconds:30}")
+    private long deferSeconds = 30;
+
+    @Value("${digihealth.outbox.retention-days:7}")
+    private long retentionDays = 7;
+
+    /**
+     * Record that the patient should be told about the appointment's current status.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueStatusChange(Appointment appointment) {
+        OutboxMessage message = new OutboxMessage();
+        message.setAppointmentId(appointment.getAppointmentId());
+        message.setAppointmentStatus(appointment.getStatus());
+        LocalDateTime now = LocalDateTime.now();
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        outboxMessageRepository.save(message);
+    }
+
+    @Scheduled(fixedDelayString = "${digihealth.outbox.poll-ms:2000}")
+    public void dispatchPeriodically() {
+        try {
+            // Keep draining while full batches come back, so a backlog doesn't wait a poll per batch
+            int claimed;
+            do {
+                claimed = dispatch();
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim one batch of due messages and deliver it.
+     *
+     * @return number of messages claimed
+     */
+    public int dispatch() {
+        UUID token = TimeOrderedUuidGenerator.next();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = outboxMessageRepository.claimDue(bytes(token), now, now.plusSeconds(leaseSeconds), batchSize);
+        if (claimed == 0) {
+            return 0;
+        }
+
+        List<OutboxMessage> messages = outboxMessageRepository.findByClaimToken(token);
+        Map<UUID, Appointment> appointments = appointmentRepository.findWithParticipantsByIdIn(
+                        messages.stream().map(OutboxMessage::getAppointmentId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Appointment::getAppointmentId, Function.identity()));
+
+        List<OutboxMessage> built = new ArrayList<>(messages.size());
+        List<MimeMessage> mails = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            Appointment appointment = appointments.get(message.getAppointmentId());
+            if (appointment == null) {
+                // Appointment deleted since; nothing left to announce
+                outboxMessageRepository.markDead(message.getId(), "Appointment not found", LocalDateTime.now());
+                continue;
+            }
+            try {
+                mails.add(emailService.statusUpdateMessage(appointment, message.getAppointmentStatus()));
+                built.add(message);
+            } catch (Exception e) {
+                // Building the mail depends only on stored data, so a retry would fail the same way
+                dead(message, e, message.getAttempts() + 1);
+            }
+        }
+        if (mails.isEmpty()) {
+            return claimed;
+        }
+
+        EmailService.BatchResult result = emailService.send(mails.toArray(new MimeMessage[0]));
+        List<UUID> sent = new ArrayList<>();
+        List<UUID> deferred = new ArrayList<>();
+        for (int i = 0; i < built.size(); i++) {
+            OutboxMessage message = built.get(i);
+            MimeMessage mail = mails.get(i);
+            if (result.isDeferred(mail)) {
+                deferred.add(message.getId());
+            } else if (result.failureOf(mail) != null) {
+                failed(message, result.failureOf(mail));
+            } else {
+                sent.add(message.getId());
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboxMessageRepository.markSent(sent, LocalDateTime.now());
+        }
+        if (!deferred.isEmpty()) {
+            outboxMessageRepository.defer(deferred, LocalDateTime.now().plusSeconds(deferSeconds));
+        }
+        return claimed;
+    }
+
+    @Scheduled(cron = "${digihealth.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        int purged = outboxMessageRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            log.info("Purged {} delivered outbox messages", purged);
+        }
+    }
+
+    private void failed(OutboxMessage message, Exception e) {
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        int attempt = message.getAttempts() + 1;
+        if (attempt >= maxAttempts) {
+            dead(message, e, attempt);
+            return;
+        }
+        LocalDateTime next = LocalDateTime.now().plusSeconds(backoffSeconds(attempt));
+        log.warn("Outbox message {} attempt {} failed, retrying at {}: {}", message.getId(), attempt, next, error);
+        outboxMessageRepository.markRetry(message.getId(), next, error);
+    }
+
+    private void dead(OutboxMessage message, Exception e, int attempt) {
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        log.error("Outbox message {} for appointment {} dead after {} attempts: {}",
+                message.getId(), message.getAppointmentId(), attempt, error);
+        outboxMessageRepository.markDead(message.getId(), error, LocalDateTime.now());
+    }
+
+    /**
+     * Delay before the next try: base * 2^(attempt-1), capped, with up to 20% jitter so a
+     * mail outage doesn't release every message at the same instant.
+     */
+    long backoffSeconds(int attempt) {
+        long delay = backoffBaseSeconds << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, backoffMaxSeconds);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_ERROR_LENGTH ? s : s.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
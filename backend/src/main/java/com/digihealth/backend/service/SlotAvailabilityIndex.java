@@ -0,0 +1,386 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.DoctorAvailabilityRangeDto;
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.DayOfWeek;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.DoctorWorkDay;
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.entity.User;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.DoctorWorkDayRepository;
+import com.digihealth.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory slot availability per doctor and date.
+ *
+ * Each doctor (keyed by their user id) has a calendar holding the approval flag, the
+ * weekly working hours and the slot size from the {@link BookingPolicy}. Each date that has been queried gets a bitmap
+ * of booked slots. Bookings, cancellations and reschedules flip single bits, so slot
+ * listings need no database round trip once a day is loaded.
+ *
+ * Entries expire after {@code digihealth.slots.cache-ttl-seconds} to bound staleness from
+ * writes made by other nodes. The unique slot constraint still guards the actual booking.
+ */
+@Component
+public class SlotAvailabilityIndex {
+
+    private static final String[] LABELS = new String[24 * 60];
+
+    static {
+        for (int m = 0; m < LABELS.length; m++) {
+            LABELS[m] = String.format("%02d:%02d", m / 60, m % 60);
+        }
+    }
+
+    private static final int MAX_CACHED_DAYS_PER_DOCTOR = 400;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private DoctorWorkDayRepository doctorWorkDayRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BookingPolicy bookingPolicy;
+
+    @Value("${digihealth.slots.cache-ttl-seconds:120}")
+    private long ttlSeconds = 120;
+
+    private final Map<UUID, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+
+    /**
+     * Calendar for the given doctor user id, loading it on a miss.
+     *
+     * @throws RuntimeException if no user exists with that id
+     */
+    public DoctorCalendar calendar(UUID doctorUserId) {
+        int slotMinutes = bookingPolicy.current().getSlotMinutes();
+        DoctorCalendar cal = calendars.get(doctorUserId);
+        // A slot size change invalidates every cached bitmap of the calendar
+        if (cal == null || cal.isExpired(ttlNanos()) || cal.slotMinutes != slotMinutes) {
+            cal = loadCalendar(doctorUserId, slotMinutes);
+            calendars.put(doctorUserId, cal);
+        }
+        return cal;
+    }
+
+    /**
+     * Free slots on the given date as "HH:mm" labels, in order.
+     */
+    public List<String> availableSlots(DoctorCalendar cal, LocalDate date) {
+        DaySlots day = daySlots(cal, date, date).get(date);
+        if (day == null) {
+            return List.of();
+        }
+        List<String> slots = new ArrayList<>(day.count - day.booked.cardinality());
+        for (int i = day.booked.nextClearBit(0); i < day.count; i = day.booked.nextClearBit(i + 1)) {
+            slots.add(LABELS[day.startMinute + i * day.slotMinutes]);
+        }
+        return slots;
+    }
+
+    /**
+     * Availability for every working day in [from, to]. Days not yet cached are loaded
+     * with a single query over the range.
+     */
+    public DoctorAvailabilityRangeDto availableRange(DoctorCalendar cal, LocalDate from, LocalDate to) {
+        List<DoctorAvailabilityRangeDto.Day> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, DaySlots> e : daySlots(cal, from, to).entrySet()) {
+            DaySlots slots = e.getValue();
+            char[] free = new char[slots.count];
+            for (int i = 0; i < free.length; i++) {
+                free[i] = slots.booked.get(i) ? '0' : '1';
+            }
+            DoctorAvailabilityRangeDto.Day day = new DoctorAvailabilityRangeDto.Day();
+            day.setDate(e.getKey());
+            day.setStart(LABELS[slots.startMinute]);
+            day.setFree(new String(free));
+            days.add(day);
+        }
+
+        DoctorAvailabilityRangeDto dto = new DoctorAvailabilityRangeDto();
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setSlotMinutes(cal.slotMinutes);
+        dto.setDays(days);
+        return dto;
+    }
+
+    public void occupy(Appointment appointment) {
+        update(appointment.getDoctor(), appointment.getAppointmentDate(), appointment.getAppointmentTime(), true);
+    }
+
+    public void release(Appointment appointment) {
+        release(appointment.getDoctor(), appointment.getAppointmentDate(), appointment.getAppointmentTime());
+    }
+
+    public void release(Doctor doctor, LocalDate date, LocalTime time) {
+        update(doctor, date, time, false);
+    }
+
+    public void release(UUID doctorUserId, LocalDate date, LocalTime time) {
+        update(doctorUserId, date, time, false);
+    }
+
+    /**
+     * Drop everything cached for one doctor, e.g. after approval changes.
+     */
+    public void evictDoctor(UUID doctorUserId) {
+        calendars.remove(doctorUserId);
+    }
+
+    /**
+     * Swap in a doctor's new weekly hours. Cached dates on the {@code changed} weekdays are
+     * dropped; bitmaps of all other days stay valid and are kept.
+     */
+    public void workingHoursChanged(UUID doctorUserId, Iterable<DoctorWorkDay> workDays, Set<DayOfWeek> changed) {
+        DoctorCalendar cal = calendars.get(doctorUserId);
+        if (cal == null || changed.isEmpty()) {
+            return;
+        }
+        // Loads in flight may have read the old hours; bumping on both sides of the swap keeps them out of the cache
+        cal.generation.incrementAndGet();
+        cal.hours = hoursOf(workDays);
+        cal.days.keySet().removeIf(d -> changed.contains(toDayOfWeek(d)));
+        cal.generation.incrementAndGet();
+    }
+
+    private void update(Doctor doctor, LocalDate date, LocalTime time, boolean booked) {
+        if (doctor == null || doctor.getUser() == null) {
+            return;
+        }
+        update(doctor.getUser().getId(), date, time, booked);
+    }
+
+    private void update(UUID doctorUserId, LocalDate date, LocalTime time, boolean booked) {
+        if (doctorUserId == null || date == null) {
+            return;
+        }
+        DoctorCalendar cal = calendars.get(doctorUserId);
+        if (cal == null) {
+            return;
+        }
+        cal.generation.incrementAndGet();
+        cal.days.computeIfPresent(date, (d, day) -> {
+            int i = day.indexOf(time);
+            return i < 0 ? day : day.with(i, booked);
+        });
+    }
+
+    /**
+     * Slot bitmaps for the working days in [from, to], in date order.
+     */
+    private Map<LocalDate, DaySlots> daySlots(DoctorCalendar cal, LocalDate from, LocalDate to) {
+        Map<LocalDate, DaySlots> result = new TreeMap<>();
+        if (cal.doctorId == null) {
+            return result;
+        }
+
+        // Snapshot before reading the hours, so a concurrent hours swap also blocks caching
+        long generation = cal.generation.get();
+        Map<DayOfWeek, int[]> weekly = cal.hours;
+
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            if (!weekly.containsKey(toDayOfWeek(d))) {
+                continue;
+            }
+            DaySlots day = cal.days.get(d);
+            if (day != null && !day.isExpired(ttlNanos())) {
+                result.put(d, day);
+            } else {
+                if (firstMissing == null) {
+                    firstMissing = d;
+                }
+                lastMissing = d;
+            }
+        }
+        if (firstMissing == null) {
+            return result;
+        }
+
+        Map<LocalDate, DaySlots> loaded = new HashMap<>();
+        for (LocalDate d = firstMissing; !d.isAfter(lastMissing); d = d.plusDays(1)) {
+            int[] hours = weekly.get(toDayOfWeek(d));
+            if (hours != null && !result.containsKey(d)) {
+                loaded.put(d, new DaySlots(hours[0], hours[1], cal.slotMinutes));
+            }
+        }
+        List<AppointmentRepository.BookedSlot> taken = appointmentRepository.findBookedSlotsByDoctorBetween(
+                cal.doctorId, firstMissing, lastMissing, AppointmentStatus.CANCELLED);
+        for (AppointmentRepository.BookedSlot slot : taken) {
+            DaySlots day = loaded.get(slot.getAppointmentDate());
+            int i = day != null ? day.indexOf(slot.getAppointmentTime()) : -1;
+            if (i >= 0) {
+                day.booked.set(i);
+            }
+        }
+
+        // A booking that raced with this load would have been missed; serve but don't cache it
+        boolean cacheable = cal.generation.get() == generation;
+        if (cacheable && cal.days.size() + loaded.size() > MAX_CACHED_DAYS_PER_DOCTOR) {
+            cal.days.keySet().removeIf(d -> d.isBefore(LocalDate.now()));
+        }
+        for (Map.Entry<LocalDate, DaySlots> e : loaded.entrySet()) {
+            result.put(e.getKey(), e.getValue());
+            if (cacheable && cal.days.size() < MAX_CACHED_DAYS_PER_DOCTOR) {
+                cal.days.put(e.getKey(), e.getValue());
+            }
+        }
+        return result;
+    }
+
+    private DoctorCalendar loadCalendar(UUID doctorUserId, int slotMinutes) {
+        User user = userRepository.findById(doctorUserId)
+                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        if (user.getRole() != Role.DOCTOR) {
+            return new DoctorCalendar(null, false, false, slotMinutes, new EnumMap<>(DayOfWeek.class));
+        }
+
+        Doctor doctor = doctorRepository.findByUserId(doctorUserId)
+                .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
+
+        Map<DayOfWeek, int[]> hours = hoursOf(doctorWorkDayRepository.findByDoctor(doctor));
+        return new DoctorCalendar(doctor.getDoctorId(), true, Boolean.TRUE.equals(user.getIsApproved()), slotMinutes, hours);
+    }
+
+    /**
+     * Start and end minute of day per working weekday; the first row wins for duplicated days.
+     */
+    private static Map<DayOfWeek, int[]> hoursOf(Iterable<DoctorWorkDay> workDays) {
+        Map<DayOfWeek, int[]> hours = new EnumMap<>(DayOfWeek.class);
+        for (DoctorWorkDay wd : workDays) {
+            if (wd.getWorkDay() == null || hours.containsKey(wd.getWorkDay())) {
+                continue;
+            }
+            LocalTime start = LocalTime.parse(wd.getAvailableStartTime() != null ? wd.getAvailableStartTime() : "09:00");
+            LocalTime end = LocalTime.parse(wd.getAvailableEndTime() != null ? wd.getAvailableEndTime() : "17:00");
+            hours.put(wd.getWorkDay(), new int[]{start.toSecondOfDay() / 60, end.toSecondOfDay() / 60});
+        }
+        return hours;
+    }
+
+    private long ttlNanos() {
+        return ttlSeconds * 1_000_000_000L;
+    }
+
+    static DayOfWeek toDayOfWeek(LocalDate date) {
+        return DayOfWeek.values()[date.getDayOfWeek().getValue() - 1];
+    }
+
+    /**
+     * Cached per-doctor view: who the doctor is, when they work and which dates are loaded.
+     */
+    public static final class DoctorCalendar {
+        private final UUID doctorId;
+        private final boolean doctor;
+        private final boolean approved;
+        private final int slotMinutes;
+        private volatile Map<DayOfWeek, int[]> hours;
+        private final Map<LocalDate, DaySlots> days = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+        private final long loadedAt = System.nanoTime();
+
+        DoctorCalendar(UUID doctorId, boolean doctor, boolean approved, int slotMinutes, Map<DayOfWeek, int[]> hours) {
+            this.doctorId = doctorId;
+            this.doctor = doctor;
+            this.approved = approved;
+            this.slotMinutes = slotMinutes;
+            this.hours = hours;
+        }
+
+        public boolean isDoctor() {
+            return doctor;
+        }
+
+        public boolean isApproved() {
+            return approved;
+        }
+
+        public UUID getDoctorId() {
+            return doctorId;
+        }
+
+        public int getSlotMinutes() {
+            return slotMinutes;
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+
+    /**
+     * Booked-slot bitmap for one date. Immutable; updates swap in a modified copy.
+     */
+    static final class DaySlots {
+        final int startMinute;
+        final int slotMinutes;
+        final int count;
+        final BitSet booked;
+        final long loadedAt;
+
+        DaySlots(int startMinute, int endMinute, int slotMinutes) {
+            this(startMinute, slotMinutes, Math.max(0, (endMinute - startMinute) / slotMinutes), new BitSet(), System.nanoTime());
+        }
+
+        private DaySlots(int startMinute, int slotMinutes, int count, BitSet booked, long loadedAt) {
+            this.startMinute = startMinute;
+            this.slotMinutes = slotMinutes;
+            this.count = count;
+            this.booked = booked;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * Slot index for the given time, or -1 if it is not on the slot grid.
+         */
+        int indexOf(LocalTime time) {
+            if (time == null || time.getSecond() != 0 || time.getNano() != 0) {
+                return -1;
+            }
+            int offset = time.toSecondOfDay() / 60 - startMinute;
+            if (offset < 0 || offset % slotMinutes != 0 || offset / slotMinutes >= count) {
+                return -1;
+            }
+            return offset / slotMinutes;
+        }
+
+        DaySlots with(int index, boolean isBooked) {
+            BitSet copy = (BitSet) booked.clone();
+            copy.set(index, isBooked);
+            return new DaySlots(startMinute, slotMinutes, count, copy, loadedAt);
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.digihealth.backend.service;
+
+/**
+ * Thrown when an appointment slot is already held by another active appointment.
+ */
+public class SlotTakenException extends RuntimeException {
+
+    public SlotTakenException() {
+        super("Time slot already booked");
+    }
+}
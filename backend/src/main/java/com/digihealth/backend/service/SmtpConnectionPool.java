@@ -0,0 +1,158 @@
+package com.digihealth.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of connected SMTP transports for the configured {@link JavaMailSenderImpl}.
+ *
+ * {@code JavaMailSender.send} connects, authenticates and quits for every call. Borrowing a
+ * transport from here skips that handshake for every batch after the first. At most
+ * {@code digihealth.mail.pool.max-connections} transports exist at once; idle ones are reused
+ * newest first, and ones idle longer than {@code max-idle-seconds} or dropped by the server
+ * are closed instead of handed out.
+ */
+@Component
+@Slf4j
+public class SmtpConnectionPool {
+
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Value("${digihealth.mail.pool.max-connections:4}")
+    private int maxConnections = 4;
+
+    @Value("${digihealth.mail.pool.max-idle-seconds:60}")
+    private long maxIdleSeconds = 60;
+
+    @Value("${digihealth.mail.pool.borrow-timeout-ms:30000}")
+    private long borrowTimeoutMs = 30000;
+
+    private Semaphore permits;
+
+    private final Deque<Idle> idle = new ArrayDeque<>();
+
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    private static final class Idle {
+        final Transport transport;
+        final long since;
+
+        Idle(Transport transport, long since) {
+            this.transport = transport;
+            this.since = since;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * True when the mail sender is one whose session and server this pool can connect to.
+     */
+    public boolean isAvailable() {
+        return mailSender instanceof JavaMailSenderImpl;
+    }
+
+    /**
+     * Take a connected transport; hand it back with {@link #release} or, if it failed, {@link #invalidate}.
+     *
+     * @throws MessagingException if no connection frees up in time or connecting fails
+     */
+    public Transport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection", e);
+        }
+        try {
+            long staleBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos(maxIdleSeconds);
+            Idle entry;
+            while ((entry = pollIdle()) != null) {
+                if (entry.since - staleBefore > 0 && entry.transport.isConnected()) {
+                    return entry.transport;
+                }
+                closeQuietly(entry.transport);
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Transport transport) {
+        synchronized (idle) {
+            idle.push(new Idle(transport, System.nanoTime()));
+        }
+        permits.release();
+    }
+
+    public void invalidate(Transport transport) {
+        closeQuietly(transport);
+        permits.release();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (idle) {
+            idle.forEach(entry -> closeQuietly(entry.transport));
+            idle.clear();
+        }
+    }
+
+    private Idle pollIdle() {
+        synchronized (idle) {
+            return idle.poll();
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        // Same credential handling as JavaMailSenderImpl: empty means "no authentication"
+        String username = sender.getUsername();
+        String password = sender.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        transport.connect(sender.getHost(), sender.getPort(), username, password);
+        connectionsOpened.incrementAndGet();
+        log.debug("Opened SMTP connection to {}:{}", sender.getHost(), sender.getPort());
+        return transport;
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+}
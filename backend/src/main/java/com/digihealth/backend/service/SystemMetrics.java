@@ -0,0 +1,121 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * User and appointment counts for the system-status endpoint, refreshed in the background.
+ *
+ * Each refresh runs two grouped COUNT queries; readers only ever see the last complete
+ * snapshot, so polling the endpoint costs no database work.
+ */
+@Component
+public class SystemMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(SystemMetrics.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${digihealth.system-metrics.refresh-ms:10000}")
+    public void refreshPeriodically() {
+        refresh();
+    }
+
+    /**
+     * Recount and publish a new snapshot.
+     */
+    public Snapshot refresh() {
+        try {
+            Map<Role, Long> usersByRole = new EnumMap<>(Role.class);
+            for (UserRepository.RoleCount row : userRepository.countUsersByRole()) {
+                if (row.getRole() != null) {
+                    usersByRole.put(row.getRole(), row.getTotal());
+                }
+            }
+            Map<AppointmentStatus, Long> appointmentsByStatus = new EnumMap<>(AppointmentStatus.class);
+            for (AppointmentRepository.StatusCount row : appointmentRepository.countAppointmentsByStatus()) {
+                appointmentsByStatus.put(row.getStatus(), row.getTotal());
+            }
+            Snapshot snapshot = new Snapshot(usersByRole, appointmentsByStatus, Instant.now(), true);
+            current.set(snapshot);
+            return snapshot;
+        } catch (Exception e) {
+            log.warn("Could not refresh system metrics: {}", e.getMessage());
+            // Keep serving the last counts, flagged unhealthy, with their original timestamp
+            Snapshot previous = current.get();
+            Snapshot failed = previous != null
+                    ? new Snapshot(previous.usersByRole, previous.appointmentsByStatus, previous.refreshedAt, false)
+                    : new Snapshot(Map.of(), Map.of(), null, false);
+            current.set(failed);
+            return failed;
+        }
+    }
+
+    /**
+     * Immutable counts as of {@link #getRefreshedAt()}.
+     */
+    public static final class Snapshot {
+
+        private final Map<Role, Long> usersByRole;
+        private final Map<AppointmentStatus, Long> appointmentsByStatus;
+        private final Instant refreshedAt;
+        private final boolean databaseHealthy;
+
+        Snapshot(Map<Role, Long> usersByRole, Map<AppointmentStatus, Long> appointmentsByStatus,
+                 Instant refreshedAt, boolean databaseHealthy) {
+            this.usersByRole = Collections.unmodifiableMap(usersByRole);
+            this.appointmentsByStatus = Collections.unmodifiableMap(appointmentsByStatus);
+            this.refreshedAt = refreshedAt;
+            this.databaseHealthy = databaseHealthy;
+        }
+
+        public long users(Role role) {
+            return usersByRole.getOrDefault(role, 0L);
+        }
+
+        public long appointments(AppointmentStatus status) {
+            return appointmentsByStatus.getOrDefault(status, 0L);
+        }
+
+        public long totalAppointments() {
+            return appointmentsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public Map<AppointmentStatus, Long> getAppointmentsByStatus() {
+            return appointmentsByStatus;
+        }
+
+        /** Time of the last successful refresh, or null if none has succeeded yet. */
+        public Instant getRefreshedAt() {
+            return refreshedAt;
+        }
+
+        public boolean isDatabaseHealthy() {
+            return databaseHealthy;
+        }
+    }
+}
@@ -8,6 +8,10 @@ import com.digihealth.backend.entity.*;
 import com.digihealth.backend.repository.DoctorRepository;
 import com.digihealth.backend.repository.PatientRepository;
 import com.digihealth.backend.repository.UserRepository;
+import com.digihealth.backend.security.PrincipalCache;
+import com.digihealth.backend.security.TokenDenylist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,6 +23,8 @@ import java.util.UUID;
 @Service
 public class UserProfileService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserProfileService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -28,6 +34,12 @@ public class UserProfileService {
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(UUID userId) {
         User user = resolveUserByIdOrPatientId(userId);
@@ -68,9 +80,8 @@ public class UserProfileService {
 
     @Transactional
     public UserProfileResponse updateUserProfile(UUID userId, UserProfileUpdateRequest request) {
-        System.out.println("[UserProfileService.updateUserProfile] userId=" + userId);
         User user = resolveUserByIdOrPatientId(userId);
-        System.out.println("[UserProfileService.updateUserProfile] Loaded user=" + user.getEmail() + ", role=" + user.getRole());
+        log.debug("Updating profile of user {} with role {}", user.getId(), user.getRole());
 
         // For current model, map updated name into fullName
         if (request.getFirstName() != null || request.getLastName() != null) {
@@ -81,12 +92,10 @@ public class UserProfileService {
                 user.setFullName(combined);
             }
         }
-        System.out.println("[UserProfileService.updateUserProfile] Updating phoneNumber to=" + request.getPhoneNumber());
         user.setPhoneNumber(request.getPhoneNumber());
         // No dedicated profileImageUrl field on User; ignore or extend entity if needed
 
         if (user.getRole() == Role.PATIENT) {
-            System.out.println("[UserProfileService.updateUserProfile] Updating patient fields");
             Patient patient = patientRepository.findByUser(user)
                     .orElseGet(() -> {
                         Patient newPatient = new Patient();
@@ -129,14 +138,11 @@ public class UserProfileService {
             if (request.getCountry() != null) address.setCountry(request.getCountry());
             patient.setAddress(address);
 
-            System.out.println("[UserProfileService.updateUserProfile] Saving patient entity");
             patientRepository.save(patient);
         }
 
-        System.out.println("[UserProfileService.updateUserProfile] Saving user entity");
         userRepository.save(user);
 
-        System.out.println("[UserProfileService.updateUserProfile] Returning updated profile");
         return getUserProfile(userId);
     }
 
@@ -146,10 +152,11 @@ public class UserProfileService {
 
         user.setIsActive(false);
         userRepository.save(user);
+        principalCache.invalidate(user.getId());
+        tokenDenylist.revokeUser(user.getId());
     }
 
     private User resolveUserByIdOrPatientId(UUID id) {
-        System.out.println("[UserProfileService] resolveUserByIdOrPatientId id=" + id);
         return userRepository.findById(id)
                 .orElseGet(() -> patientRepository.findById(id)
                         .map(Patient::getUser)
@@ -159,27 +166,16 @@ public class UserProfileService {
     @Transactional(readOnly = true)
     public CurrentUserProfileDto getCurrentUserProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        // Debug logging
-        System.out.println("[UserProfileService] Authentication object: " + authentication);
-        System.out.println("[UserProfileService] Is authenticated: " + (authentication != null && authentication.isAuthenticated()));
-        if (authentication != null) {
-            System.out.println("[UserProfileService] Principal type: " + authentication.getPrincipal().getClass().getName());
-            System.out.println("[UserProfileService] Principal: " + authentication.getPrincipal());
-            System.out.println("[UserProfileService] Name: " + authentication.getName());
-        }
-        
+
+
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new RuntimeException("No authenticated user found");
         }
         
         String email = authentication.getName();
-        System.out.println("[UserProfileService] Looking up user by email: " + email);
-        
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-
-        System.out.println("[UserProfileService] User found: " + user.getId() + " - " + user.getEmail());
+        log.debug("Loading current profile of user {}", user.getId());
 
         CurrentUserProfileDto dto = new CurrentUserProfileDto();
         dto.setFullName(user.getFullName());
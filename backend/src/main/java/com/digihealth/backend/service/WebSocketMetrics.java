@@ -0,0 +1,113 @@
+package com.digihealth.backend.service;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load figures for the STOMP endpoint: open sessions, sessions the server dropped, and the
+ * depth and rejections of the bounded client inbound/outbound channel queues.
+ */
+@Component
+public class WebSocketMetrics {
+
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final LongAdder droppedSessions = new LongAdder();
+    private final LongAdder inboundRejected = new LongAdder();
+    private final LongAdder outboundRejected = new LongAdder();
+
+    private volatile ThreadPoolTaskExecutor inboundExecutor;
+    private volatile ThreadPoolTaskExecutor outboundExecutor;
+
+    /**
+     * Watch the executor behind clientInboundChannel; a full queue rejects the frame and is counted.
+     */
+    public ThreadPoolTaskExecutor watchInbound(ThreadPoolTaskExecutor executor) {
+        executor.setRejectedExecutionHandler(countingAbort(inboundRejected, "inbound"));
+        inboundExecutor = executor;
+        return executor;
+    }
+
+    /**
+     * Watch the executor behind clientOutboundChannel; a full queue drops the message and is counted.
+     */
+    public ThreadPoolTaskExecutor watchOutbound(ThreadPoolTaskExecutor executor) {
+        executor.setRejectedExecutionHandler(countingAbort(outboundRejected, "outbound"));
+        outboundExecutor = executor;
+        return executor;
+    }
+
+    /**
+     * Wrap the STOMP session handler to count sessions. A session closed with
+     * {@link CloseStatus#SESSION_NOT_RELIABLE} was dropped by the server: it exceeded its send
+     * buffer or send time limit, or never sent CONNECT.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                openSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                openSessions.decrementAndGet();
+                if (closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    droppedSessions.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public int getOpenSessions() {
+        return openSessions.get();
+    }
+
+    public long getDroppedSessions() {
+        return droppedSessions.sum();
+    }
+
+    public int getOutboundQueueDepth() {
+        return queueDepth(outboundExecutor);
+    }
+
+    public int getInboundQueueDepth() {
+        return queueDepth(inboundExecutor);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openSessions", getOpenSessions());
+        stats.put("droppedSessions", getDroppedSessions());
+        stats.put("inboundQueueDepth", getInboundQueueDepth());
+        stats.put("inboundRejected", inboundRejected.sum());
+        stats.put("outboundQueueDepth", getOutboundQueueDepth());
+        stats.put("outboundRejected", outboundRejected.sum());
+        return stats;
+    }
+
+    private static int queueDepth(ThreadPoolTaskExecutor executor) {
+        return executor != null && executor.getThreadPoolExecutor() != null
+                ? executor.getThreadPoolExecutor().getQueue().size()
+                : 0;
+    }
+
+    private static RejectedExecutionHandler countingAbort(LongAdder counter, String channel) {
+        return (task, executor) -> {
+            counter.increment();
+            throw new RejectedExecutionException("Client " + channel + " channel queue is full");
+        };
+    }
+}
@@ -0,0 +1,2 @@
+-- Recent changes to the doctors streaming their dashboard from this node (AppointmentRepository.findFeedChangesSince)
+create index idx_appointments_doctor_updated on appointments (doctor_id, updated_at);
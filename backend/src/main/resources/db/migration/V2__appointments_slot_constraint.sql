@@ -0,0 +1,19 @@
+-- One active appointment per doctor, date and time. slot_active is TRUE while the appointment
+-- holds its slot and NULL once cancelled; NULLs never collide, so a cancelled slot can be rebooked.
+alter table appointments add column slot_active bit;
+
+-- Existing rows: every status but CANCELLED holds its slot, as in Appointment's @PrePersist/@PreUpdate
+update appointments set slot_active = TRUE where status <> 'CANCELLED';
+
+-- Slots already double-booked before the constraint: the earliest booking keeps the slot and the
+-- later ones stay out of the key, so the constraint can be added without touching their status
+update appointments a
+join appointments b on b.doctor_id = a.doctor_id
+    and b.appointment_date = a.appointment_date
+    and b.appointment_time = a.appointment_time
+    and b.slot_active = TRUE
+    and (b.created_at < a.created_at or (b.created_at = a.created_at and b.appointment_id < a.appointment_id))
+set a.slot_active = null
+where a.slot_active = TRUE;
+
+alter table appointments add constraint uk_appointments_doctor_slot unique (doctor_id, appointment_date, appointment_time, slot_active);
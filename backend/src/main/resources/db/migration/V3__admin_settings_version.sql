@@ -0,0 +1,3 @@
+-- Bumped on every settings write so other nodes can detect the change by polling
+alter table admin_settings add column settings_version bigint;
+update admin_settings set settings_version = 0 where settings_version is null;
@@ -0,0 +1,8 @@
+-- Tokens of a user issued at or before revoked_before are no longer accepted
+create table token_revocations (
+    user_id VARCHAR(36) not null,
+    revoked_before datetime(6) not null,
+    primary key (user_id)
+) engine=InnoDB;
+
+create index idx_token_revocations_revoked_before on token_revocations (revoked_before);
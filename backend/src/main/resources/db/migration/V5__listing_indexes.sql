@@ -0,0 +1,10 @@
+-- Admin user listings by role and approval, and roster search by name or phone prefix
+create index idx_users_role_approved on users (role, is_approved, full_name);
+create index idx_users_full_name on users (full_name);
+create index idx_users_phone_number on users (phone_number);
+
+-- Admin appointment feed, patient history, status counts and the doctor/patient relationship lookup
+create index idx_appointments_date_time on appointments (appointment_date, appointment_time, appointment_id);
+create index idx_appointments_patient_date on appointments (patient_id, appointment_date, appointment_time);
+create index idx_appointments_status_date on appointments (status, appointment_date, appointment_time);
+create index idx_appointments_doctor_patient on appointments (doctor_id, patient_id, appointment_date);
@@ -0,0 +1,5 @@
+-- A doctor's notes for one patient, newest first (MedicalNoteRepository.findByPatientAndDoctor*)
+create index idx_medical_notes_patient_doctor_created on medical_notes (patient_id, doctor_id, created_at);
+
+-- Working hours for one doctor and weekday (DoctorWorkDayRepository.findByDoctorAndWorkDay)
+create index idx_doctor_work_days_doctor_day on doctor_work_days (doctor_id, work_day);
@@ -0,0 +1,29 @@
+-- users.id moves from the 36-character text form to BINARY(16), like every other key.
+-- UNHEX of the hex digits gives the same big-endian bytes Hibernate writes for a UUID.
+
+alter table doctors drop foreign key FKe9pf5qtxxkdyrwibaevo9frtk;
+alter table patients drop foreign key FKuwca24wcd1tg6pjex8lmc0y7;
+
+alter table users add column id_bin BINARY(16);
+update users set id_bin = unhex(replace(id, '-', ''));
+alter table users drop primary key, drop column id;
+alter table users change column id_bin id BINARY(16) not null first, add primary key (id);
+
+alter table doctors add column user_id_bin BINARY(16);
+update doctors set user_id_bin = unhex(replace(user_id, '-', '')) where user_id is not null;
+alter table doctors drop column user_id;
+alter table doctors change column user_id_bin user_id BINARY(16);
+alter table doctors add constraint UK_t1f6cueqyjwx5ghew9ar1exe3 unique (user_id);
+alter table doctors add constraint FKe9pf5qtxxkdyrwibaevo9frtk foreign key (user_id) references users (id);
+
+alter table patients add column user_id_bin BINARY(16);
+update patients set user_id_bin = unhex(replace(user_id, '-', '')) where user_id is not null;
+alter table patients drop column user_id;
+alter table patients change column user_id_bin user_id BINARY(16);
+alter table patients add constraint UK_9tbsl3fmey0eofbm2xj69v4qs unique (user_id);
+alter table patients add constraint FKuwca24wcd1tg6pjex8lmc0y7 foreign key (user_id) references users (id);
+
+alter table token_revocations add column user_id_bin BINARY(16);
+update token_revocations set user_id_bin = unhex(replace(user_id, '-', ''));
+alter table token_revocations drop primary key, drop column user_id;
+alter table token_revocations change column user_id_bin user_id BINARY(16) not null first, add primary key (user_id);
@@ -0,0 +1,17 @@
+-- Notifications written with the change they announce and delivered by a background dispatcher
+create table notification_outbox (
+    id BINARY(16) not null,
+    appointment_id BINARY(16) not null,
+    appointment_status varchar(20) not null,
+    state varchar(20) not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    claim_token BINARY(16),
+    last_error varchar(1000),
+    created_at datetime(6) not null,
+    processed_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_notification_outbox_due on notification_outbox (state, next_attempt_at);
+create index idx_notification_outbox_claim on notification_outbox (claim_token);
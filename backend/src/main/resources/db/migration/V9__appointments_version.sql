@@ -0,0 +1,2 @@
+-- Optimistic-lock version, also sent with live updates so clients can drop stale ones
+alter table appointments add column version bigint not null default 0;
@@ -0,0 +1,280 @@
+package com.digihealth.backend.config;
+
+import com.digihealth.backend.security.CustomUserDetailsService;
+import com.digihealth.backend.security.JwtTokenProvider;
+import com.digihealth.backend.security.StompAuthChannelInterceptor;
+import com.digihealth.backend.service.WebSocketMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Thousands of STOMP sessions on a real server, plus a few clients that stop reading.
+ * Checks that every healthy session keeps getting its messages while the stalled ones are
+ * dropped by the send limits, and that the broker queues drain. Size with -Dsoak.sessions=N.
+ */
+@SpringBootTest(classes = {WebSocketConfig.class, WebSocketMetrics.class, WebSocketSoakTest.LoginHeaderInterceptor.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "digihealth.ws.outbound.queue-capacity=50000",
+                "digihealth.ws.send-buffer-bytes=65536",
+                "digihealth.ws.send-time-limit-ms=1000",
+                "digihealth.ws.heartbeat-ms=2000"
+        })
+@ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+        WebSocketServletAutoConfiguration.class, JacksonAutoConfiguration.class})
+class WebSocketSoakTest {
+
+    private static final int SESSIONS = Integer.getInteger("soak.sessions", 2000);
+    private static final int SLOW_SESSIONS = 4;
+    private static final int ROUNDS = 3;
+    private static final String QUEUE = "/queue/soak";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private WebSocketMetrics metrics;
+
+    // Required by the real interceptor this one extends
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    private final List<StompSession> sessions = new CopyOnWriteArrayList<>();
+    private final List<Socket> slowClients = new ArrayList<>();
+    private ThreadPoolTaskScheduler clientScheduler;
+
+    /**
+     * Takes the user name from the CONNECT frame's login header, so no tokens are needed.
+     */
+    @Component
+    static class LoginHeaderInterceptor extends StompAuthChannelInterceptor {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+                accessor.setUser(new UsernamePasswordAuthenticationToken(accessor.getLogin(), null, List.of()));
+            }
+            return message;
+        }
+    }
+
+    @AfterEach
+    void disconnect() throws IOException {
+        sessions.forEach(s -> {
+            if (s.isConnected()) {
+                s.disconnect();
+            }
+        });
+        for (Socket socket : slowClients) {
+            socket.close();
+        }
+        if (clientScheduler != null) {
+            clientScheduler.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Thousands of sessions get every message while stalled clients are dropped and queues drain")
+    void soak() throws Exception {
+        AtomicLong delivered = new AtomicLong();
+        AtomicReference<long[]> negotiatedHeartbeat = new AtomicReference<>();
+        connectHealthy(delivered, negotiatedHeartbeat);
+        for (int i = 0; i < SLOW_SESSIONS; i++) {
+            slowClients.add(stalledClient("slow" + i));
+        }
+        awaitTrue(() -> userRegistry.findSubscriptions(s -> s.getDestination().contains("soak")).size() == SESSIONS + SLOW_SESSIONS,
+                60, "all sessions subscribed");
+        assertArrayEquals(new long[]{2000, 2000}, negotiatedHeartbeat.get(), "server heartbeats are on");
+
+        long expected = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < SESSIONS; i++) {
+                messagingTemplate.convertAndSendToUser("user" + i, QUEUE, "round " + round);
+            }
+            expected += SESSIONS;
+            long target = expected;
+            awaitTrue(() -> delivered.get() == target, 60, "round " + round + " delivered to every session");
+        }
+
+        // Flood the clients that never read until the send limits cut them off
+        String large = "x".repeat(16 * 1024);
+        for (int burst = 0; burst < 200 && metrics.getDroppedSessions() < SLOW_SESSIONS; burst++) {
+            for (int i = 0; i < SLOW_SESSIONS; i++) {
+                for (int m = 0; m < 20; m++) {
+                    messagingTemplate.convertAndSendToUser("slow" + i, QUEUE, large);
+                }
+            }
+            Thread.sleep(50);
+        }
+        awaitTrue(() -> metrics.getDroppedSessions() >= SLOW_SESSIONS, 30, "stalled clients dropped");
+
+        // Healthy sessions were not held up by the stalled ones
+        for (int i = 0; i < SESSIONS; i++) {
+            messagingTemplate.convertAndSendToUser("user" + i, QUEUE, "after eviction");
+        }
+        long target = expected + SESSIONS;
+        awaitTrue(() -> delivered.get() == target, 60, "delivery after eviction");
+
+        awaitTrue(() -> metrics.getOutboundQueueDepth() == 0 && metrics.getInboundQueueDepth() == 0, 30, "queues drained");
+        assertEquals(SESSIONS, metrics.getOpenSessions());
+        assertEquals(0L, metrics.stats().get("outboundRejected"));
+        assertEquals(0L, metrics.stats().get("inboundRejected"));
+    }
+
+    private void connectHealthy(AtomicLong delivered, AtomicReference<long[]> negotiatedHeartbeat) throws Exception {
+        clientScheduler = new ThreadPoolTaskScheduler();
+        clientScheduler.setPoolSize(2);
+        clientScheduler.initialize();
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        client.setTaskScheduler(clientScheduler);
+        String url = "ws://localhost:" + port + "/ws/websocket";
+
+        // Connect in waves so the accept backlog isn't overrun
+        int wave = 200;
+        for (int from = 0; from < SESSIONS; from += wave) {
+            List<Future<StompSession>> connecting = new ArrayList<>();
+            for (int i = from; i < Math.min(from + wave, SESSIONS); i++) {
+                StompHeaders connect = new StompHeaders();
+                connect.setLogin("user" + i);
+                connecting.add(client.connect(url, new WebSocketHttpHeaders(), connect, new StompSessionHandlerAdapter() {
+                    @Override
+                    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                        negotiatedHeartbeat.compareAndSet(null, connectedHeaders.getHeartbeat());
+                    }
+                }));
+            }
+            for (Future<StompSession> future : connecting) {
+                StompSession session = future.get(30, TimeUnit.SECONDS);
+                sessions.add(session);
+                session.subscribe("/user" + QUEUE, new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return String.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        delivered.incrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * A raw WebSocket client that connects, subscribes and then never reads, with a tiny
+     * receive buffer so the server's writes back up quickly.
+     */
+    private Socket stalledClient(String login) throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(new InetSocketAddress("localhost", port), 5000);
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /ws/websocket HTTP/1.1\r\nHost: localhost:" + port + "\r\n"
+                + "Upgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        String response = readHeaders(socket.getInputStream());
+        assertTrue(response.startsWith("HTTP/1.1 101"), response);
+        sendText(out, "CONNECT\naccept-version:1.2\nhost:localhost\nlogin:" + login + "\nheart-beat:0,0\n\n\0");
+        sendText(out, "SUBSCRIBE\nid:0\ndestination:/user" + QUEUE + "\n\n\0");
+        return socket;
+    }
+
+    private static String readHeaders(InputStream in) throws IOException {
+        StringBuilder headers = new StringBuilder();
+        while (!headers.toString().endsWith("\r\n\r\n")) {
+            int b = in.read();
+            if (b < 0) {
+                break;
+            }
+            headers.append((char) b);
+        }
+        return headers.toString();
+    }
+
+    // Client frames must be masked; a zero mask leaves the payload as is
+    private static void sendText(OutputStream out, String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0x81);
+        if (payload.length < 126) {
+            frame.write(0x80 | payload.length);
+        } else {
+            frame.write(0x80 | 126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length & 0xFF);
+        }
+        frame.write(new byte[4]);
+        frame.write(payload);
+        out.write(frame.toByteArray());
+        out.flush();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, int seconds, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for: " + what);
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.digihealth.backend.controller;
+
+import com.digihealth.backend.dto.AdminAppointmentDto;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.repository.AdminSettingsRepository;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.AuditLogRepository;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.PatientRepository;
+import com.digihealth.backend.repository.UserRepository;
+import com.digihealth.backend.security.CustomUserDetailsService;
+import com.digihealth.backend.security.JwtTokenProvider;
+import com.digihealth.backend.security.PrincipalCache;
+import com.digihealth.backend.security.TokenDenylist;
+import com.digihealth.backend.service.AppointmentBookingService;
+import com.digihealth.backend.service.BookingPolicy;
+import com.digihealth.backend.service.DoctorEventFeed;
+import com.digihealth.backend.service.SlotAvailabilityIndex;
+import com.digihealth.backend.service.SystemMetrics;
+import com.digihealth.backend.service.WebSocketMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+class AdminAppointmentsFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private AppointmentRepository appointmentRepository;
+
+    @MockBean
+    private DoctorRepository doctorRepository;
+
+    @MockBean
+    private PatientRepository patientRepository;
+
+    @MockBean
+    private AppointmentBookingService appointmentBookingService;
+
+    @MockBean
+    private AdminSettingsRepository adminSettingsRepository;
+
+    @MockBean
+    private AuditLogRepository auditLogRepository;
+
+    @MockBean
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @MockBean
+    private BookingPolicy bookingPolicy;
+
+    @MockBean
+    private PrincipalCache principalCache;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
+    @MockBean
+    private SystemMetrics systemMetrics;
+
+    @MockBean
+    private WebSocketMetrics webSocketMetrics;
+
+    @MockBean
+    private DoctorEventFeed doctorEventFeed;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    private AdminAppointmentDto row(LocalDate date, String time) {
+        return new AdminAppointmentDto(UUID.randomUUID(), date, LocalTime.parse(time), AppointmentStatus.SCHEDULED,
+                null, null, UUID.randomUUID(), "Dr. Cruz", UUID.randomUUID(), "Ana Reyes");
+    }
+
+    @Test
+    @WithMockUser(username = "admin@digihealth.com", roles = {"ADMIN"})
+    @DisplayName("Feed returns one page and a cursor pointing at its last row")
+    void feed_returnsPageAndCursor() throws Exception {
+        LocalDate day = LocalDate.of(2026, 3, 2);
+        AdminAppointmentDto first = row(day, "10:00");
+        AdminAppointmentDto second = row(day, "09:30");
+        AdminAppointmentDto extra = row(day, "09:00");
+        when(appointmentRepository.findAdminFeed(eq(AppointmentStatus.SCHEDULED), isNull(), isNull(), isNull(), isNull(),
+                eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(first, second, extra));
+
+        String expectedCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (day + "|09:30|" + second.getAppointmentId()).getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/admin/appointments").param("status", "SCHEDULED").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].patientName").value("Ana Reyes"))
+                .andExpect(jsonPath("$.nextCursor").value(expectedCursor));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@digihealth.com", roles = {"ADMIN"})
+    @DisplayName("Cursor is decoded into the keyset bounds and the last page has no cursor")
+    void feed_decodesCursor() throws Exception {
+        UUID lastId = UUID.randomUUID();
+        LocalDate day = LocalDate.of(2026, 3, 2);
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (day + "|09:30|" + lastId).getBytes(StandardCharsets.UTF_8));
+        when(appointmentRepository.findAdminFeedAfter(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(row(day, "09:00")));
+
+        mockMvc.perform(get("/api/admin/appointments").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+
+        verify(appointmentRepository).findAdminFeedAfter(isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(day), eq(LocalTime.of(9, 30)), eq(lastId), eq(PageRequest.of(0, 51)));
+        verify(appointmentRepository, never()).findAdminFeed(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@digihealth.com", roles = {"ADMIN"})
+    @DisplayName("Malformed cursor is rejected without querying")
+    void feed_rejectsBadCursor() throws Exception {
+        mockMvc.perform(get("/api/admin/appointments").param("cursor", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(appointmentRepository);
+    }
+}
@@ -0,0 +1,130 @@
+package com.digihealth.backend.controller;
+
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.entity.User;
+import com.digihealth.backend.repository.AdminSettingsRepository;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.AuditLogRepository;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.PatientRepository;
+import com.digihealth.backend.repository.UserRepository;
+import com.digihealth.backend.security.CustomUserDetailsService;
+import com.digihealth.backend.security.JwtTokenProvider;
+import com.digihealth.backend.security.PrincipalCache;
+import com.digihealth.backend.security.TokenDenylist;
+import com.digihealth.backend.service.AppointmentBookingService;
+import com.digihealth.backend.service.BookingPolicy;
+import com.digihealth.backend.service.DoctorEventFeed;
+import com.digihealth.backend.service.SlotAvailabilityIndex;
+import com.digihealth.backend.service.SystemMetrics;
+import com.digihealth.backend.service.WebSocketMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+class AdminDoctorApprovalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private AppointmentRepository appointmentRepository;
+
+    @MockBean
+    private DoctorRepository doctorRepository;
+
+    @MockBean
+    private PatientRepository patientRepository;
+
+    @MockBean
+    private AppointmentBookingService appointmentBookingService;
+
+    @MockBean
+    private AdminSettingsRepository adminSettingsRepository;
+
+    @MockBean
+    private AuditLogRepository auditLogRepository;
+
+    @MockBean
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @MockBean
+    private BookingPolicy bookingPolicy;
+
+    @MockBean
+    private PrincipalCache principalCache;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
+    @MockBean
+    private SystemMetrics systemMetrics;
+
+    @MockBean
+    private WebSocketMetrics webSocketMetrics;
+
+    @MockBean
+    private DoctorEventFeed doctorEventFeed;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    private User doctor() {
+        User doctor = new User();
+        doctor.setId(UUID.randomUUID());
+        doctor.setFullName("Dr. Cruz");
+        doctor.setRole(Role.DOCTOR);
+        doctor.setIsActive(true);
+        doctor.setIsApproved(false);
+        when(userRepository.findById(doctor.getId())).thenReturn(Optional.of(doctor));
+        return doctor;
+    }
+
+    @Test
+    @WithMockUser(username = "admin@digihealth.com", roles = {"ADMIN"})
+    @DisplayName("Approval revokes the doctor's tokens, so none keeps saying unapproved")
+    void approve_revokesTokens() throws Exception {
+        User doctor = doctor();
+
+        mockMvc.perform(put("/api/admin/doctors/" + doctor.getId() + "/approve").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isApproved").value(true));
+
+        verify(principalCache).invalidate(doctor.getId());
+        verify(tokenDenylist).revokeUser(doctor.getId());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@digihealth.com", roles = {"ADMIN"})
+    @DisplayName("Rejection revokes the doctor's tokens")
+    void reject_revokesTokens() throws Exception {
+        User doctor = doctor();
+
+        mockMvc.perform(put("/api/admin/doctors/" + doctor.getId() + "/reject").with(csrf()))
+                .andExpect(status().isOk());
+
+        verify(principalCache).invalidate(doctor.getId());
+        verify(tokenDenylist).revokeUser(doctor.getId());
+    }
+}
@@ -25,6 +25,7 @@ import java.util.UUID;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @SpringBootTest
 @AutoConfigureMockMvc(addFilters = true)
@@ -54,6 +55,12 @@ class AppointmentControllerPolicyTest {
     @MockBean
     private AppointmentNotificationService appointmentNotificationService;
 
+    @Autowired
+    private com.digihealth.backend.service.BookingPolicy bookingPolicy;
+
+    @Autowired
+    private com.digihealth.backend.service.SystemMetrics systemMetrics;
+
     @SpyBean
     private com.digihealth.backend.security.JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -83,12 +90,14 @@ class AppointmentControllerPolicyTest {
 
     private Doctor buildDoctor(User doctorUser) {
         Doctor d = new Doctor();
+        d.setDoctorId(UUID.randomUUID());
         d.setUser(doctorUser);
         return d;
     }
 
     private Patient buildPatient(User patientUser) {
         Patient p = new Patient();
+        p.setPatientId(UUID.randomUUID());
         p.setUser(patientUser);
         return p;
     }
@@ -108,10 +117,15 @@ class AppointmentControllerPolicyTest {
         Mockito.when(doctorRepository.findByUserId(doctorId)).thenReturn(Optional.of(doctor));
         Mockito.when(patientRepository.findByUserId(patientUser.getId())).thenReturn(Optional.of(patient));
         Mockito.when(adminSettingsRepository.findById(1L)).thenReturn(Optional.of(settings));
+        bookingPolicy.refresh();
         Mockito.when(doctorWorkDayRepository.findByDoctorAndWorkDay(ArgumentMatchers.eq(doctor), ArgumentMatchers.eq(day)))
                 .thenReturn(List.of(buildWorkDay(doctor, day, "09:00", "17:00")));
         Mockito.when(appointmentRepository.save(ArgumentMatchers.any(Appointment.class))).thenAnswer(inv -> {
             Appointment a = inv.getArgument(0);
+            // Stands in for the id generator, which runs on persist
+            if (a.getAppointmentId() == null) {
+                a.setAppointmentId(UUID.randomUUID());
+            }
             return a;
         });
     }
@@ -244,6 +258,7 @@ class AppointmentControllerPolicyTest {
         Mockito.when(doctorRepository.findByUserId(doctorId)).thenReturn(Optional.of(doctor));
         Mockito.when(patientRepository.findByUserId(patientUser.getId())).thenReturn(Optional.of(patient));
         Mockito.when(adminSettingsRepository.findById(1L)).thenReturn(Optional.of(settings));
+        bookingPolicy.refresh();
         Mockito.when(doctorWorkDayRepository.findByDoctorAndWorkDay(ArgumentMatchers.eq(doctor), ArgumentMatchers.eq(day)))
                 .thenReturn(List.of(buildWorkDay(doctor, day, "10:00", "11:00")));
 
@@ -316,12 +331,10 @@ class AppointmentControllerPolicyTest {
         LocalDate date = LocalDate.now().plusDays(1);
         DayOfWeek day = DayOfWeek.valueOf(date.getDayOfWeek().name().substring(0,3));
         stubCommon(doctorId, "patient@digihealth.com", patientUser, doctorUser, doctor, patient, settings, day);
-        Appointment existing = new Appointment();
-        existing.setDoctor(doctor);
-        existing.setAppointmentDate(date);
-        existing.setAppointmentTime(LocalTime.of(10,0));
-        Mockito.when(appointmentRepository.findByDoctorAndAppointmentDate(ArgumentMatchers.eq(doctor), ArgumentMatchers.eq(date)))
-                .thenReturn(List.of(existing));
+        Mockito.when(appointmentRepository.existsByDoctorAndAppointmentDateAndAppointmentTimeAndStatusNot(
+                        ArgumentMatchers.eq(doctor), ArgumentMatchers.eq(date), ArgumentMatchers.eq(LocalTime.of(10, 0)),
+                        ArgumentMatchers.eq(AppointmentStatus.CANCELLED)))
+                .thenReturn(true);
 
         String payload = "{\n" +
                 "  \"doctorId\": \"" + doctorId + "\",\n" +
@@ -419,12 +432,49 @@ class AppointmentControllerPolicyTest {
         AdminSettings settings = new AdminSettings();
         settings.setId(1L);
         Mockito.when(adminSettingsRepository.findById(1L)).thenReturn(Optional.of(settings));
-        Mockito.when(userRepository.findAll()).thenReturn(java.util.List.of());
-        Mockito.when(appointmentRepository.findAll()).thenReturn(java.util.List.of());
+        bookingPolicy.refresh();
+        Mockito.when(userRepository.countUsersByRole()).thenReturn(List.of(
+                roleCount(Role.DOCTOR, 4), roleCount(Role.PATIENT, 25)));
+        Mockito.when(appointmentRepository.countAppointmentsByStatus()).thenReturn(List.of(
+                statusCount(AppointmentStatus.SCHEDULED, 5), statusCount(AppointmentStatus.CONFIRMED, 2),
+                statusCount(AppointmentStatus.COMPLETED, 9), statusCount(AppointmentStatus.CANCELLED, 1)));
+        systemMetrics.refresh();
 
         mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/admin/system-status"))
                 .andExpect(status().isOk())
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("uptimeSeconds")))
-                .andExpect(content().string(org.hamcrest.Matchers.containsString("serverTime")));
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("serverTime")))
+                .andExpect(jsonPath("$.databaseHealthy").value(true))
+                .andExpect(jsonPath("$.totalDoctors").value(4))
+                .andExpect(jsonPath("$.totalPatients").value(25))
+                .andExpect(jsonPath("$.scheduledAppointments").value(7))
+                .andExpect(jsonPath("$.completedAppointments").value(9))
+                .andExpect(jsonPath("$.totalAppointments").value(17));
+        Mockito.verify(userRepository, Mockito.never()).findAll();
+        Mockito.verify(appointmentRepository, Mockito.never()).findAll();
+    }
+
+    private static UserRepository.RoleCount roleCount(Role role, long total) {
+        return new UserRepository.RoleCount() {
+            public Role getRole() {
+                return role;
+            }
+
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private static AppointmentRepository.StatusCount statusCount(AppointmentStatus status, long total) {
+        return new AppointmentRepository.StatusCount() {
+            public AppointmentStatus getStatus() {
+                return status;
+            }
+
+            public long getTotal() {
+                return total;
+            }
+        };
     }
 }
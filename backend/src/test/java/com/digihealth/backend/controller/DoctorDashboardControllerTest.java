@@ -61,6 +61,18 @@ class DoctorDashboardControllerTest {
     @MockBean
     private com.digihealth.backend.repository.AdminSettingsRepository adminSettingsRepository;
 
+    @MockBean
+    private com.digihealth.backend.service.AppointmentBookingService appointmentBookingService;
+
+    @MockBean
+    private com.digihealth.backend.service.SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @MockBean
+    private com.digihealth.backend.service.CareRelationshipIndex careRelationshipIndex;
+
+    @MockBean
+    private com.digihealth.backend.service.DoctorEventFeed doctorEventFeed;
+
     @Test
     @WithMockUser(username = "doctor@example.com", roles = {"DOCTOR"})
     @DisplayName("GET /api/dashboard/summary returns dashboard summary for authenticated doctor")
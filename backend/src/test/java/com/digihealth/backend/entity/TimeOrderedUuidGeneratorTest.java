@@ -0,0 +1,39 @@
+package com.digihealth.backend.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    @DisplayName("Ids are version 7, RFC 4122 variant, and carry the current time")
+    void next_isVersion7WithTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        // May run ahead of the clock by borrowed milliseconds, never behind
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1000, "timestamp " + millis);
+    }
+
+    @Test
+    @DisplayName("Consecutive ids are unique and strictly increasing in byte order")
+    void next_isMonotonic() {
+        Set<UUID> seen = new HashSet<>();
+        UUID previous = TimeOrderedUuidGenerator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = TimeOrderedUuidGenerator.next();
+            assertTrue(seen.add(id));
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0);
+            previous = id;
+        }
+    }
+}
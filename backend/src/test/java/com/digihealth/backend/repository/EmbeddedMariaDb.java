@@ -0,0 +1,48 @@
+package com.digihealth.backend.repository;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * One MariaDB server per test JVM, started on first use and stopped on shutdown.
+ * Gives schema and query-plan tests a real MySQL-compatible engine without a local install.
+ */
+final class EmbeddedMariaDb {
+
+    private static String baseUrl;
+
+    private EmbeddedMariaDb() {
+    }
+
+    static String url() {
+        return url("digihealth");
+    }
+
+    /**
+     * JDBC url of {@code database} on the shared server; the database is created on first connect.
+     */
+    static synchronized String url(String database) {
+        if (baseUrl == null) {
+            try {
+                DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+                config.setPort(0);
+                // The server refuses to start as root without this, which is how CI containers run
+                config.addArg("--user=root");
+                DB db = DB.newEmbeddedDB(config.build());
+                db.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        db.stop();
+                    } catch (ManagedProcessException ignored) {
+                        // JVM is exiting anyway
+                    }
+                }));
+                baseUrl = "jdbc:mysql://localhost:" + config.getPort() + "/";
+            } catch (ManagedProcessException e) {
+                throw new IllegalStateException("Could not start embedded MariaDB", e);
+            }
+        }
+        return baseUrl + database + "?createDatabaseIfNotExist=true&useSSL=false&allowPublicKeyRetrieval=true";
+    }
+}
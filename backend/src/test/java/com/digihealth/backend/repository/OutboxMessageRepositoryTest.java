@@ -0,0 +1,133 @@
+package com.digihealth.backend.repository;
+
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.OutboxMessage;
+import com.digihealth.backend.entity.OutboxState;
+import com.digihealth.backend.entity.TimeOrderedUuidGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Claim and lease behaviour of the outbox queries on a real MySQL-compatible engine.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Claims are their own transactions, as they are for the dispatcher
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxMessageRepositoryTest {
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.url("digihealth_outbox"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void clear() {
+        outboxMessageRepository.deleteAllInBatch();
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private OutboxMessage due(LocalDateTime at) {
+        OutboxMessage m = new OutboxMessage();
+        m.setAppointmentId(UUID.randomUUID());
+        m.setAppointmentStatus(AppointmentStatus.CONFIRMED);
+        m.setCreatedAt(at);
+        m.setNextAttemptAt(at);
+        return outboxMessageRepository.save(m);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    private Set<UUID> claim(UUID token, LocalDateTime at, int limit) {
+        outboxMessageRepository.claimDue(bytes(token), at, at.plusMinutes(5), limit);
+        return outboxMessageRepository.findByClaimToken(token).stream().map(OutboxMessage::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Claims take the oldest due messages and never hand a message to two dispatchers")
+    void claimDue_disjointOldestFirst() {
+        for (int i = 0; i < 5; i++) {
+            due(now.minusMinutes(10 - i));
+        }
+        due(now.plusMinutes(10));
+
+        List<UUID> oldest = outboxMessageRepository.findAll().stream()
+                .filter(m -> !m.getNextAttemptAt().isAfter(now))
+                .sorted((a, b) -> a.getNextAttemptAt().compareTo(b.getNextAttemptAt()))
+                .map(OutboxMessage::getId)
+                .collect(Collectors.toList());
+
+        Set<UUID> first = claim(TimeOrderedUuidGenerator.next(), now, 3);
+        Set<UUID> second = claim(TimeOrderedUuidGenerator.next(), now, 3);
+
+        assertEquals(new HashSet<>(oldest.subList(0, 3)), first);
+        assertEquals(new HashSet<>(oldest.subList(3, 5)), second);
+        assertTrue(claim(TimeOrderedUuidGenerator.next(), now, 3).isEmpty(), "future and leased messages are not due");
+    }
+
+    @Test
+    @DisplayName("A lease that runs out makes the message claimable again; sent and dead messages never are")
+    void claimDue_expiredLeaseAndFinalStates() {
+        OutboxMessage abandoned = due(now.minusMinutes(1));
+        OutboxMessage sent = due(now.minusMinutes(1));
+        OutboxMessage dead = due(now.minusMinutes(1));
+        outboxMessageRepository.markSent(List.of(sent.getId()), now);
+        outboxMessageRepository.markDead(dead.getId(), "gone", now);
+
+        assertEquals(Set.of(abandoned.getId()), claim(TimeOrderedUuidGenerator.next(), now, 10));
+        assertTrue(claim(TimeOrderedUuidGenerator.next(), now.plusMinutes(1), 10).isEmpty());
+        assertEquals(Set.of(abandoned.getId()), claim(TimeOrderedUuidGenerator.next(), now.plusMinutes(6), 10));
+
+        OutboxMessage reloaded = outboxMessageRepository.findById(sent.getId()).orElseThrow();
+        assertEquals(OutboxState.SENT, reloaded.getState());
+        assertEquals(1, reloaded.getAttempts());
+    }
+
+    @Test
+    @DisplayName("Retry releases the claim, counts the attempt and keeps the error")
+    void markRetry_releasesClaim() {
+        OutboxMessage m = due(now.minusMinutes(1));
+        UUID token = TimeOrderedUuidGenerator.next();
+        claim(token, now, 10);
+
+        outboxMessageRepository.markRetry(m.getId(), now.plusMinutes(2), "timeout");
+
+        OutboxMessage reloaded = outboxMessageRepository.findById(m.getId()).orElseThrow();
+        assertNull(reloaded.getClaimToken());
+        assertEquals(1, reloaded.getAttempts());
+        assertEquals("timeout", reloaded.getLastError());
+        assertEquals(OutboxState.PENDING, reloaded.getState());
+        assertEquals(now.plusMinutes(2), reloaded.getNextAttemptAt());
+    }
+}
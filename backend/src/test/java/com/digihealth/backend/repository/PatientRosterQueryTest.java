@@ -0,0 +1,104 @@
+package com.digihealth.backend.repository;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prefix search of the doctor's patient roster on a real MySQL-compatible engine, where LIKE
+ * wildcards in a name must match literally.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PatientRosterQueryTest {
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.url("digihealth_roster"));
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private Doctor doctor;
+
+    private int slot;
+
+    @BeforeEach
+    void seed() {
+        doctor = new Doctor();
+        doctor.setUser(user("Dr. Reyes", Role.DOCTOR));
+        em.persist(doctor);
+        for (String name : List.of("Ana_Cruz", "AnaXCruz", "50% Off", "5000 Names", "Back\\slash", "Backslash")) {
+            Patient patient = new Patient();
+            patient.setUser(user(name, Role.PATIENT));
+            em.persist(patient);
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDate(LocalDate.of(2026, 10, 20));
+            appointment.setAppointmentTime(LocalTime.of(8, 0).plusMinutes(30L * slot++));
+            em.persist(appointment);
+        }
+        em.flush();
+    }
+
+    private User user(String name, Role role) {
+        User user = new User();
+        user.setFullName(name);
+        user.setEmail(UUID.randomUUID() + "@roster.test");
+        user.setRole(role);
+        return em.persist(user);
+    }
+
+    private List<String> search(String escapedPrefix) {
+        return appointmentRepository.findPatientRoster(doctor.getDoctorId(), escapedPrefix, null, PageRequest.of(0, 20))
+                .map(AppointmentRepository.RosterRow::getFullName)
+                .stream().collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Escaped _ and % in a search match themselves, not any character")
+    void escapedWildcards_matchLiterally() {
+        assertEquals(List.of("Ana_Cruz"), search("Ana\\_%"));
+        assertEquals(List.of("50% Off"), search("50\\%%"));
+        assertEquals(List.of("Back\\slash"), search("Back\\\\%"));
+    }
+
+    @Test
+    @DisplayName("The count query agrees with the escaped page")
+    void escapedWildcards_countMatches() {
+        assertEquals(1, appointmentRepository.findPatientRoster(doctor.getDoctorId(), "Ana\\_%", null, PageRequest.of(0, 1))
+                .getTotalElements());
+        assertEquals(2, appointmentRepository.findPatientRoster(doctor.getDoctorId(), "Ana%", null, PageRequest.of(0, 1))
+                .getTotalElements());
+    }
+}
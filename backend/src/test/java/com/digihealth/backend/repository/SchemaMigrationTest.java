@@ -0,0 +1,368 @@
+package com.digihealth.backend.repository;
+
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.DayOfWeek;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations against a real MySQL-compatible engine, lets Hibernate validate the
+ * entities against the result, and checks that the hot repository queries are served by the
+ * indexes the migrations declare.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.digihealth.backend.repository.SchemaMigrationTest$CapturingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// ANALYZE TABLE commits implicitly, so seeding cannot live inside a rolled-back test transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationTest {
+
+    private static final int DOCTORS = 20;
+    private static final int PATIENTS = 300;
+    private static final int DAYS = 30;
+    private static final int SLOTS_PER_DAY = 5;
+
+    private static final List<UUID> doctorIds = new ArrayList<>();
+    private static final List<UUID> doctorUserIds = new ArrayList<>();
+    private static final List<UUID> patientIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedMariaDb::url);
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private MedicalNoteRepository medicalNoteRepository;
+
+    @Autowired
+    private DoctorWorkDayRepository doctorWorkDayRepository;
+
+    /**
+     * Records the SQL Hibernate sends, so the plan checked is the plan of the real query.
+     */
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        synchronized (SchemaMigrationTest.class) {
+            if (doctorIds.isEmpty()) {
+                insertFixtures();
+            }
+        }
+        CapturingInspector.statements.clear();
+    }
+
+    @Test
+    @DisplayName("Migrations apply cleanly and the entities validate against them")
+    void migrations_applied() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), Arrays.stream(applied)
+                .map(m -> m.getVersion().getVersion())
+                .collect(Collectors.toList()));
+        assertTrue(Arrays.stream(applied).allMatch(m -> m.getState().isApplied() && !m.getState().isFailed()));
+        // Context startup ran ddl-auto=validate; reaching here means the schema matches the mappings
+    }
+
+    @Test
+    @DisplayName("A doctor's day is read through the doctor/date slot constraint")
+    void doctorDay_usesDoctorDateIndex() {
+        UUID doctorId = doctorIds.get(3);
+        LocalDate date = LocalDate.now().plusDays(2);
+
+        appointmentRepository.findRowsByDoctorAndDate(doctorId, date);
+        assertUsesIndex(firstStatement(), "uk_appointments_doctor_slot", bytes(doctorId), Date.valueOf(date));
+
+        appointmentRepository.findBookedSlotsByDoctorBetween(doctorId, date, date.plusDays(7), AppointmentStatus.CANCELLED);
+        assertUsesIndex(firstStatement(), "uk_appointments_doctor_slot",
+                bytes(doctorId), Date.valueOf(date), Date.valueOf(date.plusDays(7)), AppointmentStatus.CANCELLED.name());
+    }
+
+    @Test
+    @DisplayName("A patient's appointments are read through the patient index")
+    void patientAppointments_usePatientIndex() {
+        UUID patientId = patientIds.get(7);
+
+        appointmentRepository.findDtosByPatientId(patientId);
+        assertUsesIndex(firstStatement(), "idx_appointments_patient_date", bytes(patientId));
+    }
+
+    @Test
+    @DisplayName("Approved doctors are listed through the role/approval index")
+    void approvedDoctors_useRoleApprovedIndex() {
+        userRepository.findApprovedDoctorSummaries(Sort.by("fullName"));
+        assertUsesIndex(firstStatement(), "idx_users_role_approved");
+    }
+
+    @Test
+    @DisplayName("Doctor profiles are found by their binary user id through the unique key")
+    void doctorByUser_usesUserIdKey() {
+        UUID userId = doctorUserIds.get(2);
+
+        assertEquals(doctorIds.get(2), doctorRepository.findDoctorIdByUserId(userId).orElseThrow());
+        assertUsesIndex(firstStatement(), "UK_t1f6cueqyjwx5ghew9ar1exe3", bytes(userId));
+    }
+
+    @Test
+    @DisplayName("V7 converts text user ids and the keys that reference them to the same binary UUIDs")
+    void usersIdMigration_keepsIdentity() {
+        String url = EmbeddedMariaDb.url("digihealth_v7");
+        Flyway.configure().dataSource(url, "root", "").target("6").load().migrate();
+
+        JdbcTemplate db = new JdbcTemplate(new DriverManagerDataSource(url, "root", ""));
+        UUID userId = UUID.randomUUID();
+        UUID doctorId = UUID.randomUUID();
+        db.update("INSERT INTO users (id, email, role) VALUES (?, 'legacy@digihealth.test', 'DOCTOR')", userId.toString());
+        db.update("INSERT INTO doctors (doctor_id, user_id) VALUES (?, ?)", bytes(doctorId), userId.toString());
+        db.update("INSERT INTO token_revocations (user_id, revoked_before) VALUES (?, NOW())", userId.toString());
+
+        Flyway.configure().dataSource(url, "root", "").load().migrate();
+
+        assertArrayEquals(bytes(userId), db.queryForObject("SELECT id FROM users", byte[].class));
+        assertArrayEquals(bytes(userId), db.queryForObject("SELECT user_id FROM doctors WHERE doctor_id = ?", byte[].class, (Object) bytes(doctorId)));
+        assertArrayEquals(bytes(userId), db.queryForObject("SELECT user_id FROM token_revocations", byte[].class));
+        assertEquals(1, db.queryForObject("SELECT COUNT(*) FROM doctors d JOIN users u ON u.id = d.user_id", Integer.class));
+    }
+
+    @Test
+    @DisplayName("A database created before the migrations is baselined at V1 and upgraded to the same schema as a new one")
+    void preSeriesDatabase_baselinesAndUpgrades() throws Exception {
+        String url = EmbeddedMariaDb.url("digihealth_legacy");
+        JdbcTemplate db = new JdbcTemplate(new DriverManagerDataSource(url, "root", ""));
+        String script = new String(new ClassPathResource("db/pre-series-schema.sql").getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        for (String statement : script.replaceAll("(?m)^--.*$", "").split(";")) {
+            if (!statement.isBlank()) {
+                db.execute(statement);
+            }
+        }
+        UUID userId = UUID.randomUUID();
+        UUID doctorId = UUID.randomUUID();
+        UUID patientId = UUID.randomUUID();
+        db.update("INSERT INTO users (id, email, role, is_approved) VALUES (?, 'legacy@digihealth.test', 'DOCTOR', 1)", userId.toString());
+        db.update("INSERT INTO doctors (doctor_id, user_id) VALUES (?, ?)", bytes(doctorId), userId.toString());
+        db.update("INSERT INTO patients (patient_id) VALUES (?)", (Object) bytes(patientId));
+        db.update("INSERT INTO admin_settings (clinic_name) VALUES ('Legacy Clinic')");
+        LocalDate day = LocalDate.now().plusDays(1);
+        UUID active = legacyAppointment(db, doctorId, patientId, day, LocalTime.of(9, 0), "CONFIRMED", 1);
+        UUID cancelled = legacyAppointment(db, doctorId, patientId, day, LocalTime.of(10, 0), "CANCELLED", 1);
+        // A duplicate left behind by the booking race; the older row keeps the slot
+        UUID first = legacyAppointment(db, doctorId, patientId, day, LocalTime.of(11, 0), "SCHEDULED", 2);
+        UUID duplicate = legacyAppointment(db, doctorId, patientId, day, LocalTime.of(11, 0), "SCHEDULED", 1);
+
+        Flyway.configure().dataSource(url, "root", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        assertEquals(Boolean.TRUE, slotActive(db, active));
+        assertNull(slotActive(db, cancelled));
+        assertEquals(Boolean.TRUE, slotActive(db, first));
+        assertNull(slotActive(db, duplicate));
+        assertEquals(0L, db.queryForObject("SELECT settings_version FROM admin_settings", Long.class));
+        assertEquals(1, db.queryForObject("SELECT COUNT(*) FROM doctors d JOIN users u ON u.id = d.user_id", Integer.class));
+        assertThrows(DuplicateKeyException.class,
+                () -> legacyAppointment(db, doctorId, patientId, day, LocalTime.of(9, 0), "SCHEDULED", 3, true));
+        assertEquals(schemaOf("digihealth"), schemaOf("digihealth_legacy"));
+    }
+
+    private UUID legacyAppointment(JdbcTemplate db, UUID doctorId, UUID patientId, LocalDate day, LocalTime time,
+                                   String status, int minutesAgo) {
+        return legacyAppointment(db, doctorId, patientId, day, time, status, minutesAgo, false);
+    }
+
+    private UUID legacyAppointment(JdbcTemplate db, UUID doctorId, UUID patientId, LocalDate day, LocalTime time,
+                                   String status, int minutesAgo, boolean slotActive) {
+        UUID id = UUID.randomUUID();
+        Timestamp created = Timestamp.valueOf(LocalDateTime.now().minusMinutes(minutesAgo));
+        if (slotActive) {
+            db.update("INSERT INTO appointments (appointment_id, doctor_id, patient_id, appointment_date, appointment_time, status, "
+                            + "duration_minutes, follow_up_required, created_at, updated_at, slot_active) VALUES (?, ?, ?, ?, ?, ?, 30, 0, ?, ?, 1)",
+                    bytes(id), bytes(doctorId), bytes(patientId), Date.valueOf(day), Time.valueOf(time), status, created, created);
+        } else {
+            db.update("INSERT INTO appointments (appointment_id, doctor_id, patient_id, appointment_date, appointment_time, status, "
+                            + "duration_minutes, follow_up_required, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, 30, 0, ?, ?)",
+                    bytes(id), bytes(doctorId), bytes(patientId), Date.valueOf(day), Time.valueOf(time), status, created, created);
+        }
+        return id;
+    }
+
+    private static Boolean slotActive(JdbcTemplate db, UUID appointmentId) {
+        return db.queryForObject("SELECT slot_active FROM appointments WHERE appointment_id = ?", Boolean.class, (Object) bytes(appointmentId));
+    }
+
+    /**
+     * Columns and indexes of every table except Flyway's own, in a comparable form.
+     */
+    private List<String> schemaOf(String database) {
+        List<String> schema = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT CONCAT(table_name, '.', column_name, ' ', column_type, ' ', is_nullable, ' ', IFNULL(column_default, '-')) "
+                        + "FROM information_schema.columns WHERE table_schema = ? AND table_name <> 'flyway_schema_history' "
+                        + "ORDER BY table_name, column_name", String.class, database));
+        schema.addAll(jdbcTemplate.queryForList(
+                "SELECT CONCAT(table_name, ' ', index_name, ' ', non_unique, ' ', GROUP_CONCAT(column_name ORDER BY seq_in_index)) "
+                        + "FROM information_schema.statistics WHERE table_schema = ? AND table_name <> 'flyway_schema_history' "
+                        + "GROUP BY table_name, index_name, non_unique ORDER BY table_name, index_name", String.class, database));
+        return schema;
+    }
+
+    @Test
+    @DisplayName("A doctor's notes for a patient come from the composite index without a filesort")
+    void medicalNotes_usePatientDoctorCreatedIndex() {
+        Patient patient = new Patient();
+        patient.setPatientId(patientIds.get(11));
+        Doctor doctor = new Doctor();
+        doctor.setDoctorId(doctorIds.get(5));
+
+        medicalNoteRepository.findByPatientAndDoctorOrderByCreatedAtDesc(patient, doctor);
+        List<Map<String, Object>> plan = assertUsesIndex(firstStatement(), "idx_medical_notes_patient_doctor_created",
+                bytes(patient.getPatientId()), bytes(doctor.getDoctorId()));
+        assertTrue(plan.stream().noneMatch(row -> String.valueOf(row.get("Extra")).contains("filesort")),
+                () -> "Unexpected filesort: " + plan);
+    }
+
+    @Test
+    @DisplayName("Working hours for a weekday are read through the doctor/day index")
+    void workDay_usesDoctorDayIndex() {
+        Doctor doctor = new Doctor();
+        doctor.setDoctorId(doctorIds.get(8));
+
+        doctorWorkDayRepository.findByDoctorAndWorkDay(doctor, DayOfWeek.TUE);
+        assertUsesIndex(firstStatement(), "idx_doctor_work_days_doctor_day", bytes(doctor.getDoctorId()), DayOfWeek.TUE.name());
+    }
+
+    private String firstStatement() {
+        assertFalse(CapturingInspector.statements.isEmpty(), "No statement was issued");
+        String sql = CapturingInspector.statements.get(0);
+        CapturingInspector.statements.clear();
+        return sql;
+    }
+
+    private List<Map<String, Object>> assertUsesIndex(String sql, String index, Object... params) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, params);
+        assertTrue(plan.stream().anyMatch(row -> index.equalsIgnoreCase(String.valueOf(row.get("key")))),
+                () -> "Expected " + index + " in plan of [" + sql + "]: " + plan);
+        return plan;
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    private void insertFixtures() {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> doctors = new ArrayList<>();
+        List<Object[]> patients = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            UUID userId = UUID.randomUUID();
+            users.add(new Object[]{bytes(userId), "doctor" + i + "@digihealth.test", "Doctor " + i, "DOCTOR", i % 4 != 0});
+            UUID doctorId = UUID.randomUUID();
+            doctors.add(new Object[]{bytes(doctorId), bytes(userId)});
+            doctorIds.add(doctorId);
+            doctorUserIds.add(userId);
+        }
+        for (int i = 0; i < PATIENTS; i++) {
+            UUID userId = UUID.randomUUID();
+            users.add(new Object[]{bytes(userId), "patient" + i + "@digihealth.test", "Patient " + i, "PATIENT", true});
+            UUID patientId = UUID.randomUUID();
+            patients.add(new Object[]{bytes(patientId), bytes(userId)});
+            patientIds.add(patientId);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, full_name, role, is_approved, is_active) VALUES (?, ?, ?, ?, ?, 1)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO doctors (doctor_id, user_id) VALUES (?, ?)", doctors);
+        jdbcTemplate.batchUpdate("INSERT INTO patients (patient_id, user_id) VALUES (?, ?)", patients);
+
+        List<Object[]> appointments = new ArrayList<>();
+        List<Object[]> notes = new ArrayList<>();
+        List<Object[]> workDays = new ArrayList<>();
+        for (UUID doctorId : doctorIds) {
+            for (DayOfWeek day : List.of(DayOfWeek.MON, DayOfWeek.TUE, DayOfWeek.WED, DayOfWeek.THU, DayOfWeek.FRI)) {
+                workDays.add(new Object[]{bytes(UUID.randomUUID()), bytes(doctorId), day.name()});
+            }
+            for (int d = 0; d < DAYS; d++) {
+                for (int s = 0; s < SLOTS_PER_DAY; s++) {
+                    UUID patientId = patientIds.get(random.nextInt(PATIENTS));
+                    appointments.add(new Object[]{bytes(UUID.randomUUID()), bytes(doctorId), bytes(patientId),
+                            Date.valueOf(LocalDate.now().plusDays(d)), Time.valueOf(LocalTime.of(9, 0).plusMinutes(30L * s)),
+                            AppointmentStatus.SCHEDULED.name(), now, now});
+                    if (random.nextInt(3) == 0) {
+                        notes.add(new Object[]{bytes(UUID.randomUUID()), bytes(patientId), bytes(doctorId),
+                                Timestamp.valueOf(LocalDateTime.now().minusHours(random.nextInt(5000)))});
+                    }
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO appointments (appointment_id, doctor_id, patient_id, appointment_date, appointment_time, "
+                + "status, created_at, updated_at, duration_minutes, follow_up_required, slot_active) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 30, 0, 1)", appointments);
+        jdbcTemplate.batchUpdate("INSERT INTO medical_notes (note_id, patient_id, doctor_id, created_at) VALUES (?, ?, ?, ?)", notes);
+        jdbcTemplate.batchUpdate("INSERT INTO doctor_work_days (id, doctor_id, work_day) VALUES (?, ?, ?)", workDays);
+
+        jdbcTemplate.execute("ANALYZE TABLE users, doctors, patients, appointments, medical_notes, doctor_work_days");
+    }
+}
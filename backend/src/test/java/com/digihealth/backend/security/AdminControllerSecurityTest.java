@@ -1,6 +1,7 @@
 package com.digihealth.backend.security;
 
 import com.digihealth.backend.controller.AdminController;
+import com.digihealth.backend.entity.Role;
 import com.digihealth.backend.repository.AdminSettingsRepository;
 import com.digihealth.backend.repository.AppointmentRepository;
 import com.digihealth.backend.repository.AuditLogRepository;
@@ -11,6 +12,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -58,8 +61,9 @@ class AdminControllerSecurityTest {
     @WithMockUser(username = "admin@digihealth.com", roles = {"ADMIN"})
     @DisplayName("Admin endpoints allow ADMIN role")
     void adminEndpoints_allowAdmin() throws Exception {
-        Mockito.when(userRepository.findAll()).thenReturn(List.of());
-        mockMvc.perform(get("/api/admin/doctors"))
+        Mockito.when(userRepository.findAdminUsers(Mockito.eq(Role.DOCTOR), Mockito.isNull(), Mockito.any(Pageable.class)))
+                .thenReturn(Page.empty());
+        mockMvc.perform(get("/api/admin/doctors/page"))
                 .andExpect(status().isOk());
     }
 
@@ -68,7 +72,7 @@ class AdminControllerSecurityTest {
     @DisplayName("Admin endpoints deny non-ADMIN roles")
     void adminEndpoints_denyNonAdmin() throws Exception {
         Mockito.when(userRepository.findAll()).thenReturn(List.of());
-        mockMvc.perform(get("/api/admin/doctors"))
+        mockMvc.perform(get("/api/admin/doctors/page"))
                 .andExpect(status().isForbidden());
     }
 }
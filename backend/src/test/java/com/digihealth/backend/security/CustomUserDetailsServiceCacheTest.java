@@ -0,0 +1,91 @@
+package com.digihealth.backend.security;
+
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.entity.User;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.PatientRepository;
+import com.digihealth.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.DisabledException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Spy
+    private PrincipalCache principalCache = new PrincipalCache();
+
+    @InjectMocks
+    private CustomUserDetailsService service;
+
+    private User doctorUser;
+    private UUID doctorId;
+
+    @BeforeEach
+    void setUp() {
+        doctorUser = new User();
+        doctorUser.setId(UUID.randomUUID());
+        doctorUser.setEmail("doctor@digihealth.com");
+        doctorUser.setRole(Role.DOCTOR);
+        doctorUser.setIsActive(true);
+        doctorUser.setIsApproved(true);
+        doctorId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Principal is resolved once and then served from the cache")
+    void loadUserById_cachesPrincipal() {
+        when(userRepository.findById(doctorUser.getId())).thenReturn(Optional.of(doctorUser));
+        when(doctorRepository.findDoctorIdByUserId(doctorUser.getId())).thenReturn(Optional.of(doctorId));
+
+        UserPrincipal first = (UserPrincipal) service.loadUserById(doctorUser.getId());
+        UserPrincipal second = (UserPrincipal) service.loadUserById(doctorUser.getId());
+
+        assertSame(first, second);
+        assertEquals("doctor@digihealth.com", second.getUsername());
+        assertEquals(doctorId, second.getDoctorId());
+        assertNull(second.getPatientId());
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_DOCTOR")));
+        verify(userRepository, times(1)).findById(doctorUser.getId());
+        verifyNoInteractions(patientRepository);
+        assertEquals(1L, principalCache.stats().get("hits"));
+        assertEquals(1L, principalCache.stats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("Invalidation forces a reload, so deactivation takes effect immediately")
+    void invalidate_reloadsAndRejectsDeactivated() {
+        when(userRepository.findById(doctorUser.getId())).thenReturn(Optional.of(doctorUser));
+        when(doctorRepository.findDoctorIdByUserId(doctorUser.getId())).thenReturn(Optional.of(doctorId));
+        service.loadUserById(doctorUser.getId());
+
+        doctorUser.setIsActive(false);
+        principalCache.invalidate(doctorUser.getId());
+
+        assertThrows(DisabledException.class, () -> service.loadUserById(doctorUser.getId()));
+        // The deactivated principal is cached too, so rejected tokens don't hit the database
+        assertThrows(DisabledException.class, () -> service.loadUserById(doctorUser.getId()));
+        verify(userRepository, times(2)).findById(doctorUser.getId());
+    }
+}
@@ -0,0 +1,75 @@
+package com.digihealth.backend.security;
+
+import com.digihealth.backend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider provider;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", "digihealth-test-secret-that-is-long-enough-for-hs512-signing-keys!!");
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 60_000);
+        user = new User();
+        user.setId(UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("verify returns typed claims and caches them per token")
+    void verify_returnsCachedClaims() {
+        String token = provider.generateTokenFromUser(user);
+
+        JwtClaims claims = provider.verify(token);
+        assertNotNull(claims);
+        assertEquals(user.getId(), claims.getUserId());
+        assertTrue(claims.getExpiresAt().isAfter(claims.getIssuedAt()));
+        assertSame(claims, provider.verify(token));
+    }
+
+    @Test
+    @DisplayName("Tampered and expired tokens are rejected")
+    void verify_rejectsInvalidTokens() {
+        String token = provider.generateTokenFromUser(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertNull(provider.verify(tampered));
+        assertNull(provider.verify("not-a-jwt"));
+
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", -1000);
+        assertNull(provider.verify(provider.generateTokenFromUser(user)));
+    }
+
+    @Test
+    @DisplayName("Stateless mode embeds the principal in the token")
+    void statelessPrincipal_claimsAndRevocation() {
+        ReflectionTestUtils.setField(provider, "statelessPrincipal", true);
+        user.setEmail("patient@digihealth.com");
+        user.setRole(com.digihealth.backend.entity.Role.PATIENT);
+        UUID patientId = UUID.randomUUID();
+
+        JwtClaims claims = provider.verify(provider.generateTokenFromUser(user, null, patientId));
+        UserPrincipal principal = claims.toPrincipal();
+        assertNotNull(principal);
+        assertEquals(user.getId(), principal.getId());
+        assertEquals("patient@digihealth.com", principal.getUsername());
+        assertEquals(patientId, principal.getPatientId());
+        assertNull(principal.getDoctorId());
+        assertTrue(principal.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_PATIENT")));
+    }
+
+    @Test
+    @DisplayName("Tokens carry no principal claims unless stateless mode is enabled")
+    void defaultMode_subjectOnly() {
+        JwtClaims claims = provider.verify(provider.generateTokenFromUser(user, UUID.randomUUID(), null));
+        assertNull(claims.toPrincipal());
+    }
+}
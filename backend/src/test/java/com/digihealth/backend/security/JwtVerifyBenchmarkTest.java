@@ -0,0 +1,100 @@
+package com.digihealth.backend.security;
+
+import com.digihealth.backend.entity.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-request cost of the token step in {@link JwtAuthenticationFilter}, three ways:
+ * the old validateToken + getUserIdFromJWT pair, which built a parser and checked the
+ * signature twice; a {@link JwtTokenProvider#verify} whose claims are not cached yet; and
+ * a verify of a token seen before. Skipped unless run with -Djwt.bench.iterations=N;
+ * -Djwt.bench.tokens=N sets how many distinct tokens are rotated through.
+ */
+@EnabledIfSystemProperty(named = "jwt.bench.iterations", matches = "\\d+")
+class JwtVerifyBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtVerifyBenchmarkTest.class);
+
+    private static final int ITERATIONS = Integer.getInteger("jwt.bench.iterations", 0);
+    private static final int TOKENS = Integer.getInteger("jwt.bench.tokens", 64);
+
+    // 64+ bytes, so the provider uses it as the HS512 key as is and the baseline can rebuild it
+    private static final String SECRET = "digihealth-benchmark-secret-that-is-long-enough-for-hs512-signing-keys";
+
+    private long sink;
+
+    @Test
+    @DisplayName("One verify() costs less than the double parse it replaced, cached or not")
+    void verify_versusDoubleParse() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < TOKENS; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            tokens.add(provider.generateTokenFromUser(user));
+        }
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Map<?, ?> verified = (Map<?, ?>) ReflectionTestUtils.getField(provider, "verified");
+
+        ToIntFunction<String> doubleParse = token -> {
+            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject().hashCode();
+        };
+        ToIntFunction<String> verifyMiss = token -> {
+            // Emptying a one-entry map is noise next to the parse it forces
+            verified.clear();
+            return provider.verify(token).getUserId().hashCode();
+        };
+        ToIntFunction<String> verifyHit = token -> provider.verify(token).getUserId().hashCode();
+
+        // Same work as measured, so each path is compiled before any of them is timed
+        run(tokens, doubleParse);
+        run(tokens, verifyMiss);
+        run(tokens, verifyHit);
+
+        double baselineNanos = run(tokens, doubleParse);
+        double missNanos = run(tokens, verifyMiss);
+        tokens.forEach(provider::verify);
+        double hitNanos = run(tokens, verifyHit);
+
+        log.info("JWT token step over {} requests, {} tokens: double parse {} us, verify miss {} us, verify hit {} us",
+                ITERATIONS, TOKENS, micros(baselineNanos), micros(missNanos), micros(hitNanos));
+        assertNotEquals(0, sink);
+        assertTrue(missNanos < baselineNanos, "verify() without a cached entry should beat two parses");
+        assertTrue(hitNanos < missNanos, "a cached verify() should beat a signature check");
+    }
+
+    /**
+     * Average nanoseconds per call over ITERATIONS calls, rotating through the tokens.
+     */
+    private double run(List<String> tokens, ToIntFunction<String> step) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += step.applyAsInt(tokens.get(i % tokens.size()));
+        }
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+
+    private static String micros(double nanos) {
+        return String.format("%.2f", nanos / 1000);
+    }
+}
@@ -0,0 +1,86 @@
+package com.digihealth.backend.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StompAuthChannelInterceptorTest {
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @InjectMocks
+    private StompAuthChannelInterceptor interceptor;
+
+    private Message<byte[]> frame(StompCommand command, String authorization, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Authentication authenticated(String role) {
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "user@digihealth.test", role, true, true, null, null);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("CONNECT with a valid token binds the session to the user's email")
+    void connect_validToken_setsUser() {
+        JwtClaims claims = mock(JwtClaims.class);
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "dr.reyes@digihealth.test", "DOCTOR", true, true, UUID.randomUUID(), null);
+        when(tokenProvider.verify("good")).thenReturn(claims);
+        when(userDetailsService.loadUserFromClaims(claims)).thenReturn(principal);
+
+        Message<?> out = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer good", null, null), null);
+
+        Principal user = StompHeaderAccessor.wrap(out).getUser();
+        assertNotNull(user);
+        assertEquals("dr.reyes@digihealth.test", user.getName());
+    }
+
+    @Test
+    @DisplayName("CONNECT without a valid token is refused")
+    void connect_missingOrInvalidToken_rejected() {
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null, null, null), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer expired", null, null), null));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Only admins may subscribe to the admin appointment topic; own queues are open to all")
+    void subscribe_adminTopicRestricted() {
+        assertThrows(MessagingException.class, () -> interceptor.preSend(
+                frame(StompCommand.SUBSCRIBE, null, "/topic/admin/appointments", authenticated("PATIENT")), null));
+        assertNotNull(interceptor.preSend(
+                frame(StompCommand.SUBSCRIBE, null, "/topic/admin/appointments", authenticated("ADMIN")), null));
+        assertNotNull(interceptor.preSend(
+                frame(StompCommand.SUBSCRIBE, null, "/user/queue/appointments", authenticated("PATIENT")), null));
+    }
+}
@@ -0,0 +1,180 @@
+package com.digihealth.backend.security;
+
+import com.digihealth.backend.entity.TokenRevocation;
+import com.digihealth.backend.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenylistTest {
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @InjectMocks
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(denylist, "jwtExpirationInMs", 3_600_000L);
+    }
+
+    private JwtClaims claims(UUID userId, Instant issuedAt) {
+        Claims claims = Jwts.claims().setSubject(userId.toString());
+        claims.setIssuedAt(Date.from(issuedAt));
+        claims.setExpiration(Date.from(issuedAt.plusSeconds(3600)));
+        return new JwtClaims(claims);
+    }
+
+    @Test
+    @DisplayName("Revoking persists a watermark and rejects tokens issued up to it")
+    void revokeUser_rejectsOlderTokens() {
+        UUID userId = UUID.randomUUID();
+        Instant issued = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(30);
+        assertFalse(denylist.isRevoked(claims(userId, issued)));
+
+        denylist.revokeUser(userId);
+
+        verify(tokenRevocationRepository).save(any(TokenRevocation.class));
+        assertTrue(denylist.isRevoked(claims(userId, issued)));
+        assertFalse(denylist.isRevoked(claims(userId, Instant.now().plusSeconds(5))));
+        assertFalse(denylist.isRevoked(claims(UUID.randomUUID(), issued)));
+    }
+
+    @Test
+    @DisplayName("Startup rebuild and periodic sync pick up revocations from the table")
+    void rebuildAndSync_loadPersistedRows() {
+        UUID early = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        when(tokenRevocationRepository.findByRevokedBeforeAfter(any()))
+                .thenReturn(List.of(new TokenRevocation(early, now)))
+                .thenReturn(List.of(new TokenRevocation(later, now)));
+
+        denylist.rebuild();
+        assertTrue(denylist.isRevoked(claims(early, now.minusSeconds(1))));
+        assertFalse(denylist.isRevoked(claims(later, now.minusSeconds(1))));
+
+        denylist.sync();
+        assertTrue(denylist.isRevoked(claims(later, now.minusSeconds(1))));
+    }
+
+    @Test
+    @DisplayName("Purge drops revocations older than the token lifetime")
+    void purgeExpired_dropsOldWatermarks() {
+        UUID userId = UUID.randomUUID();
+        Instant old = Instant.now().minus(2, ChronoUnit.HOURS);
+        when(tokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of(new TokenRevocation(userId, old)));
+        denylist.rebuild();
+        assertTrue(denylist.isRevoked(claims(userId, old.minusSeconds(1))));
+
+        denylist.purgeExpired();
+
+        verify(tokenRevocationRepository).deleteExpired(any());
+        assertFalse(denylist.isRevoked(claims(userId, old.minusSeconds(1))));
+    }
+
+    @Test
+    @DisplayName("A revocation recorded while a rebuild is loading the table survives the rebuild")
+    void revokeDuringRebuild_isKept() throws Exception {
+        UUID persisted = UUID.randomUUID();
+        UUID revokedMeanwhile = UUID.randomUUID();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch revoked = new CountDownLatch(1);
+        // The rows were read before the concurrent revocation was saved, so they do not include it
+        when(tokenRevocationRepository.findByRevokedBeforeAfter(any())).thenAnswer(inv -> {
+            loading.countDown();
+            assertTrue(revoked.await(5, TimeUnit.SECONDS));
+            return List.of(new TokenRevocation(persisted, now));
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> rebuild = pool.submit(denylist::rebuild);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        denylist.revokeUser(revokedMeanwhile);
+        revoked.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertTrue(denylist.isRevoked(claims(persisted, now.minusSeconds(1))));
+        assertTrue(denylist.isRevoked(claims(revokedMeanwhile, now.minusSeconds(1))));
+    }
+
+    @Test
+    @DisplayName("Revocations made while purges swap in new filters are never lost from the filter")
+    void revokeDuringPurge_staysInFilter() throws Exception {
+        ReflectionTestUtils.setField(denylist, "expectedUsers", 64);
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            users.add(UUID.randomUUID());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread purger = new Thread(() -> {
+            while (running.get()) {
+                denylist.purgeExpired();
+            }
+        });
+        purger.start();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> revocations = new ArrayList<>();
+        for (UUID user : users) {
+            revocations.add(pool.submit(() -> denylist.revokeUser(user)));
+        }
+        for (Future<?> f : revocations) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        purger.join();
+        pool.shutdown();
+
+        Instant issued = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(30);
+        users.forEach(user -> assertTrue(denylist.isRevoked(claims(user, issued)), "lost revocation of " + user));
+    }
+
+    @Test
+    @DisplayName("Bloom filter never misses an added id and rarely matches others")
+    void bloomFilter_noFalseNegatives() {
+        UserIdBloomFilter filter = new UserIdBloomFilter(1000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            filter.add(id);
+            added.add(id);
+        }
+        added.forEach(id -> assertTrue(filter.mightContain(id)));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
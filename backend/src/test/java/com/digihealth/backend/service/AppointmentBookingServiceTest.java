@@ -0,0 +1,307 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.AppointmentFeedDto;
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import com.digihealth.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentBookingServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Mock
+    private DashboardSummaryCache dashboardSummaryCache;
+
+    @Mock
+    private CareRelationshipIndex careRelationshipIndex;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private DoctorEventFeed doctorEventFeed;
+
+    @InjectMocks
+    private AppointmentBookingService service;
+
+    private Doctor buildDoctor() {
+        Doctor d = new Doctor();
+        d.setDoctorId(UUID.randomUUID());
+        return d;
+    }
+
+    private Appointment buildAppointment(Doctor doctor, LocalDate date, LocalTime time) {
+        Patient patient = new Patient();
+        patient.setPatientId(UUID.randomUUID());
+        Appointment a = new Appointment();
+        a.setAppointmentId(UUID.randomUUID());
+        a.setDoctor(doctor);
+        a.setPatient(patient);
+        a.setAppointmentDate(date);
+        a.setAppointmentTime(time);
+        a.setStatus(AppointmentStatus.SCHEDULED);
+        return a;
+    }
+
+    @Test
+    @DisplayName("Booking storm on one doctor-day produces exactly one appointment per slot")
+    void book_concurrentStorm_noDuplicates() throws Exception {
+        Doctor doctor = buildDoctor();
+        LocalDate date = LocalDate.now().plusDays(3);
+        List<LocalTime> slots = List.of(LocalTime.of(9, 0), LocalTime.of(9, 30), LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        // Non-atomic fake table: the read and the write are separated by a pause, so without
+        // the service's locking concurrent bookers would all see the slot as free.
+        List<Appointment> table = new CopyOnWriteArrayList<>();
+        when(appointmentRepository.existsByDoctorAndAppointmentDateAndAppointmentTimeAndStatusNot(
+                any(Doctor.class), any(LocalDate.class), any(LocalTime.class), eq(AppointmentStatus.CANCELLED)))
+                .thenAnswer(inv -> {
+                    LocalTime time = inv.getArgument(2);
+                    boolean exists = table.stream().anyMatch(a -> a.getAppointmentTime().equals(time));
+                    Thread.sleep(1);
+                    return exists;
+                });
+        when(appointmentRepository.save(ArgumentMatchers.any(Appointment.class))).thenAnswer(inv -> {
+            Appointment a = inv.getArgument(0);
+            table.add(a);
+            return a;
+        });
+
+        int requests = 400;
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger taken = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            LocalTime time = slots.get(i % slots.size());
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    service.book(buildAppointment(doctor, date, time));
+                } catch (SlotTakenException e) {
+                    taken.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Map<LocalTime, Integer> perSlot = new ConcurrentHashMap<>();
+        table.forEach(a -> perSlot.merge(a.getAppointmentTime(), 1, Integer::sum));
+        assertEquals(slots.size(), table.size());
+        slots.forEach(t -> assertEquals(1, perSlot.get(t)));
+        assertEquals(requests - slots.size(), taken.get());
+    }
+
+    @Test
+    @DisplayName("Unique slot constraint violation from another node is reported as slot taken")
+    void book_constraintViolation_reportsSlotTaken() {
+        Doctor doctor = buildDoctor();
+        Appointment appt = buildAppointment(doctor, LocalDate.now().plusDays(1), LocalTime.of(11, 0));
+        when(appointmentRepository.existsByDoctorAndAppointmentDateAndAppointmentTimeAndStatusNot(
+                any(Doctor.class), any(LocalDate.class), any(LocalTime.class), eq(AppointmentStatus.CANCELLED)))
+                .thenReturn(false);
+        when(appointmentRepository.save(appt)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Duplicate entry for key 'appointments.uk_appointments_doctor_slot'")));
+
+        assertThrows(SlotTakenException.class, () -> service.book(appt));
+    }
+
+    @Test
+    @DisplayName("Unrelated integrity violations are not masked as slot taken")
+    void book_otherConstraintViolation_propagates() {
+        Doctor doctor = buildDoctor();
+        Appointment appt = buildAppointment(doctor, LocalDate.now().plusDays(1), LocalTime.of(11, 0));
+        when(appointmentRepository.existsByDoctorAndAppointmentDateAndAppointmentTimeAndStatusNot(
+                any(Doctor.class), any(LocalDate.class), any(LocalTime.class), eq(AppointmentStatus.CANCELLED)))
+                .thenReturn(false);
+        when(appointmentRepository.save(appt)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Column 'patient_id' cannot be null")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.book(appt));
+    }
+
+    @Test
+    @DisplayName("Cascade cancel updates all of a doctor's future slots in one statement and frees them in the index")
+    void cancelScheduledForDoctor_bulkUpdate() {
+        UUID doctorId = UUID.randomUUID();
+        UUID doctorUserId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        AppointmentRepository.SlotRef first = slotRef(doctorId, doctorUserId, today, LocalTime.of(9, 0));
+        AppointmentRepository.SlotRef second = slotRef(doctorId, doctorUserId, today.plusDays(1), LocalTime.of(14, 30));
+        when(appointmentRepository.lockSlotsByDoctorFrom(doctorId, today, AppointmentStatus.SCHEDULED))
+                .thenReturn(List.of(first, second));
+
+        List<UUID> cancelled = service.cancelScheduledForDoctor(doctorId, today);
+
+        assertEquals(List.of(first.getAppointmentId(), second.getAppointmentId()), cancelled);
+        verify(appointmentRepository).cancelAll(eq(cancelled), any());
+        verify(slotAvailabilityIndex).release(doctorUserId, today, LocalTime.of(9, 0));
+        verify(slotAvailabilityIndex).release(doctorUserId, today.plusDays(1), LocalTime.of(14, 30));
+        verify(dashboardSummaryCache, atLeastOnce()).invalidate(doctorId);
+        verify(doctorEventFeed).publish(doctorId, AppointmentFeedDto.cancelled(first.getAppointmentId(), today, LocalTime.of(9, 0)));
+        verify(doctorEventFeed).publish(doctorId, AppointmentFeedDto.cancelled(second.getAppointmentId(), today.plusDays(1), LocalTime.of(14, 30)));
+        verify(appointmentRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Cascade cancel with nothing to cancel issues no update")
+    void cancelScheduledForPatient_nothingToCancel() {
+        UUID patientId = UUID.randomUUID();
+        when(appointmentRepository.lockSlotsByPatientFrom(any(), any(), any())).thenReturn(List.of());
+
+        assertTrue(service.cancelScheduledForPatient(patientId, LocalDate.now()).isEmpty());
+        verify(appointmentRepository, never()).cancelAll(any(), any());
+    }
+
+    @Test
+    @DisplayName("Status change queues the patient notification with the saved appointment")
+    void updateStatus_enqueuesNotification() {
+        Appointment appointment = buildAppointment(buildDoctor(), LocalDate.now().plusDays(1), LocalTime.of(9, 0));
+        when(appointmentRepository.save(appointment)).thenReturn(appointment);
+
+        Appointment saved = service.updateStatus(appointment, AppointmentStatus.CONFIRMED);
+
+        assertEquals(AppointmentStatus.CONFIRMED, saved.getStatus());
+        verify(notificationOutbox).enqueueStatusChange(appointment);
+    }
+
+    @Test
+    @DisplayName("A committed change is published to the doctor's dashboard feed with its saved version")
+    void update_publishesToDoctorFeed() {
+        Doctor doctor = buildDoctor();
+        Appointment appointment = buildAppointment(doctor, LocalDate.now(), LocalTime.of(9, 0));
+        when(appointmentRepository.save(appointment)).thenAnswer(inv -> {
+            appointment.setVersion(4L);
+            return appointment;
+        });
+
+        service.update(appointment, a -> a.setStatus(AppointmentStatus.COMPLETED));
+
+        ArgumentCaptor<AppointmentFeedDto> change = ArgumentCaptor.forClass(AppointmentFeedDto.class);
+        verify(doctorEventFeed).publish(eq(doctor.getDoctorId()), change.capture());
+        assertEquals(appointment.getAppointmentId().toString(), change.getValue().getId());
+        assertEquals("COMPLETED", change.getValue().getStatus());
+        assertEquals("09:00", change.getValue().getTime());
+        assertEquals(4L, change.getValue().getVersion());
+    }
+
+    @Test
+    @DisplayName("Inside a transaction the slot and care indexes are only updated after commit, and not at all on rollback")
+    void book_updatesSlotIndexAfterCommitOnly() {
+        Doctor doctor = buildDoctor();
+        Appointment committed = buildAppointment(doctor, LocalDate.now().plusDays(1), LocalTime.of(9, 0));
+        Appointment rolledBack = buildAppointment(doctor, LocalDate.now().plusDays(1), LocalTime.of(9, 30));
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        inTransaction(() -> service.book(committed), true);
+        verify(slotAvailabilityIndex).occupy(committed);
+        verify(careRelationshipIndex).record(committed);
+
+        inTransaction(() -> service.book(rolledBack), false);
+        verify(slotAvailabilityIndex, never()).occupy(rolledBack);
+        verify(careRelationshipIndex, never()).record(rolledBack);
+    }
+
+    @Test
+    @DisplayName("Moving an appointment frees and takes slots in the index only after commit")
+    void update_moveUpdatesSlotIndexAfterCommitOnly() {
+        Doctor doctor = buildDoctor();
+        LocalDate day = LocalDate.now().plusDays(1);
+        Appointment appointment = buildAppointment(doctor, day, LocalTime.of(9, 0));
+        when(appointmentRepository.save(appointment)).thenReturn(appointment);
+
+        inTransaction(() -> service.update(appointment, a -> a.setAppointmentTime(LocalTime.of(10, 0))), false);
+        verify(slotAvailabilityIndex, never()).release(any(Doctor.class), any(LocalDate.class), any(LocalTime.class));
+        verify(slotAvailabilityIndex, never()).occupy(any(Appointment.class));
+
+        appointment.setAppointmentTime(LocalTime.of(9, 0));
+        inTransaction(() -> service.update(appointment, a -> a.setAppointmentTime(LocalTime.of(10, 0))), true);
+        verify(slotAvailabilityIndex).release(doctor, day, LocalTime.of(9, 0));
+        verify(slotAvailabilityIndex).occupy(appointment);
+    }
+
+    /**
+     * Run the action with transaction synchronization active, then complete it as committed or rolled back.
+     */
+    private static void inTransaction(Runnable action, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            synchronizations.forEach(s -> s.afterCompletion(commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private AppointmentRepository.SlotRef slotRef(UUID doctorId, UUID doctorUserId, LocalDate date, LocalTime time) {
+        UUID id = UUID.randomUUID();
+        return new AppointmentRepository.SlotRef() {
+            public UUID getAppointmentId() {
+                return id;
+            }
+
+            public UUID getDoctorId() {
+                return doctorId;
+            }
+
+            public UUID getDoctorUserId() {
+                return doctorUserId;
+            }
+
+            public LocalDate getAppointmentDate() {
+                return date;
+            }
+
+            public LocalTime getAppointmentTime() {
+                return time;
+            }
+        };
+    }
+}
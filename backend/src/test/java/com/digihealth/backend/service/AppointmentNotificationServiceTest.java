@@ -0,0 +1,65 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.AppointmentEventDto;
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import com.digihealth.backend.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentNotificationServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private AppointmentNotificationService service;
+
+    @Test
+    @DisplayName("Status change goes to the doctor's and patient's own queues and the admin topic, as a delta")
+    void notify_targetsParticipantsWithDelta() {
+        User doctorUser = new User();
+        doctorUser.setEmail("dr.reyes@digihealth.test");
+        Doctor doctor = new Doctor();
+        doctor.setUser(doctorUser);
+        User patientUser = new User();
+        patientUser.setEmail("ana.cruz@patients.test");
+        Patient patient = new Patient();
+        patient.setUser(patientUser);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setStatus(AppointmentStatus.CONFIRMED);
+        appointment.setVersion(3L);
+
+        service.notifyAppointmentStatusChange(appointment);
+
+        AppointmentEventDto expected = new AppointmentEventDto(appointment.getAppointmentId(), AppointmentStatus.CONFIRMED, 3L);
+        verify(messagingTemplate).convertAndSendToUser("dr.reyes@digihealth.test", "/queue/appointments", expected);
+        verify(messagingTemplate).convertAndSendToUser("ana.cruz@patients.test", "/queue/appointments", expected);
+        ArgumentCaptor<Object> adminPayload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/admin/appointments"), adminPayload.capture());
+        assertEquals(expected, adminPayload.getValue());
+        // Nothing goes to the old every-client topic
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/appointments"), any(Object.class));
+        verify(messagingTemplate, times(2)).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+}
@@ -0,0 +1,89 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.AdminSettings;
+import com.digihealth.backend.repository.AdminSettingsRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPolicyTest {
+
+    @Mock
+    private AdminSettingsRepository adminSettingsRepository;
+
+    @InjectMocks
+    private BookingPolicy bookingPolicy;
+
+    private AdminSettings settings(int slotMinutes, long version) {
+        AdminSettings s = new AdminSettings();
+        s.setId(1L);
+        s.setAppointmentSlotMinutes(slotMinutes);
+        s.setSettingsVersion(version);
+        return s;
+    }
+
+    @Test
+    @DisplayName("Snapshot is loaded once and served without further queries")
+    void current_loadsOnce() {
+        when(adminSettingsRepository.findById(1L)).thenReturn(Optional.of(settings(15, 3)));
+
+        assertEquals(15, bookingPolicy.current().getSlotMinutes());
+        assertEquals(15, bookingPolicy.current().getSlotMinutes());
+        verify(adminSettingsRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Invalid or missing values fall back to defaults")
+    void snapshot_validatesValues() {
+        AdminSettings s = settings(0, 1);
+        s.setMinAdvanceHours(-5);
+        s.setMaxAdvanceDays(null);
+
+        BookingPolicy.Snapshot snapshot = BookingPolicy.Snapshot.of(s);
+        assertEquals(30, snapshot.getSlotMinutes());
+        assertEquals(24, snapshot.getMinAdvanceHours());
+        assertEquals(90, snapshot.getMaxAdvanceDays());
+    }
+
+    @Test
+    @DisplayName("Saving bumps the version and swaps the snapshot in")
+    void save_publishesNewSnapshot() {
+        AdminSettings incoming = settings(20, 0);
+        incoming.setSettingsVersion(null);
+        when(adminSettingsRepository.findSettingsVersion(1L)).thenReturn(Optional.of(4L), Optional.of(5L));
+        when(adminSettingsRepository.save(incoming)).thenReturn(incoming);
+
+        AdminSettings saved = bookingPolicy.save(incoming);
+
+        verify(adminSettingsRepository).incrementSettingsVersion(1L);
+        assertEquals(5L, saved.getSettingsVersion());
+        assertEquals(20, bookingPolicy.current().getSlotMinutes());
+        assertEquals(5L, bookingPolicy.current().getVersion());
+        verify(adminSettingsRepository, never()).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Poll reloads only when another node changed the version")
+    void poll_reloadsOnVersionChange() {
+        when(adminSettingsRepository.findById(1L)).thenReturn(Optional.of(settings(30, 1)), Optional.of(settings(45, 2)));
+        bookingPolicy.current();
+
+        when(adminSettingsRepository.findSettingsVersion(1L)).thenReturn(Optional.of(1L));
+        bookingPolicy.pollForChanges();
+        assertEquals(30, bookingPolicy.current().getSlotMinutes());
+
+        when(adminSettingsRepository.findSettingsVersion(1L)).thenReturn(Optional.of(2L));
+        bookingPolicy.pollForChanges();
+        assertEquals(45, bookingPolicy.current().getSlotMinutes());
+        verify(adminSettingsRepository, times(2)).findById(1L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import com.digihealth.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CareRelationshipIndexTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private CareRelationshipIndex index;
+
+    @Test
+    @DisplayName("A confirmed relationship is learned once and then answered from memory")
+    void isRelated_learnsPositives() {
+        UUID doctorId = UUID.randomUUID();
+        UUID patientId = UUID.randomUUID();
+        when(appointmentRepository.existsByDoctorDoctorIdAndPatientPatientId(doctorId, patientId)).thenReturn(true);
+
+        assertTrue(index.isRelated(doctorId, patientId));
+        assertTrue(index.isRelated(doctorId, patientId));
+        verify(appointmentRepository, times(1)).existsByDoctorDoctorIdAndPatientPatientId(doctorId, patientId);
+    }
+
+    @Test
+    @DisplayName("Negatives are re-checked; a recorded booking needs no query")
+    void isRelated_negativesNotCached_bookingsRecorded() {
+        UUID doctorId = UUID.randomUUID();
+        UUID patientId = UUID.randomUUID();
+        when(appointmentRepository.existsByDoctorDoctorIdAndPatientPatientId(doctorId, patientId)).thenReturn(false);
+
+        assertFalse(index.isRelated(doctorId, patientId));
+        assertFalse(index.isRelated(doctorId, patientId));
+        verify(appointmentRepository, times(2)).existsByDoctorDoctorIdAndPatientPatientId(doctorId, patientId);
+
+        Doctor doctor = new Doctor();
+        doctor.setDoctorId(doctorId);
+        Patient patient = new Patient();
+        patient.setPatientId(patientId);
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        index.record(appointment);
+
+        assertTrue(index.isRelated(doctorId, patientId));
+        verify(appointmentRepository, times(2)).existsByDoctorDoctorIdAndPatientPatientId(doctorId, patientId);
+    }
+
+    @Test
+    @DisplayName("When full, only the least recently checked pair is dropped")
+    void full_evictsLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(index, "maxEntries", 2);
+        UUID doctorId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(appointmentRepository.existsByDoctorDoctorIdAndPatientPatientId(eq(doctorId), any(UUID.class))).thenReturn(true);
+
+        index.isRelated(doctorId, first);
+        index.isRelated(doctorId, second);
+        index.isRelated(doctorId, first);
+        index.isRelated(doctorId, third);
+
+        index.isRelated(doctorId, first);
+        index.isRelated(doctorId, third);
+        verify(appointmentRepository, times(1)).existsByDoctorDoctorIdAndPatientPatientId(doctorId, first);
+        verify(appointmentRepository, times(1)).existsByDoctorDoctorIdAndPatientPatientId(doctorId, third);
+
+        index.isRelated(doctorId, second);
+        verify(appointmentRepository, times(2)).existsByDoctorDoctorIdAndPatientPatientId(doctorId, second);
+    }
+}
@@ -0,0 +1,205 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.DashboardSummaryDto;
+import com.digihealth.backend.dto.DoctorAppointmentDto;
+import com.digihealth.backend.dto.DoctorPatientDto;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.UserRepository;
+import com.digihealth.backend.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private DashboardSummaryCache dashboardSummaryCache = new DashboardSummaryCache();
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private UUID doctorId;
+
+    @BeforeEach
+    void setUp() {
+        doctorId = UUID.randomUUID();
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "doctor@digihealth.com", "DOCTOR", true, true, doctorId, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private AppointmentRepository.StatusCount statusCount(AppointmentStatus status, long total) {
+        return new AppointmentRepository.StatusCount() {
+            public AppointmentStatus getStatus() {
+                return status;
+            }
+
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Summary comes from aggregate queries and is cached until invalidated")
+    void summary_aggregatesAndCaches() {
+        LocalDate today = LocalDate.now();
+        when(appointmentRepository.countDistinctPatientsByDoctor(doctorId)).thenReturn(42L);
+        when(appointmentRepository.countByDoctorAndDateGroupByStatus(doctorId, today)).thenReturn(List.of(
+                statusCount(AppointmentStatus.CONFIRMED, 3), statusCount(AppointmentStatus.SCHEDULED, 2)));
+
+        DashboardSummaryDto summary = dashboardService.getDashboardSummaryForCurrentDoctor();
+        assertEquals(42L, summary.getTotalPatients());
+        assertEquals(3L, summary.getTodayConfirmed());
+        assertEquals(2L, summary.getTodayPending());
+        assertEquals(0L, summary.getTodayCompleted());
+
+        assertSame(summary, dashboardService.getDashboardSummaryForCurrentDoctor());
+        verify(appointmentRepository, times(1)).countDistinctPatientsByDoctor(doctorId);
+
+        dashboardSummaryCache.invalidate(doctorId);
+        dashboardService.getDashboardSummaryForCurrentDoctor();
+        verify(appointmentRepository, times(2)).countDistinctPatientsByDoctor(doctorId);
+        verify(appointmentRepository, never()).findByDoctor(any());
+        verifyNoInteractions(doctorRepository, userRepository);
+    }
+
+    @Test
+    @DisplayName("A summary computed across an invalidation is served but not cached")
+    void summary_invalidatedWhileComputing_isNotCached() {
+        LocalDate today = LocalDate.now();
+        when(appointmentRepository.countDistinctPatientsByDoctor(doctorId)).thenReturn(42L);
+        when(appointmentRepository.countByDoctorAndDateGroupByStatus(doctorId, today)).thenAnswer(inv -> {
+            // A booking commits after the counts were read
+            dashboardSummaryCache.invalidate(doctorId);
+            return List.of(statusCount(AppointmentStatus.CONFIRMED, 3));
+        });
+
+        assertEquals(3L, dashboardService.getDashboardSummaryForCurrentDoctor().getTodayConfirmed());
+
+        assertNull(dashboardSummaryCache.get(doctorId, today));
+        dashboardService.getDashboardSummaryForCurrentDoctor();
+        verify(appointmentRepository, times(2)).countDistinctPatientsByDoctor(doctorId);
+    }
+
+    @Test
+    @DisplayName("Roster search is pushed to the query as an escaped prefix, or an id when the query is one")
+    void roster_searchAndPaging() {
+        UUID patientId = UUID.randomUUID();
+        AppointmentRepository.RosterRow row = new AppointmentRepository.RosterRow() {
+            public UUID getPatientId() {
+                return patientId;
+            }
+
+            public String getFullName() {
+                return "Ana Reyes";
+            }
+
+            public String getPhoneNumber() {
+                return "0917";
+            }
+
+            public String getEmail() {
+                return "ana@example.com";
+            }
+
+            public LocalDate getLastVisit() {
+                return LocalDate.of(2026, 1, 5);
+            }
+        };
+        PageRequest pr = PageRequest.of(1, 10);
+        when(appointmentRepository.findPatientRoster(doctorId, "an\\_a%", null, pr))
+                .thenReturn(new PageImpl<>(List.of(row), pr, 11));
+
+        Page<DoctorPatientDto> page = dashboardService.searchPatientsForCurrentDoctor(" an_a ", pr);
+        assertEquals(11, page.getTotalElements());
+        assertEquals("Ana Reyes", page.getContent().get(0).getName());
+        assertEquals("2026-01-05", page.getContent().get(0).getLastVisit());
+
+        when(appointmentRepository.findPatientRoster(doctorId, patientId + "%", patientId, pr))
+                .thenReturn(new PageImpl<>(List.of(row), pr, 11));
+        assertEquals(patientId.toString(),
+                dashboardService.searchPatientsForCurrentDoctor(patientId.toString(), pr).getContent().get(0).getId());
+        verify(appointmentRepository, never()).findByDoctor(any());
+    }
+
+    @Test
+    @DisplayName("Appointment lists are mapped from one projection query without touching entities")
+    void appointments_fromProjection() {
+        UUID appointmentId = UUID.randomUUID();
+        UUID patientId = UUID.randomUUID();
+        AppointmentRepository.AppointmentRow row = new AppointmentRepository.AppointmentRow() {
+            public UUID getAppointmentId() {
+                return appointmentId;
+            }
+
+            public LocalDate getAppointmentDate() {
+                return LocalDate.of(2026, 2, 3);
+            }
+
+            public java.time.LocalTime getAppointmentTime() {
+                return java.time.LocalTime.of(14, 30);
+            }
+
+            public AppointmentStatus getStatus() {
+                return AppointmentStatus.CONFIRMED;
+            }
+
+            public UUID getPatientId() {
+                return patientId;
+            }
+
+            public String getPatientName() {
+                return null;
+            }
+
+            public String getDoctorName() {
+                return "Dr. Cruz";
+            }
+        };
+        when(appointmentRepository.findRowsByDoctor(doctorId)).thenReturn(List.of(row));
+
+        DoctorAppointmentDto dto = dashboardService.getAppointmentsForCurrentDoctor().get(0);
+        assertEquals("2026-02-03 14:30", dto.getStartDateTime());
+        assertEquals("Patient " + patientId.toString().substring(0, 8), dto.getPatientName());
+        assertEquals("Dr. Cruz", dto.getDoctorName());
+        assertEquals("CONFIRMED", dto.getStatus());
+        verify(appointmentRepository, never()).findByDoctor(any());
+        verifyNoInteractions(doctorRepository);
+    }
+}
@@ -0,0 +1,244 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.AppointmentFeedDto;
+import com.digihealth.backend.dto.DashboardSummaryDto;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorEventFeedTest {
+
+    private static final UUID DOCTOR = UUID.randomUUID();
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private DoctorEventFeed feed;
+
+    private MockMvc mockMvc;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @RestController
+    class StreamController {
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+            return feed.subscribe(DOCTOR, lastEventId);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        feed.sender = Runnable::run;
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController()).build();
+        DashboardSummaryDto summary = new DashboardSummaryDto();
+        summary.setTodayConfirmed(2);
+        lenient().when(dashboardService.getDashboardSummary(DOCTOR)).thenReturn(summary);
+    }
+
+    private MvcResult open(String lastEventId) throws Exception {
+        return mockMvc.perform(lastEventId == null ? get("/stream") : get("/stream").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static AppointmentFeedDto change(String status) {
+        return new AppointmentFeedDto(UUID.randomUUID().toString(), LocalDate.now(), "09:00", "Ana Cruz", status, 1L);
+    }
+
+    private static List<String> events(MvcResult result, String name) throws Exception {
+        List<String> ids = new ArrayList<>();
+        Matcher m = Pattern.compile("id:(\\S+)\nevent:" + name + "\n").matcher(result.getResponse().getContentAsString());
+        while (m.find()) {
+            ids.add(m.group(1));
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("A new stream gets the current summary, then each change and the summary after it")
+    void subscribe_thenPublish_streamsChangeAndSummary() throws Exception {
+        MvcResult stream = open(null);
+        assertTrue(stream.getResponse().getContentAsString().contains("event:summary\ndata:{\"totalPatients\":0,\"todayConfirmed\":2"));
+
+        feed.publish(DOCTOR, change("CONFIRMED"));
+
+        String body = stream.getResponse().getContentAsString();
+        assertEquals(List.of(feed.eventId(1)), events(stream, "appointment"));
+        assertTrue(body.contains("\"status\":\"CONFIRMED\""));
+        assertEquals(2, body.split("event:summary").length - 1);
+    }
+
+    @Test
+    @DisplayName("Reconnecting with Last-Event-ID replays only the events after it")
+    void resume_replaysMissedEventsOnly() throws Exception {
+        feed.publish(DOCTOR, change("SCHEDULED"));
+        feed.publish(DOCTOR, change("CONFIRMED"));
+        feed.publish(DOCTOR, change("COMPLETED"));
+
+        MvcResult stream = open(feed.eventId(1));
+
+        assertEquals(List.of(feed.eventId(2), feed.eventId(3)), events(stream, "appointment"));
+        assertTrue(events(stream, "reset").isEmpty());
+        assertEquals(1L, feed.stats().get("resumed"));
+    }
+
+    @Test
+    @DisplayName("An id that left the ring, or comes from another process, gets a reset instead of a partial replay")
+    void resume_tooOldOrForeign_resets() throws Exception {
+        ReflectionTestUtils.setField(feed, "bufferSize", 2);
+        for (int i = 0; i < 5; i++) {
+            feed.publish(DOCTOR, change("SCHEDULED"));
+        }
+
+        MvcResult evicted = open(feed.eventId(1));
+        MvcResult foreign = open("0abc-4");
+
+        for (MvcResult stream : List.of(evicted, foreign)) {
+            assertEquals(List.of(feed.eventId(5)), events(stream, "reset"));
+            assertTrue(events(stream, "appointment").isEmpty());
+        }
+        assertEquals(2L, feed.stats().get("resets"));
+    }
+
+    @Test
+    @DisplayName("A burst of changes costs one summary query per flush")
+    void burst_coalescesSummary() throws Exception {
+        feed.sender = queued::add;
+        MvcResult stream = open(null);
+        for (int i = 0; i < 10; i++) {
+            feed.publish(DOCTOR, change("CONFIRMED"));
+        }
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+
+        assertEquals(10, events(stream, "appointment").size());
+        verify(dashboardService, times(1)).getDashboardSummary(DOCTOR);
+    }
+
+    private static AppointmentRepository.FeedChange row(UUID id, AppointmentStatus status, long version) {
+        return new AppointmentRepository.FeedChange() {
+            public UUID getAppointmentId() {
+                return id;
+            }
+
+            public UUID getDoctorId() {
+                return DOCTOR;
+            }
+
+            public LocalDate getAppointmentDate() {
+                return LocalDate.of(2026, 10, 17);
+            }
+
+            public LocalTime getAppointmentTime() {
+                return LocalTime.of(9, 0);
+            }
+
+            public AppointmentStatus getStatus() {
+                return status;
+            }
+
+            public String getPatientName() {
+                return "Ana Cruz";
+            }
+
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("A change made on another node is read back from the database and streamed once")
+    void sync_streamsOtherNodesChangesOnce() throws Exception {
+        MvcResult stream = open(null);
+        UUID id = UUID.randomUUID();
+        when(appointmentRepository.findFeedChangesSince(eq(List.of(DOCTOR)), any(LocalDateTime.class)))
+                .thenReturn(List.of(row(id, AppointmentStatus.CONFIRMED, 2)));
+
+        feed.syncFromDatabase();
+        feed.syncFromDatabase();
+
+        assertEquals(List.of(feed.eventId(1)), events(stream, "appointment"));
+        assertTrue(stream.getResponse().getContentAsString().contains("\"id\":\"" + id + "\""));
+        assertEquals(1L, feed.stats().get("synced"));
+    }
+
+    @Test
+    @DisplayName("Changes already published here, including versionless bulk cancels, are not repeated by the sync")
+    void sync_skipsChangesPublishedHere() throws Exception {
+        MvcResult stream = open(null);
+        UUID confirmed = UUID.randomUUID();
+        UUID cancelled = UUID.randomUUID();
+        AppointmentFeedDto local = change("CONFIRMED");
+        local.setId(confirmed.toString());
+        local.setVersion(3L);
+        feed.publish(DOCTOR, local);
+        feed.publish(DOCTOR, AppointmentFeedDto.cancelled(cancelled, LocalDate.of(2026, 10, 17), LocalTime.of(10, 0)));
+        when(appointmentRepository.findFeedChangesSince(eq(List.of(DOCTOR)), any(LocalDateTime.class)))
+                .thenReturn(List.of(row(confirmed, AppointmentStatus.CONFIRMED, 3), row(cancelled, AppointmentStatus.CANCELLED, 1),
+                        row(confirmed, AppointmentStatus.COMPLETED, 4)));
+
+        feed.syncFromDatabase();
+
+        assertEquals(List.of(feed.eventId(1), feed.eventId(2), feed.eventId(3)), events(stream, "appointment"));
+        assertTrue(stream.getResponse().getContentAsString().contains("\"status\":\"COMPLETED\""));
+        assertEquals(1L, feed.stats().get("synced"));
+    }
+
+    @Test
+    @DisplayName("Without open streams the sync does not query")
+    void sync_withoutSubscribers_skipsQuery() {
+        feed.publish(DOCTOR, change("CONFIRMED"));
+
+        feed.syncFromDatabase();
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    @DisplayName("Bulk cancellations carry only the slot and status")
+    void cancelledChange_hasNoPatientOrVersion() {
+        UUID id = UUID.randomUUID();
+        AppointmentFeedDto dto = AppointmentFeedDto.cancelled(id, LocalDate.of(2026, 10, 17), LocalTime.of(14, 30));
+        assertEquals(id.toString(), dto.getId());
+        assertEquals("14:30", dto.getTime());
+        assertEquals("CANCELLED", dto.getStatus());
+        assertNull(dto.getPatientName());
+        assertNull(dto.getVersion());
+    }
+}
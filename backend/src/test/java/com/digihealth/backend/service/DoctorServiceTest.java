@@ -0,0 +1,150 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.WorkingHoursDto;
+import com.digihealth.backend.entity.DayOfWeek;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.DoctorWorkDay;
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.entity.User;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.DoctorWorkDayRepository;
+import com.digihealth.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorServiceTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorWorkDayRepository doctorWorkDayRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @InjectMocks
+    private DoctorService doctorService;
+
+    private User user;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("doctor@digihealth.com");
+        user.setRole(Role.DOCTOR);
+        doctor = new Doctor();
+        doctor.setDoctorId(UUID.randomUUID());
+        doctor.setUser(user);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user.getEmail(), null, List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"))));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(doctorRepository.findByUser(user)).thenReturn(Optional.of(doctor));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private DoctorWorkDay stored(DayOfWeek day, String start, String end) {
+        DoctorWorkDay wd = new DoctorWorkDay();
+        wd.setId(UUID.randomUUID());
+        wd.setDoctor(doctor);
+        wd.setWorkDay(day);
+        wd.setAvailableStartTime(start);
+        wd.setAvailableEndTime(end);
+        return wd;
+    }
+
+    private WorkingHoursDto hours(String... dayStartEnd) {
+        List<String> days = new ArrayList<>();
+        Map<String, WorkingHoursDto.TimeRange> ranges = new HashMap<>();
+        for (int i = 0; i < dayStartEnd.length; i += 3) {
+            WorkingHoursDto.TimeRange range = new WorkingHoursDto.TimeRange();
+            range.setStartTime(dayStartEnd[i + 1]);
+            range.setEndTime(dayStartEnd[i + 2]);
+            days.add(dayStartEnd[i]);
+            ranges.put(dayStartEnd[i], range);
+        }
+        WorkingHoursDto dto = new WorkingHoursDto();
+        dto.setWorkDays(days);
+        dto.setWorkHours(ranges);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Only changed, added and removed days are written, and only those weekdays are evicted")
+    void updateWorkingHours_writesDiffOnly() {
+        DoctorWorkDay monday = stored(DayOfWeek.MON, "09:00", "17:00");
+        DoctorWorkDay tuesday = stored(DayOfWeek.TUE, "09:00", "17:00");
+        DoctorWorkDay friday = stored(DayOfWeek.FRI, "09:00", "12:00");
+        when(doctorWorkDayRepository.findByDoctor(doctor)).thenReturn(List.of(monday, tuesday, friday));
+
+        doctorService.updateWorkingHours(hours(
+                "Monday", "09:00", "17:00",
+                "Tuesday", "10:00", "15:00",
+                "Wednesday", "08:00", "12:00"));
+
+        // Monday untouched, Tuesday updated in place on the managed row
+        assertEquals("09:00", monday.getAvailableStartTime());
+        assertEquals("10:00", tuesday.getAvailableStartTime());
+        assertEquals("15:00", tuesday.getAvailableEndTime());
+
+        verify(doctorWorkDayRepository).deleteAllInBatch(List.of(friday));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DoctorWorkDay>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(doctorWorkDayRepository).saveAll(inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+        assertEquals(DayOfWeek.WED, inserted.getValue().get(0).getWorkDay());
+        assertEquals("08:00", inserted.getValue().get(0).getAvailableStartTime());
+
+        verify(slotAvailabilityIndex).workingHoursChanged(eq(user.getId()), anyIterable(),
+                eq(EnumSet.of(DayOfWeek.TUE, DayOfWeek.WED, DayOfWeek.FRI)));
+        verify(slotAvailabilityIndex, never()).evictDoctor(any());
+    }
+
+    @Test
+    @DisplayName("Saving identical hours issues no writes and keeps the availability cache")
+    void updateWorkingHours_unchangedIsNoOp() {
+        when(doctorWorkDayRepository.findByDoctor(doctor)).thenReturn(List.of(
+                stored(DayOfWeek.MON, "09:00", "17:00"), stored(DayOfWeek.THU, "13:00", "18:00")));
+
+        doctorService.updateWorkingHours(hours("Monday", "09:00", "17:00", "Thursday", "13:00", "18:00"));
+
+        verify(doctorWorkDayRepository, never()).deleteAllInBatch(anyIterable());
+        verify(doctorWorkDayRepository, never()).saveAll(anyIterable());
+        verifyNoInteractions(slotAvailabilityIndex);
+    }
+}
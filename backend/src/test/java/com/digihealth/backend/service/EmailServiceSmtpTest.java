@@ -0,0 +1,168 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.Patient;
+import com.digihealth.backend.entity.User;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.mail.Message;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EmailService against an in-process SMTP server: batching over pooled connections, the
+ * per-domain rate and the rendered status update as it arrives.
+ */
+@SpringBootTest(classes = {EmailService.class, SmtpConnectionPool.class, MailDomainRateLimiter.class}, properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "digihealth.mail.per-domain-per-minute=5",
+        "digihealth.mail.pool.max-connections=2"
+})
+@ImportAutoConfiguration(MailSenderAutoConfiguration.class)
+class EmailServiceSmtpTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SmtpConnectionPool connectionPool;
+
+    private MimeMessage mail(String to) throws Exception {
+        MimeMessage message = new MimeMessage((Session) null);
+        message.setFrom(new InternetAddress("noreply@digihealth.test"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("Reminder");
+        message.setText("See you tomorrow");
+        return message;
+    }
+
+    private MimeMessage[] mails(String domain, int count, int offset) {
+        return IntStream.range(offset, offset + count).mapToObj(i -> {
+            try {
+                return mail("patient" + i + "@" + domain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).toArray(MimeMessage[]::new);
+    }
+
+    @Test
+    @DisplayName("Consecutive batches are delivered over one reused SMTP connection")
+    void batches_reuseConnection() throws Exception {
+        long opened = connectionPool.getConnectionsOpened();
+
+        EmailService.BatchResult first = emailService.send(mails("clinic-a.test", 4, 0));
+        EmailService.BatchResult second = emailService.send(mails("clinic-b.test", 4, 0));
+
+        assertEquals(0, first.failedCount() + first.deferredCount());
+        assertEquals(0, second.failedCount() + second.deferredCount());
+        assertTrue(greenMail.waitForIncomingEmail(5000, 8));
+        assertEquals(8, greenMail.getReceivedMessages().length);
+        assertEquals(1, connectionPool.getConnectionsOpened() - opened);
+    }
+
+    @Test
+    @DisplayName("Messages over a domain's rate are deferred, not sent and not failed")
+    void rateLimit_defersOverflow() throws Exception {
+        MimeMessage[] burst = mails("busy-provider.test", 7, 0);
+
+        EmailService.BatchResult result = emailService.send(burst);
+
+        assertEquals(2, result.deferredCount());
+        assertEquals(0, result.failedCount());
+        assertTrue(result.isDeferred(burst[5]) && result.isDeferred(burst[6]));
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        assertEquals(5, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    @DisplayName("A connection dropped by the server is replaced instead of failing the batch")
+    void droppedConnection_reconnects() throws Exception {
+        emailService.send(mails("clinic-c.test", 1, 0));
+        long opened = connectionPool.getConnectionsOpened();
+
+        // Restarting the server cuts the pooled connection
+        greenMail.reset();
+        EmailService.BatchResult result = emailService.send(mails("clinic-c.test", 2, 1));
+
+        assertEquals(0, result.failedCount());
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        assertEquals(1, connectionPool.getConnectionsOpened() - opened);
+    }
+
+    @Test
+    @DisplayName("Status update arrives addressed to the patient with the rendered template")
+    void statusUpdate_endToEnd() throws Exception {
+        User patientUser = new User();
+        patientUser.setEmail("ana.cruz@patients.test");
+        patientUser.setFullName("Ana Cruz");
+        Patient patient = new Patient();
+        patient.setUser(patientUser);
+        User doctorUser = new User();
+        doctorUser.setFullName("Dr. Reyes");
+        Doctor doctor = new Doctor();
+        doctor.setUser(doctorUser);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentDate(LocalDate.of(2026, 10, 20));
+        appointment.setAppointmentTime(LocalTime.of(9, 30));
+
+        EmailService.BatchResult result = emailService.send(
+                emailService.statusUpdateMessage(appointment, AppointmentStatus.CONFIRMED));
+
+        assertEquals(0, result.failedCount());
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("ana.cruz@patients.test", received.getAllRecipients()[0].toString());
+        assertEquals("Appointment Status Update - DigiHealth", received.getSubject());
+        String body = GreenMailUtil.getBody(received);
+        assertTrue(body.contains("Dear Ana Cruz,"));
+        assertTrue(body.contains("updated to CONFIRMED"));
+        assertTrue(body.contains("Time: 09:30"));
+        assertTrue(body.contains("Doctor: Dr. Reyes"));
+    }
+
+    @Test
+    @DisplayName("Missing names and slot details get neutral wording instead of failing the message")
+    void statusUpdate_missingValuesUseDefaults() throws Exception {
+        User patientUser = new User();
+        patientUser.setEmail("no.name@patients.test");
+        Patient patient = new Patient();
+        patient.setUser(patientUser);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(UUID.randomUUID());
+        appointment.setPatient(patient);
+        appointment.setDoctor(new Doctor());
+
+        MimeMessage message = emailService.statusUpdateMessage(appointment, AppointmentStatus.CANCELLED);
+
+        String body = (String) message.getContent();
+        assertTrue(body.contains("Dear Patient,"));
+        assertTrue(body.contains("Date: to be confirmed"));
+        assertTrue(body.contains("Doctor: your doctor"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.digihealth.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailDomainRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private MailDomainRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new MailDomainRateLimiter();
+        ReflectionTestUtils.setField(limiter, "perMinute", 6);
+        limiter.clock = now::get;
+    }
+
+    @Test
+    @DisplayName("An idle domain can take a full minute's allowance at once, then has to wait")
+    void burstThenLimited() {
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire("example.com"));
+        }
+        assertFalse(limiter.tryAcquire("example.com"));
+    }
+
+    @Test
+    @DisplayName("Allowance comes back at the configured rate")
+    void refillsOverTime() {
+        for (int i = 0; i < 6; i++) {
+            limiter.tryAcquire("example.com");
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertFalse(limiter.tryAcquire("example.com"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(limiter.tryAcquire("example.com"));
+        assertFalse(limiter.tryAcquire("example.com"));
+    }
+
+    @Test
+    @DisplayName("Domains are limited independently and case-insensitively")
+    void perDomain() {
+        for (int i = 0; i < 6; i++) {
+            limiter.tryAcquire("Example.com");
+        }
+        assertFalse(limiter.tryAcquire("example.COM"));
+        assertTrue(limiter.tryAcquire("other.org"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.digihealth.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailTemplateTest {
+
+    @Test
+    @DisplayName("Placeholders are replaced; text around them, including at the edges, is kept")
+    void render() {
+        MailTemplate template = MailTemplate.compile("{{greeting}}, {{ name }}!\nSee you at {{time}}");
+
+        assertEquals("Hello, Ana!\nSee you at 09:30",
+                template.render(Map.of("greeting", "Hello", "name", "Ana", "time", "09:30")));
+    }
+
+    @Test
+    @DisplayName("A missing value is an error rather than a blank in a patient's email")
+    void missingValue() {
+        MailTemplate template = MailTemplate.compile("Dear {{name}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+
+    @Test
+    @DisplayName("An unclosed placeholder is rejected when compiling")
+    void unclosed() {
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("Dear {{name"));
+    }
+
+    @Test
+    @DisplayName("The status update template compiles and uses every value it is given")
+    void statusUpdateTemplate() {
+        String body = MailTemplate.load("mail/status-update.txt").render(Map.of(
+                "patientName", "Ana Cruz", "appointmentId", "a-1", "status", "CONFIRMED",
+                "date", "2026-10-20", "time", "09:30", "doctorName", "Dr. Reyes"));
+
+        assertTrue(body.startsWith("Dear Ana Cruz,"));
+        assertTrue(body.contains("updated to CONFIRMED"));
+        assertTrue(body.contains("Doctor: Dr. Reyes"));
+        assertFalse(body.contains("{{"));
+    }
+}
@@ -0,0 +1,221 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.OutboxMessage;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @InjectMocks
+    private NotificationOutbox outbox;
+
+    private Appointment appointment() {
+        Appointment a = new Appointment();
+        a.setAppointmentId(UUID.randomUUID());
+        a.setStatus(AppointmentStatus.CONFIRMED);
+        return a;
+    }
+
+    private OutboxMessage message(Appointment appointment, int attempts) {
+        OutboxMessage m = new OutboxMessage();
+        m.setId(UUID.randomUUID());
+        m.setAppointmentId(appointment.getAppointmentId());
+        m.setAppointmentStatus(AppointmentStatus.CONFIRMED);
+        m.setAttempts(attempts);
+        return m;
+    }
+
+    private void claim(List<OutboxMessage> messages, List<Appointment> appointments) {
+        when(outboxMessageRepository.claimDue(any(), any(), any(), anyInt())).thenReturn(messages.size());
+        when(outboxMessageRepository.findByClaimToken(any())).thenReturn(messages);
+        when(appointmentRepository.findWithParticipantsByIdIn(any())).thenReturn(appointments);
+    }
+
+    private MimeMessage mailFor(Appointment appointment) throws Exception {
+        MimeMessage mail = new MimeMessage(Session.getInstance(new Properties()));
+        when(emailService.statusUpdateMessage(appointment, AppointmentStatus.CONFIRMED)).thenReturn(mail);
+        return mail;
+    }
+
+    @Test
+    @DisplayName("Enqueue records the appointment's current status as due now")
+    void enqueue_recordsStatus() {
+        Appointment appointment = appointment();
+
+        outbox.enqueueStatusChange(appointment);
+
+        ArgumentCaptor<OutboxMessage> saved = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxMessageRepository).save(saved.capture());
+        assertEquals(appointment.getAppointmentId(), saved.getValue().getAppointmentId());
+        assertEquals(AppointmentStatus.CONFIRMED, saved.getValue().getAppointmentStatus());
+        assertNotNull(saved.getValue().getNextAttemptAt());
+    }
+
+    @Test
+    @DisplayName("Nothing due means no lookups and no mail")
+    void dispatch_nothingDue() {
+        when(outboxMessageRepository.claimDue(any(), any(), any(), anyInt())).thenReturn(0);
+
+        assertEquals(0, outbox.dispatch());
+        verifyNoInteractions(appointmentRepository, emailService);
+    }
+
+    @Test
+    @DisplayName("A claimed batch loads its appointments in one query and marks delivered messages sent together")
+    @SuppressWarnings("unchecked")
+    void dispatch_sendsBatch() throws Exception {
+        Appointment first = appointment();
+        Appointment second = appointment();
+        OutboxMessage m1 = message(first, 0);
+        OutboxMessage m2 = message(second, 0);
+        claim(List.of(m1, m2), List.of(first, second));
+        MimeMessage mail1 = mailFor(first);
+        MimeMessage mail2 = mailFor(second);
+        // Both messages go to the mail server in one call
+        when(emailService.send(mail1, mail2)).thenReturn(new EmailService.BatchResult());
+
+        assertEquals(2, outbox.dispatch());
+
+        verify(appointmentRepository, times(1)).findWithParticipantsByIdIn(any());
+        ArgumentCaptor<Collection<UUID>> sent = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxMessageRepository).markSent(sent.capture(), any());
+        assertEquals(List.of(m1.getId(), m2.getId()), List.copyOf(sent.getValue()));
+        verify(outboxMessageRepository, never()).markRetry(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("A failed send is retried later with backoff; the rest of the batch still goes out")
+    void dispatch_failureSchedulesRetry() throws Exception {
+        Appointment failing = appointment();
+        Appointment ok = appointment();
+        OutboxMessage m1 = message(failing, 2);
+        OutboxMessage m2 = message(ok, 0);
+        claim(List.of(m1, m2), List.of(failing, ok));
+        MimeMessage failingMail = mailFor(failing);
+        MimeMessage okMail = mailFor(ok);
+        EmailService.BatchResult result = new EmailService.BatchResult();
+        result.fail(failingMail, new MailSendException("connection refused"));
+        when(emailService.send(failingMail, okMail)).thenReturn(result);
+
+        LocalDateTime before = LocalDateTime.now();
+        outbox.dispatch();
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxMessageRepository).markRetry(eq(m1.getId()), next.capture(), contains("connection refused"));
+        // Third attempt: 30s * 2^2 = 120s, plus at most 20% jitter
+        assertFalse(next.getValue().isBefore(before.plusSeconds(120)));
+        assertTrue(next.getValue().isBefore(before.plusSeconds(145)));
+        verify(outboxMessageRepository).markSent(eq(List.of(m2.getId())), any());
+        verify(outboxMessageRepository, never()).markDead(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("A message that keeps failing is dead-lettered after the last attempt")
+    void dispatch_deadLettersAfterMaxAttempts() throws Exception {
+        Appointment appointment = appointment();
+        OutboxMessage m = message(appointment, 7);
+        claim(List.of(m), List.of(appointment));
+        MimeMessage mail = mailFor(appointment);
+        EmailService.BatchResult result = new EmailService.BatchResult();
+        result.fail(mail, new MailSendException("mailbox unavailable"));
+        when(emailService.send(mail)).thenReturn(result);
+
+        outbox.dispatch();
+
+        verify(outboxMessageRepository).markDead(eq(m.getId()), contains("mailbox unavailable"), any());
+        verify(outboxMessageRepository, never()).markRetry(any(), any(), any());
+        verify(outboxMessageRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    @DisplayName("A message that cannot be built is dead-lettered at once instead of retried")
+    void dispatch_buildFailureIsPermanent() throws Exception {
+        Appointment appointment = appointment();
+        OutboxMessage m = message(appointment, 0);
+        claim(List.of(m), List.of(appointment));
+        when(emailService.statusUpdateMessage(appointment, AppointmentStatus.CONFIRMED))
+                .thenThrow(new IllegalArgumentException("No value for placeholder clinicName"));
+
+        outbox.dispatch();
+
+        verify(outboxMessageRepository).markDead(eq(m.getId()), contains("clinicName"), any());
+        verify(outboxMessageRepository, never()).markRetry(any(), any(), any());
+        verify(emailService, never()).send(any());
+    }
+
+    @Test
+    @DisplayName("Messages held back by the domain rate are put back without using an attempt")
+    void dispatch_rateLimitedAreDeferred() throws Exception {
+        Appointment appointment = appointment();
+        OutboxMessage m = message(appointment, 3);
+        claim(List.of(m), List.of(appointment));
+        MimeMessage mail = mailFor(appointment);
+        EmailService.BatchResult result = new EmailService.BatchResult();
+        result.defer(mail);
+        when(emailService.send(mail)).thenReturn(result);
+
+        LocalDateTime before = LocalDateTime.now();
+        outbox.dispatch();
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxMessageRepository).defer(eq(List.of(m.getId())), next.capture());
+        assertFalse(next.getValue().isBefore(before.plusSeconds(30)));
+        verify(outboxMessageRepository, never()).markRetry(any(), any(), any());
+        verify(outboxMessageRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    @DisplayName("Messages for deleted appointments are dead-lettered without sending")
+    void dispatch_missingAppointment() {
+        OutboxMessage m = message(appointment(), 0);
+        claim(List.of(m), List.of());
+
+        outbox.dispatch();
+
+        verify(outboxMessageRepository).markDead(eq(m.getId()), anyString(), any());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    @DisplayName("Backoff doubles per attempt and stops at the cap")
+    void backoff_growsAndCaps() {
+        assertTrue(outbox.backoffSeconds(1) >= 30 && outbox.backoffSeconds(1) <= 36);
+        assertTrue(outbox.backoffSeconds(4) >= 240 && outbox.backoffSeconds(4) <= 288);
+        assertTrue(outbox.backoffSeconds(30) >= 3600 && outbox.backoffSeconds(30) <= 4320);
+    }
+}
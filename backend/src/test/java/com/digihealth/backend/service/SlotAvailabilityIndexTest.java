@@ -0,0 +1,206 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.dto.DoctorAvailabilityRangeDto;
+import com.digihealth.backend.entity.AdminSettings;
+import com.digihealth.backend.entity.Appointment;
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.DayOfWeek;
+import com.digihealth.backend.entity.Doctor;
+import com.digihealth.backend.entity.DoctorWorkDay;
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.entity.User;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.DoctorRepository;
+import com.digihealth.backend.repository.DoctorWorkDayRepository;
+import com.digihealth.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotAvailabilityIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorWorkDayRepository doctorWorkDayRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private BookingPolicy bookingPolicy;
+
+    @InjectMocks
+    private SlotAvailabilityIndex index;
+
+    private User user;
+    private Doctor doctor;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setRole(Role.DOCTOR);
+        user.setIsApproved(true);
+
+        doctor = new Doctor();
+        doctor.setDoctorId(UUID.randomUUID());
+        doctor.setUser(user);
+
+        DoctorWorkDay wd = new DoctorWorkDay();
+        wd.setDoctor(doctor);
+        wd.setWorkDay(DayOfWeek.MON);
+        wd.setAvailableStartTime("09:00");
+        wd.setAvailableEndTime("11:00");
+
+        AdminSettings settings = new AdminSettings();
+        settings.setAppointmentSlotMinutes(30);
+
+        monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(doctorRepository.findByUserId(user.getId())).thenReturn(Optional.of(doctor));
+        when(doctorWorkDayRepository.findByDoctor(doctor)).thenReturn(List.of(wd));
+        when(bookingPolicy.current()).thenReturn(BookingPolicy.Snapshot.of(settings));
+    }
+
+    private Appointment appointmentAt(LocalTime time) {
+        Appointment a = new Appointment();
+        a.setDoctor(doctor);
+        a.setAppointmentDate(monday);
+        a.setAppointmentTime(time);
+        a.setStatus(AppointmentStatus.SCHEDULED);
+        return a;
+    }
+
+    private AppointmentRepository.BookedSlot booked(LocalDate date, LocalTime time) {
+        return new AppointmentRepository.BookedSlot() {
+            public LocalDate getAppointmentDate() {
+                return date;
+            }
+
+            public LocalTime getAppointmentTime() {
+                return time;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Loaded day excludes booked slots and is served from memory afterwards")
+    void availableSlots_loadsOnceAndExcludesBooked() {
+        when(appointmentRepository.findBookedSlotsByDoctorBetween(doctor.getDoctorId(), monday, monday, AppointmentStatus.CANCELLED))
+                .thenReturn(List.of(booked(monday, LocalTime.of(9, 30))));
+
+        SlotAvailabilityIndex.DoctorCalendar cal = index.calendar(user.getId());
+        assertEquals(List.of("09:00", "10:00", "10:30"), index.availableSlots(cal, monday));
+        assertEquals(List.of("09:00", "10:00", "10:30"), index.availableSlots(index.calendar(user.getId()), monday));
+
+        verify(userRepository, times(1)).findById(user.getId());
+        verify(appointmentRepository, times(1)).findBookedSlotsByDoctorBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Bookings and cancellations flip the cached slot without reloading")
+    void occupyAndRelease_updateCachedDay() {
+        when(appointmentRepository.findBookedSlotsByDoctorBetween(doctor.getDoctorId(), monday, monday, AppointmentStatus.CANCELLED))
+                .thenReturn(List.of());
+        SlotAvailabilityIndex.DoctorCalendar cal = index.calendar(user.getId());
+        index.availableSlots(cal, monday);
+
+        Appointment booked = appointmentAt(LocalTime.of(10, 0));
+        index.occupy(booked);
+        assertEquals(List.of("09:00", "09:30", "10:30"), index.availableSlots(cal, monday));
+
+        index.release(booked);
+        assertEquals(List.of("09:00", "09:30", "10:00", "10:30"), index.availableSlots(cal, monday));
+
+        verify(appointmentRepository, times(1)).findBookedSlotsByDoctorBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Changed working hours drop cached dates of the affected weekdays only")
+    void workingHoursChanged_evictsAffectedWeekdays() {
+        LocalDate nextMonday = monday.plusWeeks(1);
+        when(appointmentRepository.findBookedSlotsByDoctorBetween(eq(doctor.getDoctorId()), any(), any(), eq(AppointmentStatus.CANCELLED)))
+                .thenReturn(List.of());
+        SlotAvailabilityIndex.DoctorCalendar cal = index.calendar(user.getId());
+        index.availableRange(cal, monday, nextMonday);
+
+        DoctorWorkDay mon = new DoctorWorkDay();
+        mon.setWorkDay(DayOfWeek.MON);
+        mon.setAvailableStartTime("09:00");
+        mon.setAvailableEndTime("11:00");
+        DoctorWorkDay tue = new DoctorWorkDay();
+        tue.setWorkDay(DayOfWeek.TUE);
+        tue.setAvailableStartTime("14:00");
+        tue.setAvailableEndTime("15:00");
+
+        // Tuesday added: Monday bitmaps stay cached
+        index.workingHoursChanged(user.getId(), List.of(mon, tue), Set.of(DayOfWeek.TUE));
+        assertEquals(List.of("09:00", "09:30", "10:00", "10:30"), index.availableSlots(cal, monday));
+        assertEquals(List.of("14:00", "14:30"), index.availableSlots(cal, monday.plusDays(1)));
+        verify(appointmentRepository, times(2)).findBookedSlotsByDoctorBetween(any(), any(), any(), any());
+
+        // Monday shortened: its dates reload against the new hours
+        mon.setAvailableEndTime("10:00");
+        index.workingHoursChanged(user.getId(), List.of(mon, tue), Set.of(DayOfWeek.MON));
+        assertEquals(List.of("09:00", "09:30"), index.availableSlots(cal, monday));
+        assertEquals(List.of("09:00", "09:30"), index.availableSlots(cal, nextMonday));
+        verify(appointmentRepository, times(4)).findBookedSlotsByDoctorBetween(any(), any(), any(), any());
+        verify(doctorWorkDayRepository, times(1)).findByDoctor(doctor);
+    }
+
+    @Test
+    @DisplayName("Days outside the doctor's working week have no slots and no query")
+    void availableSlots_nonWorkingDay_isEmpty() {
+        SlotAvailabilityIndex.DoctorCalendar cal = index.calendar(user.getId());
+
+        assertTrue(index.availableSlots(cal, monday.plusDays(1)).isEmpty());
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    @DisplayName("Range availability loads all uncached working days with one query")
+    void availableRange_singleQueryAndCompactEncoding() {
+        LocalDate nextMonday = monday.plusWeeks(1);
+        when(appointmentRepository.findBookedSlotsByDoctorBetween(doctor.getDoctorId(), monday, nextMonday, AppointmentStatus.CANCELLED))
+                .thenReturn(List.of(booked(monday, LocalTime.of(9, 0)), booked(nextMonday, LocalTime.of(10, 30))));
+
+        SlotAvailabilityIndex.DoctorCalendar cal = index.calendar(user.getId());
+        DoctorAvailabilityRangeDto range = index.availableRange(cal, monday, nextMonday);
+
+        assertEquals(30, range.getSlotMinutes());
+        assertEquals(2, range.getDays().size());
+        assertEquals(monday, range.getDays().get(0).getDate());
+        assertEquals("09:00", range.getDays().get(0).getStart());
+        assertEquals("0111", range.getDays().get(0).getFree());
+        assertEquals("1110", range.getDays().get(1).getFree());
+
+        // Days loaded by the range are cached for single-day lookups
+        assertEquals(List.of("09:30", "10:00", "10:30"), index.availableSlots(cal, monday));
+        verify(appointmentRepository, times(1)).findBookedSlotsByDoctorBetween(any(), any(), any(), any());
+    }
+}
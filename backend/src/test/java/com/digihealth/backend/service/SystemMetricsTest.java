@@ -0,0 +1,88 @@
+package com.digihealth.backend.service;
+
+import com.digihealth.backend.entity.AppointmentStatus;
+import com.digihealth.backend.entity.Role;
+import com.digihealth.backend.repository.AppointmentRepository;
+import com.digihealth.backend.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SystemMetricsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private SystemMetrics systemMetrics;
+
+    private UserRepository.RoleCount roleCount(Role role, long total) {
+        return new UserRepository.RoleCount() {
+            public Role getRole() {
+                return role;
+            }
+
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private AppointmentRepository.StatusCount statusCount(AppointmentStatus status, long total) {
+        return new AppointmentRepository.StatusCount() {
+            public AppointmentStatus getStatus() {
+                return status;
+            }
+
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Snapshot is built from grouped counts and served without further queries")
+    void current_servesSnapshot() {
+        when(userRepository.countUsersByRole()).thenReturn(List.of(roleCount(Role.DOCTOR, 4), roleCount(Role.PATIENT, 120)));
+        when(appointmentRepository.countAppointmentsByStatus()).thenReturn(List.of(
+                statusCount(AppointmentStatus.SCHEDULED, 7), statusCount(AppointmentStatus.COMPLETED, 30)));
+
+        SystemMetrics.Snapshot snapshot = systemMetrics.current();
+        systemMetrics.current();
+
+        assertEquals(4, snapshot.users(Role.DOCTOR));
+        assertEquals(0, snapshot.users(Role.ADMIN));
+        assertEquals(7, snapshot.appointments(AppointmentStatus.SCHEDULED));
+        assertEquals(37, snapshot.totalAppointments());
+        assertTrue(snapshot.isDatabaseHealthy());
+        assertNotNull(snapshot.getRefreshedAt());
+        verify(userRepository, times(1)).countUsersByRole();
+    }
+
+    @Test
+    @DisplayName("Failed refresh keeps the last counts and timestamp but reports the database unhealthy")
+    void refresh_failureKeepsLastCounts() {
+        when(userRepository.countUsersByRole()).thenReturn(List.of(roleCount(Role.PATIENT, 9)));
+        when(appointmentRepository.countAppointmentsByStatus()).thenReturn(List.of());
+        SystemMetrics.Snapshot good = systemMetrics.refresh();
+
+        when(userRepository.countUsersByRole()).thenThrow(new RuntimeException("connection refused"));
+        SystemMetrics.Snapshot failed = systemMetrics.refresh();
+
+        assertFalse(failed.isDatabaseHealthy());
+        assertEquals(9, failed.users(Role.PATIENT));
+        assertEquals(good.getRefreshedAt(), failed.getRefreshedAt());
+    }
+}
@@ -0,0 +1,24 @@
+-- Schema that hibernate.ddl-auto=update created before the migrations existed (exported from the
+-- entities at the last commit before them). Used to check that an existing database baselines and upgrades.
+create table addresses (address_id BINARY(16) not null, city varchar(100), country varchar(100), postal_code varchar(20), state varchar(100), street TEXT, primary key (address_id)) engine=InnoDB;
+create table admin_settings (id bigint not null auto_increment, address varchar(255), allow_new_registrations bit, allow_same_day_booking bit, appointment_slot_minutes integer, auto_confirm_appointments bit, cancel_deadline_hours integer, city varchar(255), clinic_name varchar(255), description varchar(255), email varchar(255), maintenance_mode bit, max_advance_days integer, max_login_attempts integer, min_advance_hours integer, notif_doctor_on_new bit, notif_email bit, notif_on_cancellation bit, notif_patient_on_confirm bit, notif_sms bit, phone varchar(255), reminder_hours_before integer, require_email_verification bit, session_timeout_minutes integer, state varchar(255), zip varchar(255), primary key (id)) engine=InnoDB;
+create table appointments (appointment_id BINARY(16) not null, appointment_date date not null, appointment_time time not null, created_at datetime(6) not null, duration_minutes integer not null, follow_up_date date, follow_up_required bit not null, notes TEXT, status varchar(255) not null, symptoms TEXT, updated_at datetime(6) not null, doctor_id BINARY(16) not null, patient_id BINARY(16) not null, primary key (appointment_id)) engine=InnoDB;
+create table audit_logs (id BINARY(16) not null, actor_user_email varchar(255), created_at datetime(6), operation varchar(255), resource_id varchar(255), resource_type varchar(255), primary key (id)) engine=InnoDB;
+create table doctor_work_days (id BINARY(16) not null, available_end_time varchar(10), available_start_time varchar(10), work_day varchar(255), doctor_id BINARY(16), primary key (id)) engine=InnoDB;
+create table doctors (doctor_id BINARY(16) not null, approval_status varchar(255), bio TEXT, consultation_fee decimal(10,2), experience_years integer, hospital_affiliation varchar(200), license_number varchar(50), specialization varchar(100), address_id BINARY(16), user_id VARCHAR(36), primary key (doctor_id)) engine=InnoDB;
+create table medical_notes (note_id BINARY(16) not null, created_at datetime(6), diagnosis TEXT, note_text TEXT, observations TEXT, prescriptions TEXT, updated_at datetime(6), appointment_id BINARY(16), doctor_id BINARY(16) not null, patient_id BINARY(16) not null, primary key (note_id)) engine=InnoDB;
+create table patients (patient_id BINARY(16) not null, age integer, allergies TEXT, birth_date date, blood_type varchar(3), current_medications TEXT, emergency_contact_name varchar(100), emergency_contact_phone varchar(20), gender varchar(255), medical_conditions TEXT, address_id BINARY(16), user_id VARCHAR(36), primary key (patient_id)) engine=InnoDB;
+create table users (id VARCHAR(36) not null, email varchar(255), full_name varchar(255), is_active bit, is_approved BOOLEAN DEFAULT FALSE not null, license_number varchar(255), password_hash varchar(255), phone_number varchar(255), role varchar(255), specialization varchar(255), primary key (id)) engine=InnoDB;
+alter table doctors add constraint UK_1xu5x0jae737xae254t4rgcd1 unique (license_number);
+alter table doctors add constraint UK_t1f6cueqyjwx5ghew9ar1exe3 unique (user_id);
+alter table patients add constraint UK_9tbsl3fmey0eofbm2xj69v4qs unique (user_id);
+alter table appointments add constraint FKmujeo4tymoo98cmf7uj3vsv76 foreign key (doctor_id) references doctors (doctor_id);
+alter table appointments add constraint FK8exap5wmg8kmb1g1rx3by21yt foreign key (patient_id) references patients (patient_id);
+alter table doctor_work_days add constraint FKcftqk53cdt2v8vuj7l6pjvbva foreign key (doctor_id) references doctors (doctor_id);
+alter table doctors add constraint FKp4iloqqmw98s65wv8761exy6c foreign key (address_id) references addresses (address_id);
+alter table doctors add constraint FKe9pf5qtxxkdyrwibaevo9frtk foreign key (user_id) references users (id);
+alter table medical_notes add constraint FK4r4j3dyjjvvecblhdpxoyy81i foreign key (appointment_id) references appointments (appointment_id);
+alter table medical_notes add constraint FKdm6gqaqpb6olswr473d1i4agc foreign key (doctor_id) references doctors (doctor_id);
+alter table medical_notes add constraint FKb7mch31qd04y1ult7tuajeidd foreign key (patient_id) references patients (patient_id);
+alter table patients add constraint FKjc8017x8ae0rqi11m8jmny646 foreign key (address_id) references addresses (address_id);
+alter table patients add constraint FKuwca24wcd1tg6pjex8lmc0y7 foreign key (user_id) references users (id);
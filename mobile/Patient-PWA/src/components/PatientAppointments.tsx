@@ -69,14 +69,14 @@ export function PatientAppointments({ patient, onNavigate, onLogout }: PatientAp
         const data = await res.json();
         const mapped = (data || []).map((a: any) => ({
           id: a.appointmentId,
-          doctorName: a.doctor?.user?.fullName || 'Doctor',
-          specialization: a.doctor?.user?.specialization || 'General Physician',
+          doctorName: a.doctorName || 'Doctor',
+          specialization: a.specialization || 'General Physician',
           date: a.appointmentDate,
           time: a.appointmentTime,
           type: 'Consultation',
           status: a.status || 'Scheduled',
           location: 'Clinic',
-          doctorImage: `https://api.dicebear.com/7.x/avataaars/svg?seed=${encodeURIComponent(a.doctor?.user?.fullName || 'Doctor')}`,
+          doctorImage: `https://api.dicebear.com/7.x/avataaars/svg?seed=${encodeURIComponent(a.doctorName || 'Doctor')}`,
         }));
         const now = new Date();
         const upcoming = mapped.filter((m: any) => new Date(m.date) >= new Date(now.toISOString().slice(0,10)) && m.status !== 'Cancelled');
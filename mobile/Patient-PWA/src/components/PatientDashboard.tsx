@@ -101,13 +101,13 @@ export function PatientDashboard({ patient, onNavigate, onLogout }: PatientDashb
         .filter((a: any) => a.status !== 'COMPLETED' && a.status !== 'CANCELLED')
         .slice(0, 3) // Show only next 3 appointments
         .map((a: any) => ({
-          id: a.id,
-          doctorName: a.doctor?.user?.fullName || 'Dr. Unknown',
-          specialization: a.doctor?.specialization || 'General Physician',
+          id: a.appointmentId,
+          doctorName: a.doctorName || 'Dr. Unknown',
+          specialization: a.specialization || 'General Physician',
           date: a.appointmentDate,
           time: a.appointmentTime,
-          type: a.reason || 'Consultation',
-          doctorImage: `https://api.dicebear.com/7.x/avataaars/svg?seed=${a.doctor?.user?.fullName || 'Doctor'}`,
+          type: a.notes || 'Consultation',
+          doctorImage: `https://api.dicebear.com/7.x/avataaars/svg?seed=${a.doctorName || 'Doctor'}`,
           status: a.status,
         }));
       
@@ -34,43 +34,43 @@ const AdminAnalytics = ({ nested = false }) => {
       try {
         setLoading(true);
         // Fetch all required data in parallel
-        const [patientsRes, appointmentsRes, doctorsRes] = await Promise.allSettled([
-          apiClient.get('/api/admin/patients'),
-          apiClient.get('/api/admin/appointments'),
-          apiClient.get('/api/admin/doctors')
+        // Only counts are needed, so the listings are asked for a single row and their totals
+        const [statusRes, pendingRes, approvedRes] = await Promise.allSettled([
+          apiClient.get('/api/admin/system-status'),
+          apiClient.get('/api/admin/doctors/pending/page', { params: { size: 1 } }),
+          apiClient.get('/api/admin/doctors/approved/page', { params: { size: 1 } })
         ]);
 
-        const patients = patientsRes.status === 'fulfilled' ? patientsRes.value.data : [];
-        const appointments = appointmentsRes.status === 'fulfilled' ? appointmentsRes.value.data : [];
-        const doctors = doctorsRes.status === 'fulfilled' ? doctorsRes.value.data : [];
+        // Appointment totals come from server-side counts rather than the full appointment history
+        const systemStatus = statusRes.status === 'fulfilled' ? statusRes.value.data : {};
+        const pendingDoctors = pendingRes.status === 'fulfilled' ? pendingRes.value.data?.totalElements || 0 : 0;
+        const approvedDoctors = approvedRes.status === 'fulfilled' ? approvedRes.value.data?.totalElements || 0 : 0;
+        const totalPatients = systemStatus.totalPatients || 0;
 
         // Calculate analytics
-        const approvedDoctors = doctors.filter(d => d.status === 'APPROVED').length;
-        const pendingDoctors = doctors.filter(d => d.status === 'PENDING').length;
-        const scheduledAppointments = appointments.filter(apt =>
-          ['SCHEDULED', 'CONFIRMED', 'Scheduled'].includes(apt.status)
-        ).length;
-        const completedAppointments = appointments.filter(apt => apt.status === 'COMPLETED').length;
-        const avgAppointments = patients.length > 0 ? (appointments.length / patients.length).toFixed(1) : 0;
+        const scheduledAppointments = systemStatus.scheduledAppointments || 0;
+        const completedAppointments = systemStatus.completedAppointments || 0;
+        const totalAppointments = systemStatus.totalAppointments || 0;
+        const avgAppointments = totalPatients > 0 ? (totalAppointments / totalPatients).toFixed(1) : 0;
 
         setAnalyticsData({
           doctors: {
             approved: approvedDoctors,
             pending: pendingDoctors,
-            total: doctors.length
+            total: approvedDoctors + pendingDoctors
           },
           appointments: {
             scheduled: scheduledAppointments,
             completed: completedAppointments,
-            total: appointments.length
+            total: totalAppointments
           },
           patients: {
-            total: patients.length,
+            total: totalPatients,
             avgAppointments: parseFloat(avgAppointments)
           },
           systemHealth: {
-            uptime: appointments.length > 0 ? '98%' : '100%',
-            activeSessions: patients.filter(p => p.lastLoginDate).length || 8,
+            uptime: totalAppointments > 0 ? '98%' : '100%',
+            activeSessions: systemStatus.websocket?.openSessions || 0,
             status: 'Operational'
           }
         });
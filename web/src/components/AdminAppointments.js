@@ -14,6 +14,8 @@ const AdminAppointments = ({ nested = false }) => {
   const [appointments, setAppointments] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // Authentication guard
   useEffect(() => {
@@ -22,22 +24,24 @@ const AdminAppointments = ({ nested = false }) => {
     }
   }, [isAuthenticated, currentUser, authLoading, navigate]);
 
+  const toRow = (apt) => ({
+    id: apt.appointmentId,
+    patientName: apt.patientName || 'Unknown Patient',
+    doctorName: apt.doctorName || 'Unknown Doctor',
+    date: apt.appointmentDate,
+    time: apt.appointmentTime,
+    reason: apt.notes || apt.symptoms || 'Regular consultation',
+    status: apt.status
+  });
+
   const fetchAppointments = useCallback(async () => {
     if (!isAuthenticated || currentUser?.role !== 'ADMIN') return;
 
     try {
       setLoading(true);
       const response = await apiClient.get('/api/admin/appointments');
-      const appointmentsData = response.data.map(apt => ({
-        id: apt.appointmentId,
-        patientName: (apt.patient && apt.patient.user && apt.patient.user.fullName) ? apt.patient.user.fullName : 'Unknown Patient',
-        doctorName: (apt.doctor && apt.doctor.user && apt.doctor.user.fullName) ? apt.doctor.user.fullName : 'Unknown Doctor',
-        date: apt.appointmentDate,
-        time: apt.appointmentTime,
-        reason: apt.notes || apt.symptoms || 'Regular consultation',
-        status: apt.status
-      }));
-      setAppointments(appointmentsData);
+      setAppointments((response.data?.content || []).map(toRow));
+      setNextCursor(response.data?.nextCursor || null);
     } catch (err) {
       // If admin can't access doctor endpoints, use fallback data
       setError('Limited appointment data available');
@@ -62,11 +66,34 @@ const AdminAppointments = ({ nested = false }) => {
     fetchAppointments();
   }, [fetchAppointments]);
 
+  // The feed is cursor-paged, newest first; older appointments are fetched on demand
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const response = await apiClient.get('/api/admin/appointments', { params: { cursor: nextCursor } });
+      setAppointments(prev => [...prev, ...(response.data?.content || []).map(toRow)]);
+      setNextCursor(response.data?.nextCursor || null);
+    } catch (err) {
+      console.error('Error fetching more appointments:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const loadMoreButton = nextCursor && (
+    <div className="load-more">
+      <button type="button" onClick={loadMore} disabled={loadingMore}>
+        {loadingMore ? 'Loading...' : 'Load older appointments'}
+      </button>
+    </div>
+  );
+
   const handleAppointmentUpdate = useCallback(() => {
     fetchAppointments();
   }, [fetchAppointments]);
 
-  useAppointmentUpdates(handleAppointmentUpdate);
+  useAppointmentUpdates(handleAppointmentUpdate, { admin: true });
 
   const handleLogout = () => {
     logout();
@@ -218,6 +245,8 @@ const AdminAppointments = ({ nested = false }) => {
           </table>
         </div>
 
+        {loadMoreButton}
+
         {filteredAppointments.length === 0 && (
           <div className="empty-state">
             <img src="/assets/Admin-assets/Active-Appointments.svg" alt="no appointments" className="empty-icon" />
@@ -345,6 +374,8 @@ const AdminAppointments = ({ nested = false }) => {
             </table>
           </div>
 
+          {loadMoreButton}
+
           {filteredAppointments.length === 0 && (
             <div className="empty-state">
               <img src="/assets/Admin-assets/Active-Appointments.svg" alt="no appointments" className="empty-icon" />
@@ -8,13 +8,16 @@ import AdminAppointments from './AdminAppointments';
 import AdminAnalytics from './AdminAnalytics';
 import './AdminDashboard.css';
 
+// Largest page the admin listing endpoints serve
+const PAGE_SIZE = 100;
+
 const AdminDashboard = () => {
   const navigate = useNavigate();
   const location = useLocation();
   const { currentUser, isAuthenticated, loading: authLoading, logout } = useAuth();
   const [pendingDoctors, setPendingDoctors] = useState([]);
   const [allDoctors, setAllDoctors] = useState([]);
-  const [allPatients, setAllPatients] = useState([]);
+  const [totals, setTotals] = useState({ pending: 0, doctors: 0, patients: 0 });
   const [searchTerm, setSearchTerm] = useState('');
   const [statusFilter, setStatusFilter] = useState('all');
   const [loading, setLoading] = useState(false);
@@ -55,19 +58,23 @@ const AdminDashboard = () => {
     setLoading(true);
     setError('');
     try {
-      const [pendingResponse, approvedResponse, patientsResponse] = await Promise.all([
-        apiClient.get('/api/admin/doctors/pending'),
-        apiClient.get('/api/admin/doctors/approved'),
-        apiClient.get('/api/admin/patients')
+      // Tables show the first page; the stat cards use the server-side totals
+      const [pendingResponse, doctorsResponse, patientsResponse] = await Promise.all([
+        apiClient.get('/api/admin/doctors/pending/page', { params: { size: PAGE_SIZE } }),
+        apiClient.get('/api/admin/doctors/page', { params: { size: PAGE_SIZE } }),
+        apiClient.get('/api/admin/patients/page', { params: { size: 1 } })
       ]);
 
-      const pending = Array.isArray(pendingResponse?.data) ? pendingResponse.data : [];
-      const approved = Array.isArray(approvedResponse?.data) ? approvedResponse.data : [];
-      const patients = Array.isArray(patientsResponse?.data) ? patientsResponse.data : [];
+      const pendingPage = pendingResponse?.data || {};
+      const doctorsPage = doctorsResponse?.data || {};
 
-      setPendingDoctors(pending);
-      setAllDoctors([...(approved || []), ...(pending || [])]);
-      setAllPatients(patients);
+      setPendingDoctors(Array.isArray(pendingPage.content) ? pendingPage.content : []);
+      setAllDoctors(Array.isArray(doctorsPage.content) ? doctorsPage.content : []);
+      setTotals({
+        pending: pendingPage.totalElements || 0,
+        doctors: doctorsPage.totalElements || 0,
+        patients: patientsResponse?.data?.totalElements || 0
+      });
     } catch (err) {
       console.error('Failed to fetch admin data:', err);
       setError('Failed to load data. Please try again.');
@@ -147,13 +154,13 @@ const AdminDashboard = () => {
   const stats = [
     {
       label: 'Total Doctors',
-      value: allDoctors.length.toString(),
-      subtitle: `${pendingDoctors.length} pending approval`,
+      value: totals.doctors.toString(),
+      subtitle: `${totals.pending} pending approval`,
       icon: '/assets/Admin-assets/Doctor-4.svg'
     },
     {
       label: 'Total Patients',
-      value: allPatients.length.toString(),
+      value: totals.patients.toString(),
       subtitle: 'Registered users',
       icon: '/assets/Admin-assets/Total-Patients.svg'
     },
@@ -230,10 +237,10 @@ const AdminDashboard = () => {
       </div>
 
       {/* Alert Banner */}
-      {pendingDoctors.length > 0 && (
+      {totals.pending > 0 && (
         <div className="alert-banner">
           <span className="alert-icon">⚠️</span>
-          <span className="alert-text">You have {pendingDoctors.length} doctor registration{pendingDoctors.length !== 1 ? 's' : ''} pending approval.</span>
+          <span className="alert-text">You have {totals.pending} doctor registration{totals.pending !== 1 ? 's' : ''} pending approval.</span>
         </div>
       )}
 
@@ -350,7 +357,6 @@ const AdminDashboard = () => {
               <p className="section-description">Patient management interface</p>
             </div>
             <AdminPatients
-              patients={allPatients}
               searchTerm={searchTerm}
               setSearchTerm={setSearchTerm}
               statusFilter={statusFilter}
@@ -5,6 +5,8 @@ import apiClient from '../api/client';
 import AdminTabs from './AdminTabs';
 import './AdminPatients.css';
 
+const PAGE_SIZE = 50;
+
 const AdminPatients = ({
   patients: initialPatients = [],
   searchTerm: initialSearchTerm = '',
@@ -22,6 +24,9 @@ const AdminPatients = ({
   const [patients, setPatients] = useState(initialPatients);
   const [loading, setLoading] = useState(!initialPatients.length);
   const [error, setError] = useState('');
+  const [totalPatients, setTotalPatients] = useState(initialPatients.length);
+  const [nextPage, setNextPage] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // Use parent state if provided, otherwise use internal state
   const searchTerm = setParentSearchTerm ? initialSearchTerm : internalSearchTerm;
@@ -69,6 +74,20 @@ const AdminPatients = ({
     }
   }, [isAuthenticated, currentUser, authLoading, navigate]);
 
+  const toRow = (user) => ({
+    id: user.id,
+    name: `${user.firstName || ''} ${user.lastName || user.fullName || ''}`.trim() || 'N/A',
+    email: user.email,
+    phone: user.phoneNumber || 'N/A',
+    age: safeCalculateAge(user.patient?.birthDate),
+    gender: user.patient?.gender || 'N/A',
+    isActive: user.isActive !== undefined ? user.isActive : true,
+    status: user.isActive ? 'Active' : 'Inactive',
+    lastVisit: 'N/A', // TODO: Calculate from appointments
+    registeredDate: new Date(user.createdAt || Date.now()).toLocaleDateString(),
+    appointmentsCount: 0 // TODO: Get from appointments
+  });
+
   // Fetch patients from API if not provided as prop
   useEffect(() => {
         const fetchPatients = async () => {
@@ -76,21 +95,10 @@ const AdminPatients = ({
 
           try {
             setLoading(true);
-            const response = await apiClient.get('/api/admin/patients');
-            const patientsData = response.data.map(user => ({
-              id: user.id,
-              name: `${user.firstName || ''} ${user.lastName || user.fullName || ''}`.trim() || 'N/A',
-              email: user.email,
-              phone: user.phoneNumber || 'N/A',
-              age: calculateAge(user.patient?.birthDate),
-              gender: user.patient?.gender || 'N/A',
-              isActive: user.isActive !== undefined ? user.isActive : true,
-              status: user.isActive ? 'Active' : 'Inactive',
-              lastVisit: 'N/A', // TODO: Calculate from appointments
-              registeredDate: new Date(user.createdAt || Date.now()).toLocaleDateString(),
-              appointmentsCount: 0 // TODO: Get from appointments
-            }));
-            setPatients(patientsData);
+            const response = await apiClient.get('/api/admin/patients/page', { params: { page: 0, size: PAGE_SIZE } });
+            setPatients((response.data?.content || []).map(toRow));
+            setTotalPatients(response.data?.totalElements || 0);
+            setNextPage(response.data?.totalPages > 1 ? 1 : null);
           } catch (err) {
             setError('Failed to load patients data');
             console.error('Error fetching patients:', err);
@@ -102,6 +110,30 @@ const AdminPatients = ({
         fetchPatients();
       }, [isAuthenticated, currentUser, initialPatients.length]);
 
+  // The listing is paged by name; later pages are fetched on demand
+  const loadMore = async () => {
+    if (nextPage === null || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const response = await apiClient.get('/api/admin/patients/page', { params: { page: nextPage, size: PAGE_SIZE } });
+      setPatients(prev => [...prev, ...(response.data?.content || []).map(toRow)]);
+      setTotalPatients(response.data?.totalElements || 0);
+      setNextPage(nextPage + 1 < (response.data?.totalPages || 0) ? nextPage + 1 : null);
+    } catch (err) {
+      console.error('Error fetching more patients:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const loadMoreButton = nextPage !== null && (
+    <div className="load-more">
+      <button type="button" onClick={loadMore} disabled={loadingMore}>
+        {loadingMore ? 'Loading...' : 'Load more patients'}
+      </button>
+    </div>
+  );
+
   const calculateAge = (birthDate) => {
     if (!birthDate) return 'N/A';
     const today = new Date();
@@ -178,7 +210,7 @@ const AdminPatients = ({
   const stats = [
     {
       label: 'Total Patients',
-      value: patients.length.toString(),
+      value: totalPatients.toString(),
       subtitle: `${patients.filter(p => p.status === 'Active').length} active`,
       icon: '/assets/Admin-assets/Total-Patients.svg'
     },
@@ -318,6 +350,7 @@ const AdminPatients = ({
             </tbody>
           </table>
         </div>
+        {loadMoreButton}
 
         {filteredPatients.length === 0 && (
           <div className="empty-state">
@@ -471,6 +504,7 @@ const AdminPatients = ({
               </tbody>
             </table>
           </div>
+          {loadMoreButton}
 
           {filteredPatients.length === 0 && (
             <div className="empty-state">
@@ -2,7 +2,7 @@ import React, { useState, useEffect, useCallback } from 'react';
 import './Dashboard.css';
 import apiClient from '../api/client';
 import { useAuth } from '../auth/auth';
-import { useAppointmentUpdates } from '../hooks/useAppointmentUpdates';
+import { useDashboardFeed } from '../hooks/useDashboardFeed';
 
 const Dashboard = () => {
   const { currentUser } = useAuth();
@@ -51,11 +51,32 @@ const Dashboard = () => {
     fetchData();
   }, [fetchSummary, fetchTodayAppointments]);
 
-  const handleAppointmentUpdate = useCallback(async () => {
-    await Promise.all([fetchSummary(), fetchTodayAppointments()]);
-  }, [fetchSummary, fetchTodayAppointments]);
+  // Live changes arrive as deltas; only a reset from the server means a full refetch
+  const applyAppointmentChange = useCallback((change) => {
+    const today = new Date();
+    const todayIso = `${today.getFullYear()}-${String(today.getMonth() + 1).padStart(2, '0')}-${String(today.getDate()).padStart(2, '0')}`;
+    setTodayAppointments((rows) => {
+      const existing = rows.find((r) => r.id === change.id);
+      if (change.date !== todayIso) {
+        return existing ? rows.filter((r) => r.id !== change.id) : rows;
+      }
+      if (existing && existing.version != null && change.version != null && change.version <= existing.version) {
+        return rows;
+      }
+      const merged = { type: 'Consultation', ...existing };
+      Object.keys(change).forEach((key) => {
+        if (change[key] != null) merged[key] = change[key];
+      });
+      const next = existing ? rows.map((r) => (r.id === change.id ? merged : r)) : [...rows, merged];
+      return next.sort((a, b) => a.time.localeCompare(b.time));
+    });
+  }, []);
 
-  useAppointmentUpdates(handleAppointmentUpdate);
+  useDashboardFeed({
+    onSummary: setSummary,
+    onAppointment: applyAppointmentChange,
+    onReset: () => Promise.all([fetchSummary(), fetchTodayAppointments()]),
+  });
 
   if (loading) return <div>Loading...</div>;
   if (error) return <div>{error}</div>;
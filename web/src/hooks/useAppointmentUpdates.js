@@ -3,19 +3,39 @@ import { Client } from '@stomp/stompjs/esm6';
 import SockJS from 'sockjs-client';
 
 const WS_ENDPOINT = '/ws';
+// Changes to the signed-in user's own appointments
+const USER_QUEUE = '/user/queue/appointments';
+// Every appointment change; the server only lets admins subscribe
+const ADMIN_TOPIC = '/topic/admin/appointments';
 
-export const useAppointmentUpdates = (onUpdate) => {
+/**
+ * Calls onUpdate with { appointmentId, status, version } for each live appointment change.
+ * Events older than one already delivered for the same appointment are dropped.
+ */
+export const useAppointmentUpdates = (onUpdate, { admin = false } = {}) => {
   const clientRef = useRef(null);
 
   useEffect(() => {
+    const token = localStorage.getItem('digihealth_jwt') || localStorage.getItem('adminToken');
+    if (!token) {
+      return undefined;
+    }
+    const latestVersions = new Map();
+
     const client = new Client({
       webSocketFactory: () => new SockJS(WS_ENDPOINT),
+      connectHeaders: { Authorization: `Bearer ${token}` },
       reconnectDelay: 5000,
       onConnect: () => {
-        client.subscribe('/topic/appointments', (message) => {
-          const appointment = JSON.parse(message.body);
+        client.subscribe(admin ? ADMIN_TOPIC : USER_QUEUE, (message) => {
+          const event = JSON.parse(message.body);
+          const seen = latestVersions.get(event.appointmentId);
+          if (seen !== undefined && event.version != null && event.version <= seen) {
+            return;
+          }
+          latestVersions.set(event.appointmentId, event.version);
           if (onUpdate) {
-            onUpdate(appointment);
+            onUpdate(event);
           }
         });
       },
@@ -32,7 +52,7 @@ export const useAppointmentUpdates = (onUpdate) => {
         clientRef.current.deactivate();
       }
     };
-  }, [onUpdate]);
+  }, [onUpdate, admin]);
 
   const disconnect = useCallback(() => {
     if (clientRef.current) {
@@ -0,0 +1,94 @@
+import { useEffect, useRef } from 'react';
+import { API_BASE_URL } from '../api/client';
+
+const STREAM_URL = '/api/dashboard/stream';
+const RETRY_MS = 3000;
+
+/**
+ * Follows the doctor dashboard Server-Sent Events stream and calls
+ * handlers.onSummary, handlers.onAppointment or handlers.onReset for each event.
+ *
+ * Uses fetch rather than EventSource so the JWT can go in the Authorization header.
+ * On a dropped connection it reconnects with Last-Event-ID, so the server replays
+ * only the missed events, or sends a reset when it can no longer do that.
+ */
+export const useDashboardFeed = (handlers) => {
+  const handlersRef = useRef(handlers);
+  handlersRef.current = handlers;
+
+  useEffect(() => {
+    const token = localStorage.getItem('digihealth_jwt');
+    if (!token || typeof fetch !== 'function') {
+      return undefined;
+    }
+    const controller = new AbortController();
+    let lastEventId = null;
+    let retryTimer = null;
+
+    const dispatch = (name, data) => {
+      const h = handlersRef.current || {};
+      const payload = data ? JSON.parse(data) : null;
+      if (name === 'summary' && h.onSummary) h.onSummary(payload);
+      if (name === 'appointment' && h.onAppointment) h.onAppointment(payload);
+      if (name === 'reset' && h.onReset) h.onReset();
+    };
+
+    // One SSE block: "id:", "event:" and "data:" lines; lines starting with ":" are keep-alives
+    const handleBlock = (block) => {
+      let name = 'message';
+      const data = [];
+      block.split('\n').forEach((line) => {
+        if (line.startsWith(':')) return;
+        const idx = line.indexOf(':');
+        const field = idx < 0 ? line : line.slice(0, idx);
+        const value = idx < 0 ? '' : line.slice(idx + 1).replace(/^ /, '');
+        if (field === 'id') lastEventId = value;
+        if (field === 'event') name = value;
+        if (field === 'data') data.push(value);
+      });
+      if (data.length) {
+        dispatch(name, data.join('\n'));
+      }
+    };
+
+    const connect = async () => {
+      try {
+        const headers = { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' };
+        if (lastEventId) {
+          headers['Last-Event-ID'] = lastEventId;
+        }
+        const res = await fetch(`${API_BASE_URL}${STREAM_URL}`, { headers, signal: controller.signal });
+        if (!res.ok || !res.body) {
+          throw new Error(`Dashboard stream returned ${res.status}`);
+        }
+        const reader = res.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        for (;;) {
+          const { done, value } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n');
+          let end = buffer.indexOf('\n\n');
+          while (end >= 0) {
+            handleBlock(buffer.slice(0, end));
+            buffer = buffer.slice(end + 2);
+            end = buffer.indexOf('\n\n');
+          }
+        }
+      } catch (err) {
+        if (controller.signal.aborted) return;
+        console.error('Dashboard stream error:', err);
+      }
+      if (!controller.signal.aborted) {
+        retryTimer = setTimeout(connect, RETRY_MS);
+      }
+    };
+
+    connect();
+
+    return () => {
+      controller.abort();
+      clearTimeout(retryTimer);
+    };
+  }, []);
+};